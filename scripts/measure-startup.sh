@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Measures time-to-ready and time-to-stable-p99 for a wallet-service container image.
+#
+# Usage: scripts/measure-startup.sh <image> [requests] [p99-target-ms] [max-windows]
+#   image          image built from Dockerfile, Dockerfile.cds or Dockerfile.native
+#   requests       balance reads per latency window (default 200)
+#   p99-target-ms  p99 that counts as "stable" (default 20)
+#   max-windows    latency windows tried before giving up (default 50)
+#
+# Exits 1 if the service is not ready within READY_TIMEOUT_S seconds (default 120) or
+# the p99 target is not met within max-windows.
+# Expects Postgres from docker-compose to be running (docker compose up -d postgres).
+# Extra JVM flags for JVM images go in JAVA_TOOL_OPTIONS, e.g. JAVA_TOOL_OPTIONS=-XX:TieredStopAtLevel=1
+# to compare startup with a C1-only JIT. Production images keep the full tiered JIT.
+set -euo pipefail
+
+IMAGE=${1:?usage: $0 <image> [requests] [p99-target-ms] [max-windows]}
+REQUESTS=${2:-200}
+P99_TARGET_MS=${3:-20}
+MAX_WINDOWS=${4:-50}
+READY_TIMEOUT_S=${READY_TIMEOUT_S:-120}
+PORT=${PORT:-18080}
+NETWORK=${NETWORK:-wallet-services_wallet-network}
+WALLET_ID=${WALLET_ID:-550e8400-e29b-41d4-a716-446655440000}
+BASE_URL="http://localhost:${PORT}"
+
+now_ms() { date +%s%3N; }
+
+cleanup() { docker rm -f wallet-startup-probe >/dev/null 2>&1 || true; }
+trap cleanup EXIT
+
+start=$(now_ms)
+docker run -d --name wallet-startup-probe --network "$NETWORK" -p "${PORT}:8080" \
+    -e SPRING_DATASOURCE_URL=jdbc:postgresql://postgres:5432/walletdb \
+    -e SPRING_DATASOURCE_USERNAME=wallet_user -e SPRING_DATASOURCE_PASSWORD=wallet_pass \
+    -e WALLET_WARMUP_ENABLED="${WALLET_WARMUP_ENABLED:-false}" \
+    -e JAVA_TOOL_OPTIONS="${JAVA_TOOL_OPTIONS:-}" \
+    "$IMAGE" >/dev/null
+
+deadline=$((start + READY_TIMEOUT_S * 1000))
+until curl -fs "${BASE_URL}/actuator/health/readiness" >/dev/null 2>&1; do
+    if [ "$(now_ms)" -ge "$deadline" ]; then
+        echo "not ready after ${READY_TIMEOUT_S} s" >&2
+        exit 1
+    fi
+    sleep 0.05
+done
+ready=$(now_ms)
+echo "time-to-ready: $((ready - start)) ms"
+
+curl -fs -X POST "${BASE_URL}/api/v1/wallet" -H 'Content-Type: application/json' \
+    -d "{\"walletId\":\"${WALLET_ID}\",\"operationType\":\"DEPOSIT\",\"amount\":1.00}" >/dev/null
+
+# Repeat latency windows until the p99 of one window falls under the target
+window=0
+while true; do
+    if [ "$window" -ge "$MAX_WINDOWS" ]; then
+        echo "p99 target of ${P99_TARGET_MS} ms not met within ${MAX_WINDOWS} windows" >&2
+        exit 1
+    fi
+    window=$((window + 1))
+    p99=$(for _ in $(seq "$REQUESTS"); do
+            curl -s -o /dev/null -w '%{time_total}\n' "${BASE_URL}/api/v1/wallets/${WALLET_ID}"
+          done | sort -n | awk -v n="$REQUESTS" '{ v[NR] = $1 } END { i = int(n * 0.99); if (i < 1) i = 1; printf "%d", v[i] * 1000 }')
+    echo "window ${window}: p99 ${p99} ms"
+    if [ "$p99" -le "$P99_TARGET_MS" ]; then
+        break
+    fi
+done
+stable=$(now_ms)
+echo "time-to-stable-p99: $((stable - start)) ms (${window} windows)"
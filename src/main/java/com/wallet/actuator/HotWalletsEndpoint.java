@@ -0,0 +1,26 @@
+package com.wallet.actuator;
+
+import com.wallet.concurrency.HotWalletTracker;
+import com.wallet.concurrency.HotWalletTracker.HotWallet;
+import com.wallet.config.WalletProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "hotwallets")
+@RequiredArgsConstructor
+public class HotWalletsEndpoint {
+    
+    private final HotWalletTracker hotWalletTracker;
+    private final WalletProperties walletProperties;
+    
+    @ReadOperation
+    public List<HotWallet> hotWallets(@Nullable Integer limit) {
+        return hotWalletTracker.topWallets(limit != null ? limit : walletProperties.getHotWallets().getTopN());
+    }
+}
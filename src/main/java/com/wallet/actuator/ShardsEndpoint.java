@@ -0,0 +1,48 @@
+package com.wallet.actuator;
+
+import com.wallet.sharding.ShardMigrationService;
+import com.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class ShardsEndpoint {
+    
+    private final ShardRouter shardRouter;
+    private final ShardMigrationService migrationService;
+    
+    @ReadOperation
+    public ShardStatus shards() {
+        return new ShardStatus(shardRouter.getShardCount(), shardRouter.bucketsPerShard(),
+            shardRouter.migratingBuckets(), migrationService.isRebalancing(), migrationService.getRemainingBuckets());
+    }
+    
+    /**
+     * Starts moving buckets to the jump-hash placement over {@code shardCount} shards.
+     */
+    @WriteOperation
+    public Map<String, Object> rebalance(int shardCount) {
+        if (shardCount < 1 || shardCount > shardRouter.getShardCount()) {
+            String reason = "Shard count must be between 1 and " + shardRouter.getShardCount();
+            throw new InvalidEndpointRequestException(reason, reason);
+        }
+        int buckets = migrationService.plan(shardCount).size();
+        migrationService.rebalance(shardCount);
+        return Map.of("shardCount", shardCount, "bucketsToMove", buckets);
+    }
+    
+    public record ShardStatus(int configuredShards, Map<Integer, Integer> bucketsPerShard,
+                              List<Integer> migratingBuckets, boolean rebalancing, int remainingBuckets) {
+    }
+}
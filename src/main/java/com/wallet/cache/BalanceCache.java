@@ -0,0 +1,146 @@
+package com.wallet.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletResponse;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.repository.VersionedBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balances cached on this instance. Every entry carries the wallet version it was read at,
+ * and an invalidation leaves the changed version behind as a floor, so neither a late
+ * invalidation nor a read that started before the change can put an older balance back.
+ *
+ * <p>Writes made here invalidate on commit; writes made elsewhere arrive through
+ * {@link BalanceChangePoller}. Reads bypass the cache while the poller is behind by more
+ * than max-staleness.
+ */
+@Component
+@Slf4j
+public class BalanceCache {
+    
+    private final boolean enabled;
+    private final long maxStalenessNanos;
+    private final Cache<UUID, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypassed;
+    private final Counter invalidations;
+    
+    // Bumped by resync; a read that started before it may not fill the cache
+    private final AtomicLong epoch = new AtomicLong();
+    // 0 until the first poll, so nothing is served before the poller has caught up
+    private volatile long syncedAtNanos;
+    
+    public BalanceCache(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        WalletProperties.BalanceCache properties = walletProperties.getBalanceCache();
+        this.enabled = properties.isEnabled();
+        this.maxStalenessNanos = properties.getMaxStaleness().toNanos();
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getTimeToLive())
+            .build();
+        this.hits = Counter.builder("wallet.balance-cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("wallet.balance-cache.misses").register(meterRegistry);
+        this.bypassed = Counter.builder("wallet.balance-cache.bypassed").register(meterRegistry);
+        this.invalidations = Counter.builder("wallet.balance-cache.invalidations").register(meterRegistry);
+        Gauge.builder("wallet.balance-cache.size", entries, Cache::estimatedSize).register(meterRegistry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Returns the cached balance, or null when the caller has to read the database.
+     */
+    public WalletResponse get(UUID walletId) {
+        if (!enabled) {
+            return null;
+        }
+        if (!isSynced()) {
+            bypassed.increment();
+            return null;
+        }
+        Entry entry = entries.getIfPresent(walletId);
+        if (entry == null || entry.response() == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.response();
+    }
+    
+    /**
+     * Taken before reading the database and handed back to {@link #put}.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+    
+    public void put(UUID walletId, VersionedBalance balance, long readEpoch) {
+        if (!enabled || readEpoch != epoch.get()) {
+            return;
+        }
+        Entry read = new Entry(balance.response(), balance.version());
+        Entry stored = entries.asMap().compute(walletId, (id, current) -> current == null
+            || current.version() < read.version()
+            || (current.version() == read.version() && current.response() == null) ? read : current);
+        // A resync that cleared the cache meanwhile must not be undone
+        if (readEpoch != epoch.get()) {
+            entries.asMap().remove(walletId, stored);
+        }
+    }
+    
+    public void invalidate(UUID walletId, long version) {
+        if (!enabled) {
+            return;
+        }
+        entries.asMap().compute(walletId, (id, current) ->
+            current == null || current.version() < version ? new Entry(null, version) : current);
+        invalidations.increment();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        if (event.version() != null) {
+            invalidate(event.walletId(), event.version());
+        }
+    }
+    
+    /**
+     * Called by the poller once every change committed before {@code polledAtNanos} is applied.
+     */
+    void markSynced(long polledAtNanos) {
+        syncedAtNanos = polledAtNanos;
+    }
+    
+    /**
+     * Drops everything after the poller fell behind, since changes may have been pruned unseen.
+     */
+    void resync() {
+        epoch.incrementAndGet();
+        entries.invalidateAll();
+        log.warn("Balance cache cleared after the change poller fell behind");
+    }
+    
+    boolean isSynced() {
+        long syncedAt = syncedAtNanos;
+        return syncedAt != 0 && System.nanoTime() - syncedAt <= maxStalenessNanos;
+    }
+    
+    // A null response is a floor: the version changed and has not been read yet
+    private record Entry(WalletResponse response, long version) {
+    }
+}
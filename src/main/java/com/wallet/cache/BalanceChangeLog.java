@@ -0,0 +1,53 @@
+package com.wallet.cache;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.event.BalanceChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Appends every balance change to wallet_balance_changes, inside the transaction that made it,
+ * for the other instances' balance caches to pick up. Only the wallet and its new version are
+ * written; each instance reads the balance itself if it is asked for it.
+ */
+@Component
+public class BalanceChangeLog {
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    
+    public BalanceChangeLog(NamedParameterJdbcTemplate jdbcTemplate, WalletProperties walletProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = walletProperties.getBalanceCache().isEnabled();
+    }
+    
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        if (!enabled || event.version() == null) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO wallet_balance_changes (wallet_id, version) VALUES (:walletId, :version)",
+            new MapSqlParameterSource("walletId", event.walletId()).addValue("version", event.version()));
+    }
+    
+    /**
+     * For writers that update wallets through JDBC: records the versions they left behind.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<UUID> walletIds) {
+        if (!enabled || walletIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO wallet_balance_changes (wallet_id, version) "
+                + "SELECT wallet_id, version FROM wallets WHERE wallet_id IN (:walletIds)",
+            new MapSqlParameterSource("walletIds", walletIds));
+    }
+}
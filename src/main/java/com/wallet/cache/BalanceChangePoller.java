@@ -0,0 +1,175 @@
+package com.wallet.cache;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.sharding.ShardedTaskRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds changes committed on any instance into this instance's {@link BalanceCache}. Each
+ * shard's wallet_balance_changes is read past the last id seen there.
+ *
+ * <p>Ids are drawn before commit, so a lower id can commit after a higher one was read. The
+ * ids skipped over are re-read on every poll until they show up or gap-timeout passes, by
+ * which time their transaction has committed or rolled back. Only the last max-gaps ids
+ * behind the cursor are awaited; a wider jump clears the cache instead, since a change
+ * committed further back would go unseen.
+ *
+ * <p>Runs on its own thread, so a long scheduled job cannot hold up invalidations.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "wallet.balance-cache", name = "enabled", havingValue = "true")
+public class BalanceChangePoller {
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BalanceCache balanceCache;
+    private final ShardedTaskRunner shardedTaskRunner;
+    private final WalletProperties.BalanceCache properties;
+    private final Counter failures;
+    private final ScheduledExecutorService executor;
+    
+    // Guarded by this
+    private final Map<Integer, Cursor> cursors = new HashMap<>();
+    private long lastPollNanos;
+    
+    public BalanceChangePoller(NamedParameterJdbcTemplate jdbcTemplate, BalanceCache balanceCache,
+                               ShardedTaskRunner shardedTaskRunner, WalletProperties walletProperties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.balanceCache = balanceCache;
+        this.shardedTaskRunner = shardedTaskRunner;
+        this.properties = walletProperties.getBalanceCache();
+        this.failures = Counter.builder("wallet.balance-cache.poll.failures").register(meterRegistry);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-cache-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long pollMillis = properties.getPollInterval().toMillis();
+        long pruneMillis = properties.getPruneInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::prune, pruneMillis, pruneMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public synchronized void poll() {
+        long startedAt = System.nanoTime();
+        try {
+            for (int shard = 0; shard < shardedTaskRunner.getShardCount(); shard++) {
+                Cursor cursor = cursors.computeIfAbsent(shard, key -> new Cursor());
+                shardedTaskRunner.callOnShard(shard, () -> {
+                    pollShard(cursor, startedAt);
+                    return null;
+                });
+            }
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.error("Balance change poll failed, will be retried: {}", ex.getMessage());
+            return;
+        }
+        // Changes older than retention may have been pruned before this instance saw them
+        long unseenLimit = properties.getRetention().minus(properties.getGapTimeout()).toNanos();
+        if (lastPollNanos != 0 && startedAt - lastPollNanos > unseenLimit) {
+            balanceCache.resync();
+        }
+        lastPollNanos = startedAt;
+        balanceCache.markSynced(startedAt);
+    }
+    
+    private void pollShard(Cursor cursor, long now) {
+        int maxGaps = properties.getMaxGaps();
+        if (cursor.lastId < 0) {
+            // Start max-gaps ids back from the newest change, so the ids below it that are not
+            // there yet are awaited like any other gap. Pruned ids are dropped at gap-timeout.
+            long newest = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM wallet_balance_changes", new MapSqlParameterSource(), Long.class);
+            cursor.lastId = Math.max(0, newest - maxGaps);
+        }
+        
+        long gapTimeout = properties.getGapTimeout().toNanos();
+        cursor.gaps.values().removeIf(skippedAt -> now - skippedAt > gapTimeout);
+        List<Long> awaited = new ArrayList<>(cursor.gaps.keySet());
+        for (int from = 0; from < awaited.size(); from += properties.getBatchSize()) {
+            List<Long> ids = awaited.subList(from, Math.min(from + properties.getBatchSize(), awaited.size()));
+            jdbcTemplate.query("SELECT id, wallet_id, version FROM wallet_balance_changes WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids), rs -> {
+                    cursor.gaps.remove(rs.getLong(1));
+                    balanceCache.invalidate(rs.getObject(2, UUID.class), rs.getLong(3));
+                });
+        }
+        
+        boolean overflowed = false;
+        List<Long> read;
+        do {
+            read = new ArrayList<>();
+            List<Long> ids = read;
+            jdbcTemplate.query(
+                "SELECT id, wallet_id, version FROM wallet_balance_changes WHERE id > :lastId ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("lastId", cursor.lastId).addValue("limit", properties.getBatchSize()),
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    balanceCache.invalidate(rs.getObject(2, UUID.class), rs.getLong(3));
+                });
+            for (long id : read) {
+                long firstAwaited = Math.max(cursor.lastId + 1, id - maxGaps);
+                overflowed |= firstAwaited > cursor.lastId + 1;
+                for (long skipped = firstAwaited; skipped < id; skipped++) {
+                    cursor.gaps.put(skipped, now);
+                }
+                cursor.lastId = id;
+            }
+            long floor = cursor.lastId - maxGaps;
+            for (Iterator<Long> gaps = cursor.gaps.keySet().iterator(); gaps.hasNext(); ) {
+                if (gaps.next() < floor) {
+                    gaps.remove();
+                    overflowed = true;
+                }
+            }
+        } while (read.size() == properties.getBatchSize());
+        
+        if (overflowed) {
+            balanceCache.resync();
+        }
+    }
+    
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        try {
+            shardedTaskRunner.runOnEachShard(() -> {
+                int pruned = jdbcTemplate.update("DELETE FROM wallet_balance_changes WHERE created_at < :cutoff",
+                    new MapSqlParameterSource("cutoff", cutoff));
+                log.debug("Pruned {} balance changes", pruned);
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Balance change pruning failed, will be retried: {}", ex.getMessage());
+        }
+    }
+    
+    private static class Cursor {
+        private long lastId = -1;
+        // Skipped id -> when it was skipped
+        private final Map<Long, Long> gaps = new HashMap<>();
+    }
+}
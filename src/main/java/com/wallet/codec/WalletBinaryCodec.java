@@ -0,0 +1,103 @@
+package com.wallet.codec;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Fixed-layout binary encoding of the wallet DTOs for internal callers. All values are
+ * big-endian; UUIDs are two longs and amounts are longs in minor units (scale 2).
+ *
+ * <pre>
+ * request       25 bytes  walletId(16) operationType(1) amount(8)
+ * response      24 bytes  walletId(16) balance(8)
+ * batch result  25 bytes  walletId(16) status(1) balance(8)
+ * </pre>
+ *
+ * <p>A single request that fails is answered with a batch result record as well, under the
+ * usual HTTP status, when the client prefers this format over JSON.
+ */
+public final class WalletBinaryCodec {
+    
+    public static final String MEDIA_TYPE_VALUE = "application/x-wallet-binary";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+    
+    public static final int REQUEST_SIZE = 25;
+    public static final int RESPONSE_SIZE = 24;
+    public static final int BATCH_RESULT_SIZE = 25;
+    
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INSUFFICIENT_FUNDS = 1;
+    public static final byte STATUS_REJECTED = 2;
+    public static final byte STATUS_INVALID = 3;
+    public static final byte STATUS_ERROR = 4;
+    public static final byte STATUS_LIMIT_EXCEEDED = 5;
+    public static final byte STATUS_NOT_FOUND = 6;
+    
+    private static final int SCALE = 2;
+    // Holds need a hold id, which the fixed-size request has no room for
+    private static final OperationType[] OPERATION_TYPES = {OperationType.DEPOSIT, OperationType.WITHDRAW};
+    
+    private WalletBinaryCodec() {
+    }
+    
+    public static void writeRequest(WalletOperationRequest request, ByteBuffer buffer) {
+        OperationType operationType = request.getOperationType();
+        if (operationType != OperationType.DEPOSIT && operationType != OperationType.WITHDRAW) {
+            throw new IllegalArgumentException("Operation type not supported by the binary format: " + operationType);
+        }
+        writeUuid(request.getWalletId(), buffer);
+        buffer.put((byte) operationType.ordinal());
+        buffer.putLong(toMinorUnits(request.getAmount()));
+    }
+    
+    public static WalletOperationRequest readRequest(ByteBuffer buffer) {
+        UUID walletId = readUuid(buffer);
+        int operation = buffer.get();
+        if (operation < 0 || operation >= OPERATION_TYPES.length) {
+            throw new IllegalArgumentException("Unknown operation type code: " + operation);
+        }
+        return new WalletOperationRequest(walletId, OPERATION_TYPES[operation], fromMinorUnits(buffer.getLong()));
+    }
+    
+    public static void writeResponse(WalletResponse response, ByteBuffer buffer) {
+        writeUuid(response.getWalletId(), buffer);
+        buffer.putLong(toMinorUnits(response.getBalance()));
+    }
+    
+    public static WalletResponse readResponse(ByteBuffer buffer) {
+        return new WalletResponse(readUuid(buffer), fromMinorUnits(buffer.getLong()));
+    }
+    
+    public static void writeBatchResult(UUID walletId, byte status, BigDecimal balance, ByteBuffer buffer) {
+        writeUuid(walletId, buffer);
+        buffer.put(status);
+        buffer.putLong(balance != null ? toMinorUnits(balance) : 0L);
+    }
+    
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount " + amount + " cannot be encoded in minor units");
+        }
+    }
+    
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    private static void writeUuid(UUID uuid, ByteBuffer buffer) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+    
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
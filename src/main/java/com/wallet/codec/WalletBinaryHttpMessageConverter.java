@@ -0,0 +1,66 @@
+package com.wallet.codec;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads {@link WalletOperationRequest} and writes {@link WalletResponse} as
+ * {@code application/x-wallet-binary}, picked by Content-Type and Accept alongside JSON.
+ * Registered after the default converters (see {@code WebConfig}) so JSON stays the default
+ * when the client accepts any type.
+ */
+public class WalletBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    
+    public WalletBinaryHttpMessageConverter() {
+        super(WalletBinaryCodec.MEDIA_TYPE);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == WalletOperationRequest.class || clazz == WalletResponse.class;
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        if (clazz != WalletOperationRequest.class) {
+            throw new HttpMessageNotReadableException("Cannot read " + clazz.getSimpleName() + " as binary", inputMessage);
+        }
+        byte[] record = new byte[WalletBinaryCodec.REQUEST_SIZE];
+        InputStream body = inputMessage.getBody();
+        if (body.readNBytes(record, 0, record.length) != record.length || body.read() != -1) {
+            throw new HttpMessageNotReadableException(
+                "Binary wallet request must be exactly " + WalletBinaryCodec.REQUEST_SIZE + " bytes", inputMessage);
+        }
+        try {
+            return WalletBinaryCodec.readRequest(ByteBuffer.wrap(record));
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotReadableException(ex.getMessage(), ex, inputMessage);
+        }
+    }
+    
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WalletBinaryCodec.RESPONSE_SIZE);
+        WalletBinaryCodec.writeResponse((WalletResponse) value, buffer);
+        outputMessage.getBody().write(buffer.array());
+    }
+    
+    @Override
+    protected Long getContentLength(Object value, MediaType contentType) {
+        return (long) WalletBinaryCodec.RESPONSE_SIZE;
+    }
+    
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == WalletResponse.class && canWrite(mediaType);
+    }
+}
@@ -0,0 +1,132 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control in front of WalletService. Each wallet gets a fixed cap on
+ * in-flight operations so one hot wallet cannot park every request thread on its
+ * row lock, and the whole service gets a global cap that adapts to latency.
+ */
+@Component
+@Slf4j
+public class AdmissionLimiter {
+    
+    private final WalletProperties.Admission properties;
+    private final GradientConcurrencyLimit globalLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<UUID, Integer> inFlightByWallet = new ConcurrentHashMap<>();
+    private final Counter walletRejections;
+    private final Counter globalRejections;
+    
+    public AdmissionLimiter(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.properties = walletProperties.getAdmission();
+        this.globalLimit = new GradientConcurrencyLimit(
+            properties.getInitialLimit(), properties.getMinLimit(),
+            properties.getMaxLimit(), properties.getSmoothing());
+        
+        this.walletRejections = Counter.builder("wallet.admission.rejected")
+                .tag("reason", "wallet")
+                .register(meterRegistry);
+        this.globalRejections = Counter.builder("wallet.admission.rejected")
+                .tag("reason", "global")
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.limit", globalLimit, GradientConcurrencyLimit::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.in-flight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+    
+    public Permit acquire(UUID walletId) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        
+        int current = inFlight.incrementAndGet();
+        if (current > globalLimit.getLimit()) {
+            inFlight.decrementAndGet();
+            globalRejections.increment();
+            throw new TooManyRequestsException(
+                "Service is at capacity. Please retry the operation.", properties.getRetryAfter());
+        }
+        
+        if (!tryAcquireWallet(walletId)) {
+            inFlight.decrementAndGet();
+            walletRejections.increment();
+            log.debug("Rejected operation for wallet {}: per-wallet limit reached", walletId);
+            throw new TooManyRequestsException(
+                "Too many concurrent operations for wallet " + walletId + ". Please retry the operation.",
+                properties.getRetryAfter());
+        }
+        
+        return new Permit(walletId, current, System.nanoTime());
+    }
+    
+    public int getLimit() {
+        return globalLimit.getLimit();
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public double getLatencyRatio() {
+        return globalLimit.getLatencyRatio();
+    }
+    
+    int getInFlight(UUID walletId) {
+        return inFlightByWallet.getOrDefault(walletId, 0);
+    }
+    
+    private boolean tryAcquireWallet(UUID walletId) {
+        int perWalletLimit = properties.getPerWalletLimit();
+        boolean[] admitted = new boolean[1];
+        inFlightByWallet.compute(walletId, (id, count) -> {
+            int value = count == null ? 0 : count;
+            if (value >= perWalletLimit) {
+                return count;
+            }
+            admitted[0] = true;
+            return value + 1;
+        });
+        return admitted[0];
+    }
+    
+    private void release(Permit permit) {
+        // Idle wallets are dropped so the map only holds wallets with work in flight
+        inFlightByWallet.computeIfPresent(permit.walletId, (id, count) -> count <= 1 ? null : count - 1);
+        inFlight.decrementAndGet();
+        globalLimit.onSample(System.nanoTime() - permit.startNanos, permit.inFlightAtStart);
+    }
+    
+    public final class Permit implements AutoCloseable {
+        
+        private final UUID walletId;
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Permit(UUID walletId, int inFlightAtStart, long startNanos) {
+            this.walletId = walletId;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+        
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(this);
+            }
+        }
+    }
+}
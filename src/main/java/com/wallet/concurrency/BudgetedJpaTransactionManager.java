@@ -0,0 +1,79 @@
+package com.wallet.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * JpaTransactionManager that gives every transaction a time budget. Spring checks the
+ * deadline before each statement and passes what is left as the statement timeout, so a
+ * transaction stuck behind a lock gives its connection back at the deadline instead of
+ * holding it for as long as the lock lasts. A shorter {@code @Transactional(timeout)} wins.
+ *
+ * <p>Connection hold times are reported to the {@link PoolSizeController}.
+ */
+public class BudgetedJpaTransactionManager extends JpaTransactionManager {
+    
+    private final PoolSizeController poolSizeController;
+    private final long budgetNanos;
+    private final Counter budgetExceeded;
+    // Suspended transactions complete after the ones started inside them
+    private final ThreadLocal<Deque<PoolSizeController.Sample>> samples = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    public BudgetedJpaTransactionManager(EntityManagerFactory entityManagerFactory, PoolSizeController poolSizeController,
+                                         Duration budget, MeterRegistry meterRegistry) {
+        super(entityManagerFactory);
+        this.poolSizeController = poolSizeController;
+        this.budgetNanos = budget.toNanos();
+        this.budgetExceeded = Counter.builder("wallet.pool.budget-exceeded").register(meterRegistry);
+    }
+    
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        
+        int timeoutSeconds = determineTimeout(definition);
+        if (timeoutSeconds == TransactionDefinition.TIMEOUT_DEFAULT || Duration.ofSeconds(timeoutSeconds).toNanos() > budgetNanos) {
+            long budgetMillis = Duration.ofNanos(budgetNanos).toMillis();
+            EntityManagerHolder entityManagerHolder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            if (entityManagerHolder != null) {
+                entityManagerHolder.setTimeoutInMillis(budgetMillis);
+            }
+            // JdbcTemplate statements in the same transaction read the deadline from here
+            if (getDataSource() != null
+                && TransactionSynchronizationManager.getResource(getDataSource()) instanceof ConnectionHolder connectionHolder) {
+                connectionHolder.setTimeoutInMillis(budgetMillis);
+            }
+        }
+        samples.get().push(poolSizeController.start());
+    }
+    
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            Deque<PoolSizeController.Sample> stack = samples.get();
+            PoolSizeController.Sample sample = stack.poll();
+            if (stack.isEmpty()) {
+                samples.remove();
+            }
+            if (sample != null) {
+                if (sample.elapsedNanos() >= budgetNanos) {
+                    budgetExceeded.increment();
+                }
+                poolSizeController.complete(sample);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.wallet.concurrency;
+
+/**
+ * Concurrency limit that follows measured latency: it grows while the latest
+ * round trips stay close to the long-term average and shrinks as soon as they
+ * start queueing behind each other (gradient = longRtt / shortRtt).
+ */
+public class GradientConcurrencyLimit {
+    
+    private static final double LONG_RTT_DECAY = 0.05;
+    private static final double SHORT_RTT_DECAY = 0.3;
+    private static final double MIN_GRADIENT = 0.5;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos = Double.NaN;
+    private double shortRttNanos = Double.NaN;
+    private volatile double latencyRatio = 1.0;
+    
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    /**
+     * Recent latency relative to the long-term average; above 1 means requests are slowing down.
+     */
+    public double getLatencyRatio() {
+        return latencyRatio;
+    }
+    
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (Double.isNaN(longRttNanos)) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - LONG_RTT_DECAY) + rttNanos * LONG_RTT_DECAY;
+            shortRttNanos = shortRttNanos * (1 - SHORT_RTT_DECAY) + rttNanos * SHORT_RTT_DECAY;
+        }
+        latencyRatio = shortRttNanos / longRttNanos;
+        
+        // Don't grow the limit while the caller isn't using it
+        if (inFlight < estimatedLimit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        
+        estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+        limit = (int) estimatedLimit;
+    }
+    
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,169 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks per-wallet operation rates with a bounded Space-Saving heavy-hitters sketch.
+ *
+ * <p>Memory is fixed at {@code capacity} counters no matter how many wallets exist.
+ * Counts are kept per time window; a wallet is hot when its rate in the previous
+ * window, or its count so far in the current one, reaches the threshold. The sketch
+ * is striped by walletId so recording does not serialize on a single lock.
+ */
+@Component
+public class HotWalletTracker {
+    
+    private final WalletProperties.HotWallets properties;
+    private final Stripe[] stripes;
+    private final long windowNanos;
+    private final long hotCountPerWindow;
+    
+    public HotWalletTracker(WalletProperties walletProperties) {
+        this.properties = walletProperties.getHotWallets();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.hotCountPerWindow = Math.max(1,
+            Math.round(properties.getThreshold() * properties.getWindow().toMillis() / 1000.0));
+        
+        int stripeCount = Math.max(1, properties.getStripes());
+        int countersPerStripe = Math.max(1, properties.getCapacity() / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(countersPerStripe);
+        }
+    }
+    
+    /**
+     * Counts one operation for the wallet and reports whether the wallet is hot.
+     */
+    public boolean record(UUID walletId) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        return stripeFor(walletId).record(walletId, System.nanoTime());
+    }
+    
+    public boolean isHot(UUID walletId) {
+        return properties.isEnabled() && stripeFor(walletId).isHot(walletId, System.nanoTime());
+    }
+    
+    public List<HotWallet> topWallets(int limit) {
+        long now = System.nanoTime();
+        List<HotWallet> candidates = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.collect(now, candidates);
+        }
+        candidates.sort(Comparator.comparingDouble(HotWallet::operationsPerSecond).reversed());
+        return candidates.size() > limit ? List.copyOf(candidates.subList(0, limit)) : candidates;
+    }
+    
+    private Stripe stripeFor(UUID walletId) {
+        return stripes[Math.floorMod(walletId.hashCode(), stripes.length)];
+    }
+    
+    /**
+     * @param estimatedCount operations counted in the reported window (an upper bound)
+     * @param maxError how much of estimatedCount may belong to evicted wallets
+     */
+    public record HotWallet(UUID walletId, double operationsPerSecond, long estimatedCount,
+                            long maxError, boolean hot) {
+    }
+    
+    private static final class Counter {
+        private long count;
+        private long error;
+    }
+    
+    private final class Stripe {
+        
+        private final int capacity;
+        private Map<UUID, Counter> current;
+        private Map<UUID, Counter> previous = Map.of();
+        private long windowStart;
+        private long previousWindowNanos;
+        
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.current = new HashMap<>(capacity * 2);
+            this.windowStart = System.nanoTime();
+        }
+        
+        private synchronized boolean record(UUID walletId, long now) {
+            rotateIfExpired(now);
+            Counter counter = current.get(walletId);
+            if (counter == null) {
+                counter = new Counter();
+                if (current.size() >= capacity) {
+                    // Space-Saving: the new wallet takes over the smallest counter and inherits its count as error
+                    Counter evicted = removeMinimum();
+                    counter.count = evicted.count;
+                    counter.error = evicted.count;
+                }
+                current.put(walletId, counter);
+            }
+            counter.count++;
+            return isHot(walletId, counter);
+        }
+        
+        private synchronized boolean isHot(UUID walletId, long now) {
+            rotateIfExpired(now);
+            return isHot(walletId, current.get(walletId));
+        }
+        
+        private boolean isHot(UUID walletId, Counter counter) {
+            // Guaranteed counts (count - error) avoid flagging wallets that merely inherited a large counter
+            if (counter != null && counter.count - counter.error >= hotCountPerWindow) {
+                return true;
+            }
+            Counter last = previous.get(walletId);
+            return last != null && rate(last.count - last.error, previousWindowNanos) >= properties.getThreshold();
+        }
+        
+        private synchronized void collect(long now, List<HotWallet> into) {
+            rotateIfExpired(now);
+            for (Map.Entry<UUID, Counter> entry : previous.entrySet()) {
+                Counter counter = entry.getValue();
+                double rate = rate(counter.count, previousWindowNanos);
+                into.add(new HotWallet(entry.getKey(), rate, counter.count, counter.error,
+                    rate(counter.count - counter.error, previousWindowNanos) >= properties.getThreshold()));
+            }
+        }
+        
+        private void rotateIfExpired(long now) {
+            long elapsed = now - windowStart;
+            if (elapsed < windowNanos) {
+                return;
+            }
+            // A stripe idle for more than a full window has nothing recent to report
+            previous = elapsed < 2 * windowNanos ? current : Map.of();
+            previousWindowNanos = elapsed;
+            current = new HashMap<>(capacity * 2);
+            windowStart = now;
+        }
+        
+        private Counter removeMinimum() {
+            Iterator<Map.Entry<UUID, Counter>> iterator = current.entrySet().iterator();
+            Map.Entry<UUID, Counter> minimum = iterator.next();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, Counter> entry = iterator.next();
+                if (entry.getValue().count < minimum.getValue().count) {
+                    minimum = entry;
+                }
+            }
+            current.remove(minimum.getKey());
+            return minimum.getValue();
+        }
+        
+        private double rate(long count, long nanos) {
+            return nanos <= 0 ? 0 : count * 1_000_000_000.0 / nanos;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.sharding.ShardContext;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sizes each connection pool from how long transactions hold their connection. Every
+ * pool (one per shard) has its own gradient limit: it grows while hold times stay near
+ * their long-term average and shrinks once transactions start queueing on locks, so
+ * fewer connections end up parked in blocked transactions.
+ *
+ * <p>Demand is also reported from Little's law: the total hold time per interval divided
+ * by the interval is the average number of connections in use.
+ */
+@Slf4j
+public class PoolSizeController {
+    
+    private final WalletProperties.Pool properties;
+    private final List<Pool> pools;
+    
+    public PoolSizeController(List<HikariDataSource> dataSources, WalletProperties walletProperties,
+                              MeterRegistry meterRegistry) {
+        this.properties = walletProperties.getPool();
+        this.pools = new ArrayList<>(dataSources.size());
+        for (HikariDataSource dataSource : dataSources) {
+            pools.add(new Pool(dataSource, meterRegistry));
+        }
+    }
+    
+    /**
+     * Call once the transaction holds its connection; the shard bound to the thread picks the pool.
+     */
+    public Sample start() {
+        Integer shard = ShardContext.current();
+        int index = shard == null ? 0 : shard;
+        Pool pool = index < pools.size() ? pools.get(index) : null;
+        if (pool == null) {
+            return new Sample(null, 0, System.nanoTime());
+        }
+        return new Sample(pool, pool.inFlight.incrementAndGet(), System.nanoTime());
+    }
+    
+    public void complete(Sample sample) {
+        Pool pool = sample.pool;
+        if (pool == null) {
+            return;
+        }
+        pool.inFlight.decrementAndGet();
+        pool.record(sample.elapsedNanos(), sample.inFlightAtStart);
+    }
+    
+    void record(int shard, long holdNanos, int inFlightAtStart) {
+        pools.get(shard).record(holdNanos, inFlightAtStart);
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.pool.adjust-interval:1000}")
+    public void adjust() {
+        for (Pool pool : pools) {
+            pool.updateDemand();
+            if (properties.isAdaptive()) {
+                pool.resize();
+            }
+        }
+    }
+    
+    public int getLimit(int shard) {
+        return pools.get(shard).limit.getLimit();
+    }
+    
+    public final class Sample {
+        
+        private final Pool pool;
+        private final int inFlightAtStart;
+        private final long startNanos;
+        
+        private Sample(Pool pool, int inFlightAtStart, long startNanos) {
+            this.pool = pool;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+        
+        public long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+    }
+    
+    private final class Pool {
+        
+        private final HikariDataSource dataSource;
+        private final int configuredMinimumIdle;
+        private final GradientConcurrencyLimit limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder holdNanos = new LongAdder();
+        private final Timer holdTime;
+        private volatile double demand;
+        private long lastAdjustNanos = System.nanoTime();
+        
+        private Pool(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+            this.dataSource = dataSource;
+            this.configuredMinimumIdle = dataSource.getMinimumIdle();
+            this.limit = new GradientConcurrencyLimit(dataSource.getMaximumPoolSize(),
+                properties.getMinSize(), properties.getMaxSize(), properties.getSmoothing());
+            
+            String name = dataSource.getPoolName() != null ? dataSource.getPoolName() : "default";
+            this.holdTime = Timer.builder("wallet.pool.hold-time").tag("pool", name).register(meterRegistry);
+            Gauge.builder("wallet.pool.limit", limit, GradientConcurrencyLimit::getLimit)
+                .tag("pool", name).register(meterRegistry);
+            Gauge.builder("wallet.pool.in-flight", inFlight, AtomicInteger::get)
+                .tag("pool", name).register(meterRegistry);
+            Gauge.builder("wallet.pool.latency-ratio", limit, GradientConcurrencyLimit::getLatencyRatio)
+                .tag("pool", name).register(meterRegistry);
+            Gauge.builder("wallet.pool.demand", this, pool -> pool.demand)
+                .tag("pool", name).register(meterRegistry);
+        }
+        
+        private void record(long nanos, int inFlightAtStart) {
+            holdNanos.add(nanos);
+            holdTime.record(nanos, TimeUnit.NANOSECONDS);
+            limit.onSample(nanos, inFlightAtStart);
+        }
+        
+        private void updateDemand() {
+            long now = System.nanoTime();
+            long interval = now - lastAdjustNanos;
+            lastAdjustNanos = now;
+            if (interval > 0) {
+                demand = (double) holdNanos.sumThenReset() / interval;
+            }
+        }
+        
+        private void resize() {
+            HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+            int target = limit.getLimit();
+            int current = config.getMaximumPoolSize();
+            if (target == current) {
+                return;
+            }
+            // Hikari requires minimumIdle <= maximumPoolSize at every step
+            int minimumIdle = Math.min(configuredMinimumIdle, target);
+            if (target < current) {
+                config.setMinimumIdle(minimumIdle);
+                config.setMaximumPoolSize(target);
+            } else {
+                config.setMaximumPoolSize(target);
+                config.setMinimumIdle(minimumIdle);
+            }
+            log.debug("Resized pool {} from {} to {} connections (demand {})",
+                dataSource.getPoolName(), current, target, String.format("%.1f", demand));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs operations for the same wallet one at a time, in submission order.
+ *
+ * <p>Every wallet with pending work owns a bounded mailbox. Mailboxes are drained on
+ * one of a fixed set of single-threaded stripes chosen by walletId, so two operations
+ * on the same wallet never run concurrently while unrelated wallets proceed in
+ * parallel. A mailbox is discarded as soon as it runs empty.
+ */
+@Component
+@Slf4j
+public class WalletMailboxExecutor {
+    
+    private final WalletProperties.Serialization properties;
+    private final ExecutorService[] stripes;
+    private final ConcurrentHashMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejections;
+    
+    public WalletMailboxExecutor(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.properties = walletProperties.getSerialization();
+        this.stripes = new ExecutorService[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            String threadName = "wallet-mailbox-" + i;
+            stripes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        this.rejections = Counter.builder("wallet.mailbox.rejected").register(meterRegistry);
+        Gauge.builder("wallet.mailbox.queued", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("wallet.mailbox.active", mailboxes, ConcurrentHashMap::size).register(meterRegistry);
+    }
+    
+    public <T> MailboxFuture<T> submit(UUID walletId, Supplier<T> operation) {
+        MailboxFuture<T> future = new MailboxFuture<>();
+        Runnable task = () -> {
+            if (!future.started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                future.complete(operation.get());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        };
+        
+        if (queued.incrementAndGet() > properties.getMaxQueuedOperations()) {
+            queued.decrementAndGet();
+            throw reject("Too many queued wallet operations. Please retry the operation.");
+        }
+        
+        boolean[] schedule = new boolean[1];
+        boolean[] accepted = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(walletId, (id, existing) -> {
+            Mailbox box = existing != null ? existing : new Mailbox(id);
+            if (box.tasks.size() >= properties.getMailboxCapacity()) {
+                return existing;
+            }
+            box.tasks.add(task);
+            accepted[0] = true;
+            if (!box.scheduled) {
+                box.scheduled = true;
+                schedule[0] = true;
+            }
+            return box;
+        });
+        
+        if (!accepted[0]) {
+            queued.decrementAndGet();
+            throw reject("Too many queued operations for wallet " + walletId + ". Please retry the operation.");
+        }
+        if (schedule[0]) {
+            stripeFor(walletId).execute(mailbox::drain);
+        }
+        return future;
+    }
+    
+    public int getQueued() {
+        return queued.get();
+    }
+    
+    int getActiveMailboxes() {
+        return mailboxes.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+        for (ExecutorService stripe : stripes) {
+            if (!stripe.awaitTermination(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Wallet mailbox stripe did not drain before shutdown");
+                stripe.shutdownNow();
+            }
+        }
+    }
+    
+    private ExecutorService stripeFor(UUID walletId) {
+        return stripes[Math.floorMod(walletId.hashCode(), stripes.length)];
+    }
+    
+    private TooManyRequestsException reject(String message) {
+        rejections.increment();
+        return new TooManyRequestsException(message, properties.getTimeout().dividedBy(10));
+    }
+    
+    public static final class MailboxFuture<T> extends CompletableFuture<T> {
+        
+        private final AtomicBoolean started = new AtomicBoolean();
+        
+        /**
+         * Withdraws the operation if it has not started yet. Returns false when it is
+         * already running, in which case its outcome must still be awaited.
+         */
+        public boolean cancelIfNotStarted() {
+            if (started.compareAndSet(false, true)) {
+                cancel(false);
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    private final class Mailbox {
+        
+        private final UUID walletId;
+        // Guarded by the map bin lock: only read or written inside mailboxes.compute
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+        
+        private Mailbox(UUID walletId) {
+            this.walletId = walletId;
+        }
+        
+        private void drain() {
+            for (int i = 0; i < properties.getDrainBatchSize(); i++) {
+                Runnable task = pollOrRetire();
+                if (task == null) {
+                    return;
+                }
+                queued.decrementAndGet();
+                task.run();
+            }
+            try {
+                // Yield the stripe so other wallets mapped to it are not starved
+                stripeFor(walletId).execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                drain();
+            }
+        }
+        
+        private Runnable pollOrRetire() {
+            Runnable[] next = new Runnable[1];
+            mailboxes.compute(walletId, (id, box) -> {
+                next[0] = tasks.poll();
+                if (next[0] == null) {
+                    scheduled = false;
+                    return null;
+                }
+                return box;
+            });
+            return next[0];
+        }
+    }
+}
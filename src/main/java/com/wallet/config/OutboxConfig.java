@@ -0,0 +1,30 @@
+package com.wallet.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.outbox.FileOutboxEventSink;
+import com.wallet.outbox.InMemoryOutboxEventSink;
+import com.wallet.outbox.LoggingOutboxEventSink;
+import com.wallet.outbox.OutboxEventSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+    
+    // Applications can replace the sink (e.g. a message broker) by defining their own bean
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxEventSink outboxEventSink(WalletProperties walletProperties, ObjectMapper objectMapper) {
+        WalletProperties.Outbox outbox = walletProperties.getOutbox();
+        return switch (outbox.getSink()) {
+            case FILE -> new FileOutboxEventSink(Path.of(outbox.getFilePath()), objectMapper);
+            case MEMORY -> new InMemoryOutboxEventSink();
+            case LOG -> new LoggingOutboxEventSink();
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.wallet.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.wallet.model.Wallet;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for wallets, held in a bounded Caffeine cache. Hibernate
+ * updates entries on commit of its own writes; the jobs that write wallets through JDBC
+ * evict theirs through {@link com.wallet.service.WalletCacheEvictor}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.second-level-cache", name = "enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager walletCacheManager(WalletProperties walletProperties) {
+        WalletProperties.SecondLevelCache properties = walletProperties.getSecondLevelCache();
+        // A manager of its own, so that several application contexts in one JVM don't share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("wallet-second-level-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(properties.getMaximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.getTimeToLive().toNanos()));
+        // Hibernate stores disassembled state it never mutates, so copying it on every access is wasted
+        configuration.setStoreByValue(false);
+        cacheManager.createCache(Wallet.CACHE_REGION, configuration);
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager walletCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, walletCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.wallet.config;
+
+import com.wallet.sharding.ShardDataSources;
+import com.wallet.sharding.ShardMigrationService;
+import com.wallet.sharding.ShardRouter;
+import com.wallet.sharding.ShardRoutingDataSource;
+import com.wallet.sharding.ShardedSpringLiquibase;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the single data source with one pool per shard behind a routing data source.
+ * {@code spring.datasource} is then unused; shards are listed under {@code wallet.sharding.shards}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        List<WalletProperties.Shard> shards = walletProperties.getSharding().getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("wallet.sharding.enabled is set but no wallet.sharding.shards are configured");
+        }
+        List<HikariDataSource> dataSources = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            WalletProperties.Shard shard = shards.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            // hikaricp.* metrics, like the single pool gets from auto-configuration
+            dataSource.setMetricRegistry(meterRegistry);
+            dataSources.add(dataSource);
+        }
+        return new ShardDataSources(dataSources);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            targets.put(shard, shardDataSources.get(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shardDataSources.get(0));
+        return routing;
+    }
+    
+    @Bean
+    public SpringLiquibase liquibase(ShardDataSources shardDataSources,
+                                     @Value("${spring.liquibase.change-log}") String changeLog,
+                                     @Value("${spring.liquibase.enabled:true}") boolean enabled) {
+        ShardedSpringLiquibase liquibase = new ShardedSpringLiquibase(shardDataSources.getAll());
+        liquibase.setChangeLog(changeLog);
+        liquibase.setShouldRun(enabled);
+        return liquibase;
+    }
+    
+    /**
+     * Takes the Liquibase bean only to run after it: the directory table must exist.
+     */
+    @Bean(initMethod = "initialize")
+    public ShardRouter shardRouter(ShardDataSources shardDataSources, SpringLiquibase liquibase) {
+        return new ShardRouter(shardDataSources);
+    }
+    
+    @Bean
+    public ShardMigrationService shardMigrationService(ShardRouter shardRouter, WalletProperties walletProperties) {
+        return new ShardMigrationService(shardRouter, walletProperties);
+    }
+}
@@ -0,0 +1,53 @@
+package com.wallet.config;
+
+import com.wallet.concurrency.BudgetedJpaTransactionManager;
+import com.wallet.concurrency.PoolSizeController;
+import com.wallet.sharding.ShardDataSources;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured JpaTransactionManager with one that enforces the
+ * transaction budget and feeds the pool size controller.
+ */
+@Configuration
+public class TransactionConfig {
+    
+    @Bean
+    public PoolSizeController poolSizeController(DataSource dataSource, ObjectProvider<ShardDataSources> shardDataSources,
+                                                 WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        ShardDataSources shards = shardDataSources.getIfAvailable();
+        if (shards != null) {
+            for (int shard = 0; shard < shards.size(); shard++) {
+                if (shards.get(shard) instanceof HikariDataSource pool) {
+                    pools.add(pool);
+                }
+            }
+        } else if (dataSource instanceof HikariDataSource pool) {
+            pools.add(pool);
+        }
+        return new PoolSizeController(pools, walletProperties, meterRegistry);
+    }
+    
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         PoolSizeController poolSizeController,
+                                                         WalletProperties walletProperties, MeterRegistry meterRegistry,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        BudgetedJpaTransactionManager transactionManager = new BudgetedJpaTransactionManager(entityManagerFactory,
+            poolSizeController, walletProperties.getPool().getTransactionBudget(), meterRegistry);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+}
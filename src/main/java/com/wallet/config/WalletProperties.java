@@ -0,0 +1,276 @@
+package com.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "wallet")
+public class WalletProperties {
+    
+    private Admission admission = new Admission();
+    private Serialization serialization = new Serialization();
+    private Subscriptions subscriptions = new Subscriptions();
+    private Outbox outbox = new Outbox();
+    private HotWallets hotWallets = new HotWallets();
+    private Warmup warmup = new Warmup();
+    private Logging logging = new Logging();
+    private Sharding sharding = new Sharding();
+    private Reconciliation reconciliation = new Reconciliation();
+    private Holds holds = new Holds();
+    private Lock lock = new Lock();
+    private Archive archive = new Archive();
+    private Pool pool = new Pool();
+    private SecondLevelCache secondLevelCache = new SecondLevelCache();
+    private BalanceCache balanceCache = new BalanceCache();
+    private Streaming streaming = new Streaming();
+    
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        
+        // Max concurrent operations admitted for a single wallet
+        private int perWalletLimit = 8;
+        
+        // Bounds for the latency-adaptive global concurrency limit
+        private int initialLimit = 100;
+        private int minLimit = 10;
+        private int maxLimit = 400;
+        private double smoothing = 0.2;
+        
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+    
+    @Data
+    public static class Serialization {
+        private SerializationMode mode = SerializationMode.DATABASE;
+        
+        // Number of single-threaded executors wallets are striped across
+        private int stripes = Runtime.getRuntime().availableProcessors();
+        
+        // Backpressure bounds for queued operations
+        private int mailboxCapacity = 256;
+        private int maxQueuedOperations = 10_000;
+        
+        // Operations drained from one mailbox before yielding the stripe to other wallets
+        private int drainBatchSize = 32;
+        
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+    
+    @Data
+    public static class Subscriptions {
+        private int maxSubscriptions = 50_000;
+        private int maxWalletsPerSubscription = 100;
+        
+        // Changes arriving within this window are merged into one event per wallet
+        private Duration coalesceWindow = Duration.ofMillis(250);
+        private Duration heartbeatInterval = Duration.ofSeconds(30);
+        private Duration timeout = Duration.ofMinutes(30);
+        private int flushThreads = 2;
+    }
+    
+    @Data
+    public static class Outbox {
+        private boolean enabled = false;
+        private OutboxSinkType sink = OutboxSinkType.LOG;
+        private String filePath = "wallet-outbox.ndjson";
+        
+        private int batchSize = 500;
+        // Batches relayed per poll before yielding, so one poll cannot run unbounded
+        private int maxBatchesPerPoll = 20;
+        private Duration pollInterval = Duration.ofMillis(200);
+    }
+    
+    @Data
+    public static class HotWallets {
+        private boolean enabled = true;
+        
+        // Send hot wallets through their mailbox even when serialization mode is DATABASE.
+        // Mailboxes share stripes, so a hot wallet waiting on its row lock stalls the other
+        // hot wallets on its stripe; off unless lock waits are known to be short
+        private boolean routingEnabled = false;
+        
+        // Operations per second at which a wallet counts as hot
+        private double threshold = 50;
+        private Duration window = Duration.ofSeconds(10);
+        
+        // Total counters in the heavy-hitters sketch, split across stripes
+        private int capacity = 1024;
+        private int stripes = 16;
+        private int topN = 20;
+    }
+    
+    @Data
+    public static class Warmup {
+        private boolean enabled = false;
+        private int iterations = 2000;
+    }
+    
+    /**
+     * Read by logback-spring.xml under the prod profile.
+     */
+    @Data
+    public static class Logging {
+        private int maxPerSecond = 100;
+        private int sampleEvery = 100;
+        private int queueSize = 8192;
+    }
+    
+    @Data
+    public static class Sharding {
+        private boolean enabled = false;
+        private List<Shard> shards = new ArrayList<>();
+        // How often each node re-reads the bucket directory from shard 0
+        private Duration refreshInterval = Duration.ofSeconds(1);
+        // Wait after each directory change during a migration; must exceed refresh-interval
+        // plus the longest write transaction
+        private Duration migrationGrace = Duration.ofSeconds(10);
+        private int copyBatchSize = 500;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+    
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+    }
+    
+    @Data
+    public static class Reconciliation {
+        // Run the nightly job on this instance
+        private boolean enabled = false;
+        private String cron = "0 0 2 * * *";
+        
+        // The walletId keyspace is split into this many ranges, per shard
+        private int ranges = 64;
+        private int parallelism = 4;
+        // Wallets compared per read transaction; progress is checkpointed after each chunk
+        private int chunkSize = 10_000;
+        private int fetchSize = 1_000;
+        
+        // Back off while recent request latency exceeds the long-term average by this factor
+        private double maxLatencyRatio = 1.5;
+        private Duration throttlePause = Duration.ofMillis(200);
+        // Longest back-off per chunk, so the job still finishes under sustained load
+        private Duration maxThrottlePause = Duration.ofSeconds(5);
+        
+        private String reportDir = "reconciliation";
+        private int maxReportedDiscrepancies = 10_000;
+    }
+    
+    @Data
+    public static class Holds {
+        // How long a hold reserves funds before the expiry job releases it
+        private Duration ttl = Duration.ofDays(7);
+        
+        private boolean expiryEnabled = true;
+        private Duration expiryInterval = Duration.ofSeconds(30);
+        private int expiryBatchSize = 500;
+        // Batches released per run before yielding, so one run cannot hold the scheduler
+        private int maxBatchesPerRun = 20;
+    }
+    
+    @Data
+    public static class Lock {
+        // How findByIdWithLock waits for a wallet row held by another transaction
+        private LockStrategy strategy = LockStrategy.WAIT;
+        // Longest wait under TIMEOUT
+        private Duration timeout = Duration.ofMillis(500);
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+    
+    @Data
+    public static class Archive {
+        // Run the archive job on this instance; archived wallets are restored on access either way
+        private boolean enabled = false;
+        // Wallets without activity for this long are moved to wallets_archive
+        private Duration idleThreshold = Duration.ofDays(180);
+        private Duration interval = Duration.ofHours(1);
+        private int batchSize = 500;
+        // Batches archived per run before yielding, so one run cannot hold the scheduler
+        private int maxBatchesPerRun = 20;
+    }
+    
+    @Data
+    public static class Pool {
+        // Resize each connection pool from the measured transaction latency
+        private boolean adaptive = false;
+        private int minSize = 5;
+        private int maxSize = 40;
+        private double smoothing = 0.2;
+        private Duration adjustInterval = Duration.ofSeconds(1);
+        
+        // Longest a transaction may hold its connection; statements past it are cancelled
+        private Duration transactionBudget = Duration.ofSeconds(5);
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+    
+    @Data
+    public static class SecondLevelCache {
+        // Serve balance reads from a Hibernate second-level cache of wallets, local to each instance
+        private boolean enabled = false;
+        private long maximumSize = 100_000;
+        // Bounds how long a write made on another instance can go unseen
+        private Duration timeToLive = Duration.ofSeconds(30);
+    }
+    
+    @Data
+    public static class BalanceCache {
+        // Serve balance reads from a cache on each instance, kept coherent through wallet_balance_changes
+        private boolean enabled = false;
+        private long maximumSize = 100_000;
+        // Safety net only; entries are normally replaced through invalidations
+        private Duration timeToLive = Duration.ofMinutes(5);
+        
+        private Duration pollInterval = Duration.ofMillis(200);
+        private int batchSize = 1_000;
+        // Reads bypass the cache once the last successful poll is older than this
+        private Duration maxStaleness = Duration.ofSeconds(2);
+        // How long a skipped change id is awaited; must exceed the longest write transaction
+        private Duration gapTimeout = Duration.ofSeconds(10);
+        // Skipped change ids awaited per shard; a wider jump clears the cache
+        private int maxGaps = 10_000;
+        // Changes older than this are deleted; must exceed gap-timeout
+        private Duration retention = Duration.ofMinutes(1);
+        private Duration pruneInterval = Duration.ofSeconds(10);
+    }
+    
+    @Data
+    public static class Streaming {
+        // Streams served at once; further streams are answered 429
+        private int maxStreams = 8;
+        // Operations read ahead of their written result, per stream; reading pauses at this bound
+        private int maxInFlight = 1024;
+        // Threads applying streamed operations, shared by all streams
+        private int threads = 32;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+    
+    public enum LockStrategy {
+        // Wait as long as the database allows
+        WAIT,
+        // Give up after lock.timeout
+        TIMEOUT,
+        // Give up at once if the row is locked
+        NOWAIT
+    }
+    
+    public enum OutboxSinkType {
+        LOG,
+        FILE,
+        MEMORY
+    }
+    
+    public enum SerializationMode {
+        // Writers are serialized by the PESSIMISTIC_WRITE row lock
+        DATABASE,
+        // Writers are serialized by per-wallet mailboxes; single-node deployments only
+        IN_PROCESS
+    }
+}
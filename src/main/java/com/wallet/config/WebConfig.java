@@ -0,0 +1,18 @@
+package com.wallet.config;
+
+import com.wallet.codec.WalletBinaryHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended, not prepended: Accept */* must keep resolving to JSON
+        converters.add(new WalletBinaryHttpMessageConverter());
+    }
+}
@@ -1,15 +1,35 @@
 package com.wallet.controller;
 
+import com.wallet.cache.BalanceCache;
+import com.wallet.codec.WalletBinaryCodec;
+import com.wallet.concurrency.AdmissionLimiter;
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletLimitsRequest;
+import com.wallet.dto.WalletLimitsResponse;
 import com.wallet.dto.WalletOperationRequest;
 import com.wallet.dto.WalletResponse;
+import com.wallet.dto.WalletTurnoverResponse;
+import com.wallet.exception.ErrorResponseRenderer;
+import com.wallet.service.WalletBatchProcessor;
+import com.wallet.service.WalletOperationDispatcher;
 import com.wallet.service.WalletService;
+import com.wallet.service.WalletStreamProcessor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -19,23 +39,109 @@ import java.util.UUID;
 public class WalletController {
     
     private final WalletService walletService;
+    private final AdmissionLimiter admissionLimiter;
+    private final WalletOperationDispatcher operationDispatcher;
+    private final ErrorResponseRenderer errorResponseRenderer;
+    private final WalletBatchProcessor batchProcessor;
+    private final WalletStreamProcessor streamProcessor;
+    private final BalanceCache balanceCache;
     
     @PostMapping("/wallet")
-    public ResponseEntity<WalletResponse> processWalletOperation(
-            @Valid @RequestBody WalletOperationRequest request) {
-        log.info("Received wallet operation request: {}", request);
+    public ResponseEntity<?> processWalletOperation(
+            @Valid @RequestBody WalletOperationRequest request, HttpServletRequest httpRequest) {
+        log.debug("Received {} request for wallet {}", request.getOperationType(), request.getWalletId());
         
-        WalletResponse response = walletService.processOperation(request);
+        OperationResult result;
+        try (AdmissionLimiter.Permit permit = admissionLimiter.acquire(request.getWalletId())) {
+            result = operationDispatcher.dispatch(request.getWalletId(),
+                () -> walletService.tryProcessOperation(request));
+        }
         
-        return ResponseEntity.ok(response);
+        // Rejected withdrawals are a normal outcome, render them without an exception round-trip
+        if (!result.isSuccess()) {
+            if (errorResponseRenderer.prefersBinary(httpRequest.getHeader(HttpHeaders.ACCEPT))) {
+                return errorResponseRenderer.binary(HttpStatus.BAD_REQUEST, result.getWalletId(),
+                    WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS, result.getBalance(), null);
+            }
+            return errorResponseRenderer.insufficientFunds(result.getWalletId(), result.getBalance(),
+                result.getRequestedAmount(), httpRequest.getRequestURI());
+        }
+        return ResponseEntity.ok(result.getResponse());
+    }
+    
+    /**
+     * Streams binary batch results back while the request body is still being read.
+     */
+    @PostMapping(value = "/wallet/batch", consumes = WalletBinaryCodec.MEDIA_TYPE_VALUE,
+            produces = WalletBinaryCodec.MEDIA_TYPE_VALUE)
+    public void processWalletOperationBatch(HttpServletRequest httpRequest, HttpServletResponse httpResponse)
+            throws IOException {
+        httpResponse.setContentType(WalletBinaryCodec.MEDIA_TYPE_VALUE);
+        int processed = batchProcessor.process(httpRequest.getInputStream(),
+            new BufferedOutputStream(httpResponse.getOutputStream(), 8192));
+        log.debug("Processed batch of {} wallet operations", processed);
+    }
+    
+    /**
+     * Applies a newline-delimited JSON feed of operations and streams a result line back for
+     * each one as it completes. Meant for one long-lived connection, ideally over HTTP/2.
+     */
+    @PostMapping(value = "/wallet/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void processWalletOperationStream(HttpServletRequest httpRequest, HttpServletResponse httpResponse)
+            throws IOException {
+        // Rejected streams still get a JSON error, so the content type is only set once admitted
+        try (WalletStreamProcessor.Slot slot = streamProcessor.open()) {
+            httpResponse.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            long processed = slot.process(new BufferedInputStream(httpRequest.getInputStream(), 8192),
+                new BufferedOutputStream(httpResponse.getOutputStream(), 8192));
+            log.debug("Processed stream of {} wallet operations", processed);
+        }
     }
     
     @GetMapping("/wallets/{walletId}")
     public ResponseEntity<WalletResponse> getWalletBalance(@PathVariable UUID walletId) {
-        log.info("Received request to get balance for wallet: {}", walletId);
+        log.debug("Received request to get balance for wallet: {}", walletId);
+        
+        // A cached balance costs no connection, so it skips admission
+        WalletResponse response = balanceCache.get(walletId);
+        if (response == null) {
+            try (AdmissionLimiter.Permit permit = admissionLimiter.acquire(walletId)) {
+                response = walletService.getWalletBalance(walletId);
+            }
+        }
         
-        WalletResponse response = walletService.getWalletBalance(walletId);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PutMapping("/wallets/{walletId}/limits")
+    public ResponseEntity<WalletLimitsResponse> setWalletLimits(
+            @PathVariable UUID walletId, @Valid @RequestBody WalletLimitsRequest request) {
+        log.debug("Received limits update for wallet {}", walletId);
+        
+        WalletLimitsResponse response;
+        try (AdmissionLimiter.Permit permit = admissionLimiter.acquire(walletId)) {
+            // A write like any other, so it is serialized with the wallet's operations
+            response = operationDispatcher.dispatch(walletId,
+                () -> walletService.setDailyWithdrawLimit(walletId, request.getDailyWithdrawLimit()));
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Daily deposit and withdrawal totals; defaults to the last 30 days.
+     */
+    @GetMapping("/wallets/{walletId}/turnover")
+    public ResponseEntity<WalletTurnoverResponse> getWalletTurnover(
+            @PathVariable UUID walletId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
         
+        WalletTurnoverResponse response;
+        try (AdmissionLimiter.Permit permit = admissionLimiter.acquire(walletId)) {
+            response = walletService.getDailyTurnover(walletId, start, end);
+        }
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,30 @@
+package com.wallet.controller;
+
+import com.wallet.service.BalanceSubscriptionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Slf4j
+public class WalletSubscriptionController {
+    
+    private final BalanceSubscriptionService subscriptionService;
+    
+    @GetMapping(value = "/wallets/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam("walletIds") Set<UUID> walletIds) {
+        log.debug("Received balance subscription for wallets: {}", walletIds);
+        
+        return subscriptionService.subscribe(walletIds);
+    }
+}
@@ -0,0 +1,19 @@
+package com.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTurnoverResponse {
+    private LocalDate date;
+    private BigDecimal depositTotal;
+    // Withdrawals and captures, as a positive amount
+    private BigDecimal withdrawTotal;
+    private long operationCount;
+}
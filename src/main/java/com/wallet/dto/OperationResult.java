@@ -0,0 +1,38 @@
+package com.wallet.dto;
+
+import com.wallet.exception.InsufficientFundsException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Outcome of a wallet operation: either the new balance or a rejected withdrawal.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class OperationResult {
+    
+    private final WalletResponse response;
+    private final UUID walletId;
+    private final BigDecimal balance;
+    private final BigDecimal requestedAmount;
+    
+    public static OperationResult success(WalletResponse response) {
+        return new OperationResult(response, response.getWalletId(), response.getBalance(), null);
+    }
+    
+    public static OperationResult insufficientFunds(UUID walletId, BigDecimal balance, BigDecimal requestedAmount) {
+        return new OperationResult(null, walletId, balance, requestedAmount);
+    }
+    
+    public boolean isSuccess() {
+        return response != null;
+    }
+    
+    public InsufficientFundsException toException() {
+        return new InsufficientFundsException(walletId, balance, requestedAmount);
+    }
+}
@@ -0,0 +1,20 @@
+package com.wallet.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLimitsRequest {
+    
+    // Null removes the limit
+    @DecimalMin(value = "0.00", message = "Daily withdrawal limit must not be negative")
+    @Digits(integer = 17, fraction = 2, message = "Daily withdrawal limit must have at most 17 integer digits and 2 decimal places")
+    private BigDecimal dailyWithdrawLimit;
+}
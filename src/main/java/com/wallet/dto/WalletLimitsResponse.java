@@ -0,0 +1,17 @@
+package com.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLimitsResponse {
+    private UUID walletId;
+    // Null when the wallet has no limit
+    private BigDecimal dailyWithdrawLimit;
+}
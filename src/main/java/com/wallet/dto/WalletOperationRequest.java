@@ -1,5 +1,6 @@
 package com.wallet.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.wallet.model.OperationType;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -20,9 +21,27 @@ public class WalletOperationRequest {
     @NotNull(message = "Operation type is required")
     private OperationType operationType;
     
-    @NotNull(message = "Amount is required")
+    // Optional for CAPTURE (defaults to the whole hold) and ignored for RELEASE
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
     @Digits(integer = 17, fraction = 2, message = "Amount must have at most 17 integer digits and 2 decimal places")
     private BigDecimal amount;
+    
+    // Required for CAPTURE and RELEASE; optional for HOLD, where one is generated if missing
+    private UUID holdId;
+    
+    public WalletOperationRequest(UUID walletId, OperationType operationType, BigDecimal amount) {
+        this(walletId, operationType, amount, null);
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Amount is required")
+    public boolean isAmountPresent() {
+        return amount != null || operationType == OperationType.CAPTURE || operationType == OperationType.RELEASE;
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Hold ID is required for CAPTURE and RELEASE")
+    public boolean isHoldIdPresent() {
+        return holdId != null || (operationType != OperationType.CAPTURE && operationType != OperationType.RELEASE);
+    }
 }
-
@@ -1,5 +1,6 @@
 package com.wallet.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,5 +14,16 @@ import java.util.UUID;
 public class WalletResponse {
     private UUID walletId;
     private BigDecimal balance;
+    // Balance minus active holds
+    private BigDecimal availableBalance;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UUID holdId;
+    
+    public WalletResponse(UUID walletId, BigDecimal balance) {
+        this(walletId, balance, balance, null);
+    }
+    
+    public WalletResponse(UUID walletId, BigDecimal balance, BigDecimal availableBalance) {
+        this(walletId, balance, availableBalance, null);
+    }
 }
-
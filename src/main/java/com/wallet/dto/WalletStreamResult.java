@@ -0,0 +1,42 @@
+package com.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One line of the operation stream's response. Results are written as operations complete,
+ * so {@code seq}, the 0-based position of the operation in the request, ties them together.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WalletStreamResult {
+    private long seq;
+    private UUID walletId;
+    private Status status;
+    private BigDecimal balance;
+    private BigDecimal availableBalance;
+    private UUID holdId;
+    private String message;
+    
+    public static WalletStreamResult of(long seq, UUID walletId, Status status, String message) {
+        return new WalletStreamResult(seq, walletId, status, null, null, null, message);
+    }
+    
+    public enum Status {
+        OK,
+        INSUFFICIENT_FUNDS,
+        LIMIT_EXCEEDED,
+        NOT_FOUND,
+        // Not applied for lack of capacity or a lock; safe to resend
+        REJECTED,
+        INVALID,
+        ERROR
+    }
+}
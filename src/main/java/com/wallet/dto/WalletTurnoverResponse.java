@@ -0,0 +1,20 @@
+package com.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletTurnoverResponse {
+    private UUID walletId;
+    private LocalDate from;
+    private LocalDate to;
+    // Only days with balance changes, oldest first
+    private List<DailyTurnoverResponse> days;
+}
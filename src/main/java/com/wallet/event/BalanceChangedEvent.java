@@ -0,0 +1,15 @@
+package com.wallet.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Published by WalletService and HoldExpiryJob inside the transaction that changed the
+ * balance or the held amount. Listeners that must only see committed state use AFTER_COMMIT.
+ */
+public record BalanceChangedEvent(UUID walletId, BigDecimal balance, BigDecimal availableBalance, Long version) {
+    
+    public boolean isNewerThan(BalanceChangedEvent other) {
+        return other == null || version == null || other.version == null || version > other.version;
+    }
+}
@@ -0,0 +1,53 @@
+package com.wallet.exception;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The withdrawal or hold, together with the day's withdrawals and the outstanding holds, would
+ * exceed the wallet's daily limit.
+ */
+public class DailyLimitExceededException extends WalletBusinessException {
+    
+    private final UUID walletId;
+    private final BigDecimal limit;
+    private final BigDecimal withdrawnToday;
+    private final BigDecimal held;
+    private final BigDecimal amount;
+    
+    public DailyLimitExceededException(UUID walletId, BigDecimal limit, BigDecimal withdrawnToday,
+                                       BigDecimal held, BigDecimal amount) {
+        super(message(walletId, limit, withdrawnToday, held, amount));
+        this.walletId = walletId;
+        this.limit = limit;
+        this.withdrawnToday = withdrawnToday;
+        this.held = held;
+        this.amount = amount;
+    }
+    
+    public static String message(UUID walletId, BigDecimal limit, BigDecimal withdrawnToday,
+                                 BigDecimal held, BigDecimal amount) {
+        return "Daily withdrawal limit exceeded for wallet " + walletId + ". Limit: " + limit
+            + ", Withdrawn today: " + withdrawnToday + ", Held: " + held + ", Requested amount: " + amount;
+    }
+    
+    public UUID getWalletId() {
+        return walletId;
+    }
+    
+    public BigDecimal getLimit() {
+        return limit;
+    }
+    
+    public BigDecimal getWithdrawnToday() {
+        return withdrawnToday;
+    }
+    
+    public BigDecimal getHeld() {
+        return held;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
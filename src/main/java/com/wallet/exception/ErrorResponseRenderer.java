@@ -0,0 +1,173 @@
+package com.wallet.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.wallet.codec.WalletBinaryCodec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes {@link com.wallet.dto.ErrorResponse}-shaped JSON for the high-volume business errors
+ * without going through Jackson databind.
+ *
+ * <p>Everything except the message, the path and the timestamp is serialized once per template;
+ * the formatted timestamp is reused for all errors within the same millisecond.
+ *
+ * <p>Clients that prefer {@code application/x-wallet-binary} over JSON get a binary batch
+ * result record instead, with the walletId and balance where they are known.
+ */
+@Component
+public class ErrorResponseRenderer {
+    
+    private static final byte[] TIMESTAMP_PREFIX = bytes("{\"timestamp\":\"");
+    private static final byte[] PATH_PREFIX = bytes("\",\"path\":\"");
+    private static final byte[] SUFFIX = bytes("\"}");
+    // Errors raised before the request was read have no wallet to report
+    private static final UUID UNKNOWN_WALLET = new UUID(0, 0);
+    
+    public static final Template NOT_FOUND = new Template(HttpStatus.NOT_FOUND, "Not Found");
+    public static final Template BAD_REQUEST = new Template(HttpStatus.BAD_REQUEST, "Bad Request");
+    
+    private final Clock clock;
+    private volatile CachedTimestamp timestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+    
+    public ErrorResponseRenderer() {
+        this(Clock.systemDefaultZone());
+    }
+    
+    ErrorResponseRenderer(Clock clock) {
+        this.clock = clock;
+    }
+    
+    public ResponseEntity<byte[]> walletNotFound(UUID walletId, String path) {
+        return render(NOT_FOUND, WalletNotFoundException.message(walletId), path);
+    }
+    
+    public ResponseEntity<byte[]> holdNotFound(UUID walletId, UUID holdId, String path) {
+        return render(NOT_FOUND, HoldNotFoundException.message(walletId, holdId), path);
+    }
+    
+    public ResponseEntity<byte[]> insufficientFunds(UUID walletId, BigDecimal balance, BigDecimal amount, String path) {
+        return render(BAD_REQUEST, InsufficientFundsException.message(walletId, balance, amount), path);
+    }
+    
+    public ResponseEntity<byte[]> dailyLimitExceeded(DailyLimitExceededException ex, String path) {
+        return render(BAD_REQUEST, ex.getMessage(), path);
+    }
+    
+    public ResponseEntity<byte[]> invalidRequest(InvalidRequestException ex, String path) {
+        return render(BAD_REQUEST, ex.getMessage(), path);
+    }
+    
+    /**
+     * Whether the first type in Accept that matches either format is the binary one. A
+     * wildcard or a missing header means JSON, as for successful responses.
+     */
+    public boolean prefersBinary(String accept) {
+        if (accept == null || !accept.contains(WalletBinaryCodec.MEDIA_TYPE_VALUE)) {
+            return false;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (mediaType.isCompatibleWith(WalletBinaryCodec.MEDIA_TYPE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public ResponseEntity<byte[]> binary(HttpStatus status, UUID walletId, byte resultStatus, BigDecimal balance,
+                                         Duration retryAfter) {
+        ByteBuffer body = ByteBuffer.allocate(WalletBinaryCodec.BATCH_RESULT_SIZE);
+        WalletBinaryCodec.writeBatchResult(walletId != null ? walletId : UNKNOWN_WALLET, resultStatus, balance, body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status).contentType(WalletBinaryCodec.MEDIA_TYPE);
+        if (retryAfter != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        }
+        return response.body(body.array());
+    }
+    
+    public ResponseEntity<byte[]> render(Template template, String message, String path) {
+        byte[] time = timestamp();
+        byte[] quotedMessage = JsonStringEncoder.getInstance().quoteAsUTF8(message);
+        byte[] quotedPath = JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        
+        byte[] body = new byte[TIMESTAMP_PREFIX.length + time.length + template.fields.length
+            + quotedMessage.length + PATH_PREFIX.length + quotedPath.length + SUFFIX.length];
+        int offset = append(body, 0, TIMESTAMP_PREFIX);
+        offset = append(body, offset, time);
+        offset = append(body, offset, template.fields);
+        offset = append(body, offset, quotedMessage);
+        offset = append(body, offset, PATH_PREFIX);
+        offset = append(body, offset, quotedPath);
+        append(body, offset, SUFFIX);
+        
+        return new ResponseEntity<>(body, template.headers, template.status);
+    }
+    
+    private byte[] timestamp() {
+        long now = clock.millis();
+        CachedTimestamp cached = timestamp;
+        if (cached.millis != now) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), clock.getZone());
+            cached = new CachedTimestamp(now, bytes(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time)));
+            timestamp = cached;
+        }
+        return cached.bytes;
+    }
+    
+    private static int append(byte[] target, int offset, byte[] source) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Pre-serialized status and error fields plus response headers for one kind of error.
+     */
+    public static final class Template {
+        private final HttpStatus status;
+        private final byte[] fields;
+        private final HttpHeaders headers;
+        
+        public Template(HttpStatus status, String error) {
+            this.status = status;
+            this.fields = bytes("\",\"status\":" + status.value() + ",\"error\":\""
+                + new String(JsonStringEncoder.getInstance().quoteAsString(error)) + "\",\"message\":\"");
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
+    
+    private record CachedTimestamp(long millis, byte[] bytes) {
+    }
+}
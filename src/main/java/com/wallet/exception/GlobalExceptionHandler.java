@@ -1,62 +1,125 @@
 package com.wallet.exception;
 
+import com.wallet.codec.WalletBinaryCodec;
+import com.wallet.config.WalletProperties;
 import com.wallet.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
     
+    private final ErrorResponseRenderer errorResponseRenderer;
+    private final WalletProperties walletProperties;
+    
     @ExceptionHandler(WalletNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleWalletNotFoundException(
+    public ResponseEntity<byte[]> handleWalletNotFoundException(
             WalletNotFoundException ex, HttpServletRequest request) {
-        log.error("Wallet not found: {}", ex.getMessage());
-        
-        ErrorResponse errorResponse = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.NOT_FOUND.value())
-                .error("Not Found")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        log.debug("Wallet not found: {}", ex.getWalletId());
+        if (prefersBinary(request)) {
+            return errorResponseRenderer.binary(HttpStatus.NOT_FOUND, ex.getWalletId(),
+                WalletBinaryCodec.STATUS_NOT_FOUND, null, null);
+        }
+        return errorResponseRenderer.walletNotFound(ex.getWalletId(), request.getRequestURI());
+    }
+    
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<byte[]> handleHoldNotFoundException(
+            HoldNotFoundException ex, HttpServletRequest request) {
+        log.debug("Hold not found: {}", ex.getHoldId());
+        if (prefersBinary(request)) {
+            return errorResponseRenderer.binary(HttpStatus.NOT_FOUND, ex.getWalletId(),
+                WalletBinaryCodec.STATUS_NOT_FOUND, null, null);
+        }
+        return errorResponseRenderer.holdNotFound(ex.getWalletId(), ex.getHoldId(), request.getRequestURI());
     }
     
     @ExceptionHandler(InsufficientFundsException.class)
-    public ResponseEntity<ErrorResponse> handleInsufficientFundsException(
+    public ResponseEntity<byte[]> handleInsufficientFundsException(
             InsufficientFundsException ex, HttpServletRequest request) {
-        log.error("Insufficient funds: {}", ex.getMessage());
+        log.debug("Insufficient funds: {}", ex.getWalletId());
+        if (prefersBinary(request)) {
+            return errorResponseRenderer.binary(HttpStatus.BAD_REQUEST, ex.getWalletId(),
+                WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS, ex.getBalance(), null);
+        }
+        return errorResponseRenderer.insufficientFunds(
+            ex.getWalletId(), ex.getBalance(), ex.getAmount(), request.getRequestURI());
+    }
+    
+    @ExceptionHandler(DailyLimitExceededException.class)
+    public ResponseEntity<byte[]> handleDailyLimitExceededException(
+            DailyLimitExceededException ex, HttpServletRequest request) {
+        log.debug("Daily limit exceeded: {}", ex.getWalletId());
+        if (prefersBinary(request)) {
+            return errorResponseRenderer.binary(HttpStatus.BAD_REQUEST, ex.getWalletId(),
+                WalletBinaryCodec.STATUS_LIMIT_EXCEEDED, null, null);
+        }
+        return errorResponseRenderer.dailyLimitExceeded(ex, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<byte[]> handleInvalidRequestException(
+            InvalidRequestException ex, HttpServletRequest request) {
+        log.debug("Invalid request: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.BAD_REQUEST, WalletBinaryCodec.STATUS_INVALID, null);
+        }
+        return errorResponseRenderer.invalidRequest(ex, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+        log.warn("Request rejected: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.TOO_MANY_REQUESTS, WalletBinaryCodec.STATUS_REJECTED,
+                ex.getRetryAfter());
+        }
         
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Bad Request")
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
                 .message(ex.getMessage())
                 .path(request.getRequestURI())
                 .build();
         
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        // Explicit, so the rejection renders even for clients that only accept the streaming formats
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
     }
     
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleValidationExceptions(
+    public ResponseEntity<?> handleValidationExceptions(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
         log.error("Validation failed: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.BAD_REQUEST, WalletBinaryCodec.STATUS_INVALID, null);
+        }
         
         Map<String, String> validationErrors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(error -> {
@@ -78,9 +141,12 @@ public class GlobalExceptionHandler {
     }
     
     @ExceptionHandler(HttpMessageNotReadableException.class)
-    public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
+    public ResponseEntity<?> handleHttpMessageNotReadableException(
             HttpMessageNotReadableException ex, HttpServletRequest request) {
         log.error("Invalid JSON: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.BAD_REQUEST, WalletBinaryCodec.STATUS_INVALID, null);
+        }
         
         String message = "Invalid JSON format";
         if (ex.getCause() != null) {
@@ -99,9 +165,12 @@ public class GlobalExceptionHandler {
     }
     
     @ExceptionHandler(OptimisticLockingFailureException.class)
-    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+    public ResponseEntity<?> handleOptimisticLockingFailureException(
             OptimisticLockingFailureException ex, HttpServletRequest request) {
         log.error("Optimistic locking failure: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.CONFLICT, WalletBinaryCodec.STATUS_REJECTED, null);
+        }
         
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
@@ -114,10 +183,61 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
     
+    // Lock timeouts, NOWAIT failures and deadlocks: the wallet was busy, the caller can retry
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<?> handlePessimisticLockingFailureException(
+            PessimisticLockingFailureException ex, HttpServletRequest request) {
+        log.warn("Wallet lock not acquired: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.CONFLICT, WalletBinaryCodec.STATUS_REJECTED,
+                walletProperties.getLock().getRetryAfter());
+        }
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error("Conflict")
+                .message("Wallet is busy with another operation. Please retry the operation.")
+                .path(request.getRequestURI())
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, walletProperties.getLock().getRetryAfter().toSeconds())))
+                .body(errorResponse);
+    }
+    
+    // The transaction ran past its budget and gave its connection back; the caller can retry
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<?> handleTransactionBudgetExceeded(
+            RuntimeException ex, HttpServletRequest request) {
+        log.warn("Transaction budget exceeded: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.SERVICE_UNAVAILABLE, WalletBinaryCodec.STATUS_REJECTED,
+                walletProperties.getPool().getRetryAfter());
+        }
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message("The operation did not complete in time. Please retry the operation.")
+                .path(request.getRequestURI())
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, walletProperties.getPool().getRetryAfter().toSeconds())))
+                .body(errorResponse);
+    }
+    
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(
+    public ResponseEntity<?> handleMethodArgumentTypeMismatchException(
             MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
         log.error("Type mismatch: {}", ex.getMessage());
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.BAD_REQUEST, WalletBinaryCodec.STATUS_INVALID, null);
+        }
         
         String message = String.format("Invalid value '%s' for parameter '%s'. Expected type: %s",
                 ex.getValue(),
@@ -136,9 +256,12 @@ public class GlobalExceptionHandler {
     }
     
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGeneralException(
+    public ResponseEntity<?> handleGeneralException(
             Exception ex, HttpServletRequest request) {
         log.error("Unexpected error: ", ex);
+        if (prefersBinary(request)) {
+            return binaryWithoutWallet(HttpStatus.INTERNAL_SERVER_ERROR, WalletBinaryCodec.STATUS_ERROR, null);
+        }
         
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
@@ -150,5 +273,13 @@ public class GlobalExceptionHandler {
         
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+    
+    private boolean prefersBinary(HttpServletRequest request) {
+        return errorResponseRenderer.prefersBinary(request.getHeader(HttpHeaders.ACCEPT));
+    }
+    
+    // The request may not have been read, so the record carries no walletId or balance
+    private ResponseEntity<byte[]> binaryWithoutWallet(HttpStatus status, byte resultStatus, Duration retryAfter) {
+        return errorResponseRenderer.binary(status, null, resultStatus, null, retryAfter);
+    }
 }
-
@@ -0,0 +1,30 @@
+package com.wallet.exception;
+
+import java.util.UUID;
+
+/**
+ * The hold does not exist for this wallet: never placed, already captured or released, or expired.
+ */
+public class HoldNotFoundException extends WalletBusinessException {
+    
+    private final UUID walletId;
+    private final UUID holdId;
+    
+    public HoldNotFoundException(UUID walletId, UUID holdId) {
+        super(message(walletId, holdId));
+        this.walletId = walletId;
+        this.holdId = holdId;
+    }
+    
+    public static String message(UUID walletId, UUID holdId) {
+        return "Active hold not found with ID: " + holdId + " for wallet: " + walletId;
+    }
+    
+    public UUID getWalletId() {
+        return walletId;
+    }
+    
+    public UUID getHoldId() {
+        return holdId;
+    }
+}
@@ -3,10 +3,33 @@ package com.wallet.exception;
 import java.math.BigDecimal;
 import java.util.UUID;
 
-public class InsufficientFundsException extends RuntimeException {
+public class InsufficientFundsException extends WalletBusinessException {
+    
+    private final UUID walletId;
+    private final BigDecimal balance;
+    private final BigDecimal amount;
+    
     public InsufficientFundsException(UUID walletId, BigDecimal balance, BigDecimal amount) {
-        super(String.format("Insufficient funds in wallet %s. Current balance: %s, Requested amount: %s", 
-            walletId, balance, amount));
+        super(message(walletId, balance, amount));
+        this.walletId = walletId;
+        this.balance = balance;
+        this.amount = amount;
+    }
+    
+    public static String message(UUID walletId, BigDecimal balance, BigDecimal amount) {
+        return "Insufficient funds in wallet " + walletId + ". Current balance: " + balance
+            + ", Requested amount: " + amount;
+    }
+    
+    public UUID getWalletId() {
+        return walletId;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
     }
 }
-
@@ -0,0 +1,12 @@
+package com.wallet.exception;
+
+/**
+ * The request is well-formed but cannot be applied as given, such as a hold id that is
+ * already taken or a capture larger than its hold. The message is returned to the caller.
+ */
+public class InvalidRequestException extends WalletBusinessException {
+    
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.wallet.exception;
+
+/**
+ * Base for exceptions that report normal business outcomes rather than failures.
+ * They are thrown often and their stack trace is never looked at, so it is not captured.
+ */
+public abstract class WalletBusinessException extends RuntimeException {
+    
+    protected WalletBusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
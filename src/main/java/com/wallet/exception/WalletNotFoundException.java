@@ -2,9 +2,20 @@ package com.wallet.exception;
 
 import java.util.UUID;
 
-public class WalletNotFoundException extends RuntimeException {
+public class WalletNotFoundException extends WalletBusinessException {
+    
+    private final UUID walletId;
+    
     public WalletNotFoundException(UUID walletId) {
-        super("Wallet not found with ID: " + walletId);
+        super(message(walletId));
+        this.walletId = walletId;
+    }
+    
+    public static String message(UUID walletId) {
+        return "Wallet not found with ID: " + walletId;
+    }
+    
+    public UUID getWalletId() {
+        return walletId;
     }
 }
-
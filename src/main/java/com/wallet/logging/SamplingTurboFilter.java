@@ -0,0 +1,92 @@
+package com.wallet.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate-limits and samples log events per message template.
+ *
+ * <p>Each format string gets {@code maxPerSecond} events per second; beyond that only one
+ * in {@code sampleEvery} passes. The decision is made on the unformatted template before
+ * any message is built, so suppressed events cost a map lookup and two atomic increments.
+ * Events at {@code alwaysLogLevel} or above, and events below the logger's effective level,
+ * are left to the normal level check.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    
+    private static final int MAX_TRACKED_TEMPLATES = 10_000;
+    
+    private final ConcurrentHashMap<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final AtomicLong suppressed = new AtomicLong();
+    
+    private int maxPerSecond = 100;
+    private int sampleEvery = 100;
+    private Level alwaysLogLevel = Level.ERROR;
+    private LongSupplier clock = System::currentTimeMillis;
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, which must not spend budget
+        if (!isStarted() || format == null || level == null
+                || level.isGreaterOrEqual(alwaysLogLevel)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        
+        Budget budget = budgets.get(format);
+        if (budget == null) {
+            if (budgets.size() >= MAX_TRACKED_TEMPLATES) {
+                return FilterReply.NEUTRAL;
+            }
+            budget = budgets.computeIfAbsent(format, key -> new Budget());
+        }
+        
+        if (budget.tryAcquire(clock.getAsLong() / 1000)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+    
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+    
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+    
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+    
+    public void setAlwaysLogLevel(String alwaysLogLevel) {
+        this.alwaysLogLevel = Level.toLevel(alwaysLogLevel, Level.ERROR);
+    }
+    
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+    
+    private class Budget {
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicInteger count = new AtomicInteger();
+        
+        boolean tryAcquire(long now) {
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            int n = count.incrementAndGet();
+            return n <= maxPerSecond || (n - maxPerSecond) % sampleEvery == 0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A dormant wallet moved out of the wallets table. Written and removed only by native SQL,
+ * so the mapping is read-only.
+ */
+@Entity
+@Table(name = "wallets_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedWallet {
+    
+    @Id
+    @Column(name = "wallet_id", updatable = false, nullable = false)
+    private UUID walletId;
+    
+    @Column(name = "balance", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(name = "version", nullable = false, updatable = false)
+    private Long version;
+    
+    @Column(name = "shard_bucket", nullable = false, updatable = false)
+    private int shardBucket;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Last activity before the wallet was archived
+    @Column(name = "updated_at", nullable = false, updatable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at", nullable = false, updatable = false)
+    private LocalDateTime archivedAt;
+    
+    @Column(name = "daily_withdraw_limit", updatable = false, precision = 19, scale = 2)
+    private BigDecimal dailyWithdrawLimit;
+}
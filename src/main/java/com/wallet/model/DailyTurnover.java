@@ -0,0 +1,66 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A wallet's deposits and withdrawals on one day, kept up to date with every balance change
+ * so that limits and reports never have to sum the ledger. Rows are written by
+ * {@link com.wallet.repository.DailyTurnoverRepository#record} only; the entity is for reads.
+ */
+@Entity
+@Table(name = "wallet_daily_turnover")
+@IdClass(DailyTurnover.Key.class)
+@Data
+@NoArgsConstructor
+public class DailyTurnover {
+    
+    @Id
+    @Column(name = "wallet_id", updatable = false, nullable = false)
+    private UUID walletId;
+    
+    @Id
+    @Column(name = "turnover_date", updatable = false, nullable = false)
+    private LocalDate turnoverDate;
+    
+    @Column(name = "deposit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal depositTotal = BigDecimal.ZERO;
+    
+    // Withdrawals and captures, as a positive amount
+    @Column(name = "withdraw_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal withdrawTotal = BigDecimal.ZERO;
+    
+    @Column(name = "operation_count", nullable = false)
+    private long operationCount;
+    
+    // Bumped by every upsert
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public DailyTurnover(UUID walletId, LocalDate turnoverDate) {
+        this.walletId = walletId;
+        this.turnoverDate = turnoverDate;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID walletId;
+        private LocalDate turnoverDate;
+    }
+}
@@ -0,0 +1,48 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One balance change. Amounts are signed, so a wallet's balance always equals the
+ * sum of its entries; the reconciliation job checks exactly that.
+ */
+@Entity
+@Table(name = "wallet_ledger")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+    
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private UUID walletId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false, length = 16)
+    private LedgerEntryType entryType;
+    
+    @Column(name = "amount", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public LedgerEntry(UUID walletId, LedgerEntryType entryType, BigDecimal amount) {
+        this.walletId = walletId;
+        this.entryType = entryType;
+        this.amount = amount;
+    }
+}
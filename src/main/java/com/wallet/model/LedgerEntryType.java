@@ -0,0 +1,9 @@
+package com.wallet.model;
+
+public enum LedgerEntryType {
+    // Balance a wallet already had when the ledger was introduced
+    OPENING,
+    DEPOSIT,
+    WITHDRAW,
+    CAPTURE
+}
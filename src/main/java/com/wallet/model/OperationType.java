@@ -2,6 +2,11 @@ package com.wallet.model;
 
 public enum OperationType {
     DEPOSIT,
-    WITHDRAW
+    WITHDRAW,
+    // Reserve funds: available balance drops, balance stays
+    HOLD,
+    // Settle a hold: balance drops by the captured amount, the rest of the hold is released
+    CAPTURE,
+    // Cancel a hold: available balance is restored
+    RELEASE
 }
-
@@ -0,0 +1,45 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "wallet_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    // Sequence with a matching allocation size keeps outbox inserts batchable
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_outbox_seq")
+    @SequenceGenerator(name = "wallet_outbox_seq", sequenceName = "wallet_outbox_seq", allocationSize = 50)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+    
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private UUID walletId;
+    
+    @Column(name = "balance", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(name = "version", updatable = false)
+    private Long version;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public OutboxEvent(UUID walletId, BigDecimal balance, Long version) {
+        this.walletId = walletId;
+        this.balance = balance;
+        this.version = version;
+    }
+}
@@ -1,9 +1,12 @@
 package com.wallet.model;
 
+import com.wallet.sharding.ShardBuckets;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,11 +16,16 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "wallets")
+// Only used when wallet.second-level-cache.enabled is set
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Wallet.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Wallet {
     
+    public static final String CACHE_REGION = "wallets";
+    
     @Id
     @Column(name = "wallet_id", updatable = false, nullable = false)
     private UUID walletId;
@@ -25,6 +33,14 @@ public class Wallet {
     @Column(name = "balance", nullable = false, precision = 19, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
     
+    // Reserved by active holds; always between zero and balance
+    @Column(name = "held_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+    
+    // Cap on withdrawals per day, checked against the day's turnover; null means no limit
+    @Column(name = "daily_withdraw_limit", precision = 19, scale = 2)
+    private BigDecimal dailyWithdrawLimit;
+    
     @Version
     @Column(name = "version")
     private Long version;
@@ -37,9 +53,17 @@ public class Wallet {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    @Column(name = "shard_bucket", nullable = false, updatable = false)
+    private int shardBucket;
+    
     public Wallet(UUID walletId) {
         this.walletId = walletId;
         this.balance = BigDecimal.ZERO;
+        this.heldAmount = BigDecimal.ZERO;
+        this.shardBucket = ShardBuckets.bucketOf(walletId);
+    }
+    
+    public BigDecimal getAvailableBalance() {
+        return balance.subtract(heldAmount);
     }
 }
-
@@ -0,0 +1,59 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "wallet_holds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletHold implements Persistable<UUID> {
+    
+    @Id
+    @Column(name = "hold_id", updatable = false, nullable = false)
+    private UUID holdId;
+    
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private UUID walletId;
+    
+    @Column(name = "amount", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public WalletHold(UUID holdId, UUID walletId, BigDecimal amount, LocalDateTime expiresAt) {
+        this.holdId = holdId;
+        this.walletId = walletId;
+        this.amount = amount;
+        this.expiresAt = expiresAt;
+    }
+    
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+    
+    @Override
+    public UUID getId() {
+        return holdId;
+    }
+    
+    // Holds are only ever inserted, so save() can persist without selecting the id first
+    @Override
+    public boolean isNew() {
+        return createdAt == null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.wallet.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.model.OutboxEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends each batch to a newline-delimited JSON file. The file is forced to disk
+ * before publish returns so delivered rows are never deleted ahead of the data.
+ */
+public class FileOutboxEventSink implements OutboxEventSink {
+    
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    
+    public FileOutboxEventSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        for (OutboxEvent event : events) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("id", event.getId());
+            line.put("walletId", event.getWalletId());
+            line.put("balance", event.getBalance());
+            line.put("version", event.getVersion());
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
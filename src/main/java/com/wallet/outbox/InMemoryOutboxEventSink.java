@@ -0,0 +1,24 @@
+package com.wallet.outbox;
+
+import com.wallet.model.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+    
+    private final List<OutboxEvent> events = new ArrayList<>();
+    
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+    
+    public synchronized List<OutboxEvent> getEvents() {
+        return List.copyOf(events);
+    }
+    
+    public synchronized void clear() {
+        events.clear();
+    }
+}
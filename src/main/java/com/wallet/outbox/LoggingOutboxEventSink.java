@@ -0,0 +1,20 @@
+package com.wallet.outbox;
+
+import com.wallet.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+@Slf4j
+public class LoggingOutboxEventSink implements OutboxEventSink {
+    
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (log.isDebugEnabled()) {
+            for (OutboxEvent event : events) {
+                log.debug("Balance changed for wallet {}: {} (version {})",
+                    event.getWalletId(), event.getBalance(), event.getVersion());
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.wallet.outbox;
+
+import com.wallet.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed balance changes. Delivery is at-least-once: a batch is
+ * removed from the outbox only after publish returns, and is re-sent if anything
+ * fails before that removal commits. Consumers should de-duplicate on walletId + version.
+ */
+public interface OutboxEventSink {
+    
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,103 @@
+package com.wallet.outbox;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.model.OutboxEvent;
+import com.wallet.repository.OutboxEventRepository;
+import com.wallet.sharding.ShardedTaskRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves outbox rows to the configured sink. Each batch is claimed with
+ * FOR UPDATE SKIP LOCKED, published, and deleted in one bulk statement inside
+ * a single transaction.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "wallet.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedTaskRunner shardedTaskRunner;
+    private final WalletProperties.Outbox properties;
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxEventSink sink,
+                       TransactionTemplate transactionTemplate, ShardedTaskRunner shardedTaskRunner,
+                       WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.shardedTaskRunner = shardedTaskRunner;
+        this.properties = walletProperties.getOutbox();
+        
+        this.delivered = Counter.builder("wallet.outbox.delivered").register(meterRegistry);
+        this.failures = Counter.builder("wallet.outbox.failures").register(meterRegistry);
+        this.batchTimer = Timer.builder("wallet.outbox.batch").register(meterRegistry);
+        Gauge.builder("wallet.outbox.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval:200}")
+    public void poll() {
+        // Outbox rows live on the same shard as their wallet
+        shardedTaskRunner.runOnEachShard(this::pollShard);
+    }
+    
+    private void pollShard() {
+        try {
+            for (int i = 0; i < properties.getMaxBatchesPerPoll(); i++) {
+                if (relayBatch() < properties.getBatchSize()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.error("Outbox relay failed, batch will be retried: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * Relays one batch and returns how many events it contained.
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> batchTimer.record(() -> {
+            List<OutboxEvent> batch = outboxEventRepository.claimBatch(properties.getBatchSize());
+            if (batch.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+            
+            lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+            try {
+                sink.publish(batch);
+            } catch (Exception ex) {
+                throw new IllegalStateException("Outbox sink rejected batch", ex);
+            }
+            outboxEventRepository.deleteDelivered(batch.stream().map(OutboxEvent::getId).toList());
+            return batch.size();
+        }));
+        
+        int count = relayed != null ? relayed : 0;
+        delivered.increment(count);
+        return count;
+    }
+}
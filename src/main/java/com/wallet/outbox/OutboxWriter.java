@@ -0,0 +1,29 @@
+package com.wallet.outbox;
+
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.model.OutboxEvent;
+import com.wallet.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records every balance change in the outbox. Runs synchronously inside the
+ * transaction that updated the wallet, so the row commits or rolls back with it.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.outbox", name = "enabled", havingValue = "true")
+public class OutboxWriter {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        outboxEventRepository.save(new OutboxEvent(event.walletId(), event.balance(), event.version()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.wallet.reconciliation;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A wallet whose stored balance differs from the sum of its ledger entries. {@code balance}
+ * is null for ledger entries without a wallet row.
+ */
+public record Discrepancy(UUID walletId, int shard, BigDecimal balance, BigDecimal ledgerTotal) {
+    
+    public BigDecimal difference() {
+        return (balance == null ? BigDecimal.ZERO : balance).subtract(ledgerTotal);
+    }
+}
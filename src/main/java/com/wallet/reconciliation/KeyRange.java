@@ -0,0 +1,36 @@
+package com.wallet.reconciliation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A slice of the walletId keyspace: {@code lower} inclusive, {@code upper} exclusive,
+ * no upper bound for the last range. UUIDs are ordered as unsigned 128-bit values,
+ * the same order the database uses for its uuid type.
+ */
+public record KeyRange(int index, UUID lower, UUID upper) {
+    
+    public static List<KeyRange> split(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Range count must be positive: " + count);
+        }
+        long step = Long.divideUnsigned(-1L, count) + 1;
+        List<KeyRange> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID lower = new UUID(step * i, 0);
+            UUID upper = i == count - 1 ? null : new UUID(step * (i + 1), 0);
+            ranges.add(new KeyRange(i, lower, upper));
+        }
+        return ranges;
+    }
+    
+    public boolean contains(UUID walletId) {
+        return compare(walletId, lower) >= 0 && (upper == null || compare(walletId, upper) < 0);
+    }
+    
+    public static int compare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,68 @@
+package com.wallet.reconciliation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-range progress of a run. Without sharding this is the wallet database; with
+ * sharding every shard's progress is kept on shard 0.
+ */
+class ReconciliationCheckpoints {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    ReconciliationCheckpoints(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    Map<String, Checkpoint> load(String runId) {
+        Map<String, Checkpoint> checkpoints = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT shard, range_index, last_wallet_id, completed, wallets_checked, discrepancies "
+                + "FROM wallet_reconciliation_checkpoints WHERE run_id = ?",
+            rs -> {
+                Checkpoint checkpoint = new Checkpoint(rs.getInt(1), rs.getInt(2), rs.getObject(3, UUID.class),
+                    rs.getBoolean(4), rs.getLong(5), rs.getLong(6));
+                checkpoints.put(key(checkpoint.shard(), checkpoint.rangeIndex()), checkpoint);
+            },
+            runId);
+        return checkpoints;
+    }
+    
+    // Each range is owned by one worker, so update-then-insert cannot race
+    void save(String runId, Checkpoint checkpoint) {
+        int updated = jdbcTemplate.update(
+            "UPDATE wallet_reconciliation_checkpoints SET last_wallet_id = ?, completed = ?, wallets_checked = ?, "
+                + "discrepancies = ?, updated_at = CURRENT_TIMESTAMP WHERE run_id = ? AND shard = ? AND range_index = ?",
+            checkpoint.lastWalletId(), checkpoint.completed(), checkpoint.walletsChecked(), checkpoint.discrepancies(),
+            runId, checkpoint.shard(), checkpoint.rangeIndex());
+        if (updated == 0) {
+            jdbcTemplate.update(
+                "INSERT INTO wallet_reconciliation_checkpoints "
+                    + "(run_id, shard, range_index, last_wallet_id, completed, wallets_checked, discrepancies) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                runId, checkpoint.shard(), checkpoint.rangeIndex(), checkpoint.lastWalletId(), checkpoint.completed(),
+                checkpoint.walletsChecked(), checkpoint.discrepancies());
+        }
+    }
+    
+    static String key(int shard, int rangeIndex) {
+        return shard + ":" + rangeIndex;
+    }
+    
+    record Checkpoint(int shard, int rangeIndex, UUID lastWalletId, boolean completed,
+                      long walletsChecked, long discrepancies) {
+        
+        static Checkpoint start(int shard, int rangeIndex) {
+            return new Checkpoint(shard, rangeIndex, null, false, 0, 0);
+        }
+        
+        Checkpoint advance(UUID lastWalletId, boolean completed, long wallets, long discrepancies) {
+            return new Checkpoint(shard, rangeIndex, lastWalletId, completed,
+                walletsChecked + wallets, this.discrepancies + discrepancies);
+        }
+    }
+}
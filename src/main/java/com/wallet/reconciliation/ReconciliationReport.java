@@ -0,0 +1,81 @@
+package com.wallet.reconciliation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * CSV of discrepancies, one line per wallet. Appends, so a resumed run keeps what earlier
+ * attempts found; stops writing lines after {@code maxLines} but the run still counts them.
+ */
+class ReconciliationReport implements AutoCloseable {
+    
+    static final String HEADER = "wallet_id,shard,balance,ledger_total,difference";
+    
+    private final Path path;
+    private final int maxLines;
+    private final BufferedWriter writer;
+    private int lines;
+    
+    ReconciliationReport(Path path, int maxLines) {
+        this.path = path;
+        this.maxLines = maxLines;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            boolean exists = Files.exists(path);
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (exists) {
+                try (var existing = Files.lines(path, StandardCharsets.UTF_8)) {
+                    lines = (int) Math.max(0, existing.count() - 1);
+                }
+            } else {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open reconciliation report " + path, ex);
+        }
+    }
+    
+    Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Written and flushed before the chunk is checkpointed, so a crash can at worst repeat lines.
+     */
+    synchronized void write(List<Discrepancy> discrepancies) {
+        try {
+            for (Discrepancy discrepancy : discrepancies) {
+                if (lines >= maxLines) {
+                    break;
+                }
+                writer.write(discrepancy.walletId() + "," + discrepancy.shard() + ","
+                    + (discrepancy.balance() == null ? "" : discrepancy.balance().toPlainString()) + ","
+                    + discrepancy.ledgerTotal().toPlainString() + ","
+                    + discrepancy.difference().toPlainString());
+                writer.newLine();
+                lines++;
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write reconciliation report " + path, ex);
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot close reconciliation report " + path, ex);
+        }
+    }
+}
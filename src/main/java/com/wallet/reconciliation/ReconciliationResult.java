@@ -0,0 +1,15 @@
+package com.wallet.reconciliation;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Totals for a run, including ranges completed by earlier attempts with the same run id.
+ */
+public record ReconciliationResult(String runId, long walletsChecked, long discrepancies,
+                                   int failedRanges, Path report, Duration duration) {
+    
+    public boolean isClean() {
+        return discrepancies == 0 && failedRanges == 0;
+    }
+}
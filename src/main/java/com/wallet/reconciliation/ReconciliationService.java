@@ -0,0 +1,306 @@
+package com.wallet.reconciliation;
+
+import com.wallet.concurrency.AdmissionLimiter;
+import com.wallet.config.WalletProperties;
+import com.wallet.reconciliation.ReconciliationCheckpoints.Checkpoint;
+import com.wallet.sharding.ShardedTaskRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that every wallet's balance equals the sum of its ledger entries.
+ *
+ * <p>The walletId keyspace is split into ranges on every shard and the ranges are worked
+ * through in parallel on a fork-join pool. Each range is read in chunks: one read-only
+ * REPEATABLE READ transaction per chunk streams the wallets and the per-wallet ledger sums,
+ * both ordered by walletId with a bounded fetch size, and merge-joins them. Both sides come
+ * from the same snapshot, so concurrent operations never show up as discrepancies. Between
+ * chunks the job backs off while live requests are slowing down, and records its position,
+ * so re-running the same run id resumes where it stopped.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+    
+    // Archived wallets keep their ledger entries, so they are checked too
+    private static final String ALL_WALLETS =
+        "(SELECT wallet_id, balance FROM wallets UNION ALL SELECT wallet_id, balance FROM wallets_archive) w";
+    
+    private final ShardedTaskRunner shardedTaskRunner;
+    private final AdmissionLimiter admissionLimiter;
+    private final WalletProperties.Reconciliation properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final ReconciliationCheckpoints checkpoints;
+    private final Counter walletsChecked;
+    private final Counter discrepanciesFound;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationResult lastResult;
+    
+    public ReconciliationService(DataSource dataSource, ShardedTaskRunner shardedTaskRunner,
+                                 AdmissionLimiter admissionLimiter, WalletProperties walletProperties,
+                                 MeterRegistry meterRegistry) {
+        this.shardedTaskRunner = shardedTaskRunner;
+        this.admissionLimiter = admissionLimiter;
+        this.properties = walletProperties.getReconciliation();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.checkpoints = new ReconciliationCheckpoints(jdbcTemplate);
+        
+        this.readTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readTransaction.setReadOnly(true);
+        readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        
+        this.walletsChecked = Counter.builder("wallet.reconciliation.wallets").register(meterRegistry);
+        this.discrepanciesFound = Counter.builder("wallet.reconciliation.discrepancies").register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${wallet.reconciliation.cron:0 0 2 * * *}")
+    public void reconcileNightly() {
+        if (properties.isEnabled()) {
+            reconcile(LocalDate.now().toString());
+        }
+    }
+    
+    /**
+     * Reconciles every wallet, skipping ranges an earlier attempt of {@code runId} finished.
+     * The range count must not change between attempts of the same run.
+     */
+    public ReconciliationResult reconcile(String runId) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation run is already in progress");
+        }
+        long started = System.nanoTime();
+        Path reportPath = Path.of(properties.getReportDir(), "reconciliation-" + runId + ".csv");
+        
+        try (ReconciliationReport report = new ReconciliationReport(reportPath, properties.getMaxReportedDiscrepancies())) {
+            List<KeyRange> ranges = KeyRange.split(properties.getRanges());
+            Map<String, Checkpoint> existing = checkpoints.load(runId);
+            List<Checkpoint> pending = new ArrayList<>();
+            for (int shard = 0; shard < shardedTaskRunner.getShardCount(); shard++) {
+                for (KeyRange range : ranges) {
+                    Checkpoint checkpoint = existing.getOrDefault(ReconciliationCheckpoints.key(shard, range.index()),
+                        Checkpoint.start(shard, range.index()));
+                    if (!checkpoint.completed()) {
+                        pending.add(checkpoint);
+                    }
+                }
+            }
+            log.info("Reconciliation {} started: {} of {} ranges pending", runId, pending.size(),
+                ranges.size() * shardedTaskRunner.getShardCount());
+            
+            AtomicInteger failedRanges = new AtomicInteger();
+            ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+            try {
+                pool.invoke(new RangeTask(runId, ranges, pending, 0, pending.size(), report, failedRanges));
+            } finally {
+                pool.shutdown();
+            }
+            
+            long wallets = 0;
+            long discrepancies = 0;
+            for (Checkpoint checkpoint : checkpoints.load(runId).values()) {
+                wallets += checkpoint.walletsChecked();
+                discrepancies += checkpoint.discrepancies();
+            }
+            ReconciliationResult result = new ReconciliationResult(runId, wallets, discrepancies, failedRanges.get(),
+                report.getPath(), Duration.ofNanos(System.nanoTime() - started));
+            lastResult = result;
+            if (result.isClean()) {
+                log.info("Reconciliation {} finished: {} wallets, no discrepancies, took {}", runId, wallets, result.duration());
+            } else {
+                log.warn("Reconciliation {} finished: {} wallets, {} discrepancies, {} failed ranges, report {}",
+                    runId, wallets, discrepancies, failedRanges.get(), report.getPath());
+            }
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    public ReconciliationResult getLastResult() {
+        return lastResult;
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    private void reconcileRange(String runId, KeyRange range, Checkpoint checkpoint, ReconciliationReport report) {
+        while (!checkpoint.completed()) {
+            throttle();
+            UUID after = checkpoint.lastWalletId();
+            int shard = checkpoint.shard();
+            ChunkResult chunk = shardedTaskRunner.callOnShard(shard,
+                () -> readTransaction.execute(status -> jdbcTemplate.execute(
+                    (ConnectionCallback<ChunkResult>) connection -> compareChunk(connection, shard, range, after))));
+            
+            report.write(chunk.discrepancies());
+            walletsChecked.increment(chunk.wallets());
+            discrepanciesFound.increment(chunk.discrepancies().size());
+            checkpoint = checkpoint.advance(chunk.end() != null ? chunk.end() : after, chunk.end() == null,
+                chunk.wallets(), chunk.discrepancies().size());
+            checkpoints.save(runId, checkpoint);
+        }
+    }
+    
+    private ChunkResult compareChunk(Connection connection, int shard, KeyRange range, UUID after) throws SQLException {
+        UUID end = chunkEnd(connection, range, after);
+        String where = (after == null ? "wallet_id >= ?" : "wallet_id > ?")
+            + (end != null ? " AND wallet_id <= ?" : range.upper() != null ? " AND wallet_id < ?" : "");
+        Object[] params = end != null
+            ? new Object[] {after == null ? range.lower() : after, end}
+            : range.upper() != null
+                ? new Object[] {after == null ? range.lower() : after, range.upper()}
+                : new Object[] {after == null ? range.lower() : after};
+        
+        try (PreparedStatement walletQuery = prepare(connection,
+                 "SELECT wallet_id, balance FROM " + ALL_WALLETS + " WHERE " + where + " ORDER BY wallet_id", params);
+             PreparedStatement ledgerQuery = prepare(connection,
+                 "SELECT wallet_id, SUM(amount) FROM wallet_ledger WHERE " + where
+                     + " GROUP BY wallet_id ORDER BY wallet_id", params);
+             ResultSet walletRows = walletQuery.executeQuery();
+             ResultSet ledgerRows = ledgerQuery.executeQuery()) {
+            return mergeJoin(shard, walletRows, ledgerRows, end);
+        }
+    }
+    
+    /**
+     * The last wallet of the next chunk, or null when the rest of the range fits in one chunk.
+     */
+    private UUID chunkEnd(Connection connection, KeyRange range, UUID after) throws SQLException {
+        String sql = "SELECT wallet_id FROM " + ALL_WALLETS + " WHERE " + (after == null ? "wallet_id >= ?" : "wallet_id > ?")
+            + (range.upper() != null ? " AND wallet_id < ?" : "")
+            + " ORDER BY wallet_id LIMIT 1 OFFSET ?";
+        Object[] params = range.upper() != null
+            ? new Object[] {after == null ? range.lower() : after, range.upper(), properties.getChunkSize() - 1}
+            : new Object[] {after == null ? range.lower() : after, properties.getChunkSize() - 1};
+        try (PreparedStatement statement = prepare(connection, sql, params);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getObject(1, UUID.class) : null;
+        }
+    }
+    
+    private ChunkResult mergeJoin(int shard, ResultSet walletRows, ResultSet ledgerRows, UUID end) throws SQLException {
+        List<Discrepancy> discrepancies = new ArrayList<>();
+        long wallets = 0;
+        UUID walletId = walletRows.next() ? walletRows.getObject(1, UUID.class) : null;
+        UUID ledgerWalletId = ledgerRows.next() ? ledgerRows.getObject(1, UUID.class) : null;
+        
+        while (walletId != null || ledgerWalletId != null) {
+            int order = walletId == null ? 1 : ledgerWalletId == null ? -1 : KeyRange.compare(walletId, ledgerWalletId);
+            if (order <= 0) {
+                wallets++;
+                BigDecimal balance = walletRows.getBigDecimal(2);
+                BigDecimal ledgerTotal = order == 0 ? ledgerRows.getBigDecimal(2) : BigDecimal.ZERO;
+                if (balance.compareTo(ledgerTotal) != 0) {
+                    discrepancies.add(new Discrepancy(walletId, shard, balance, ledgerTotal));
+                }
+                walletId = walletRows.next() ? walletRows.getObject(1, UUID.class) : null;
+            } else {
+                // Ledger entries without a wallet row
+                discrepancies.add(new Discrepancy(ledgerWalletId, shard, null, ledgerRows.getBigDecimal(2)));
+            }
+            if (order >= 0) {
+                ledgerWalletId = ledgerRows.next() ? ledgerRows.getObject(1, UUID.class) : null;
+            }
+        }
+        return new ChunkResult(end, wallets, discrepancies);
+    }
+    
+    private PreparedStatement prepare(Connection connection, String sql, Object... params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setFetchSize(properties.getFetchSize());
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+        return statement;
+    }
+    
+    // Only while requests are actually in flight: an idle service leaves the ratio where it was
+    private void throttle() {
+        long deadline = System.nanoTime() + properties.getMaxThrottlePause().toNanos();
+        while (admissionLimiter.getInFlight() > 0
+                && admissionLimiter.getLatencyRatio() > properties.getMaxLatencyRatio()
+                && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(properties.getThrottlePause().toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during reconciliation", ex);
+            }
+        }
+    }
+    
+    private record ChunkResult(UUID end, long wallets, List<Discrepancy> discrepancies) {
+    }
+    
+    private class RangeTask extends RecursiveAction {
+        
+        private final String runId;
+        private final List<KeyRange> ranges;
+        private final List<Checkpoint> pending;
+        private final int from;
+        private final int to;
+        private final ReconciliationReport report;
+        private final AtomicInteger failedRanges;
+        
+        RangeTask(String runId, List<KeyRange> ranges, List<Checkpoint> pending, int from, int to,
+                  ReconciliationReport report, AtomicInteger failedRanges) {
+            this.runId = runId;
+            this.ranges = ranges;
+            this.pending = pending;
+            this.from = from;
+            this.to = to;
+            this.report = report;
+            this.failedRanges = failedRanges;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(runId, ranges, pending, from, middle, report, failedRanges),
+                    new RangeTask(runId, ranges, pending, middle, to, report, failedRanges));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+            Checkpoint checkpoint = pending.get(from);
+            try {
+                reconcileRange(runId, ranges.get(checkpoint.rangeIndex()), checkpoint, report);
+            } catch (RuntimeException ex) {
+                // Left incomplete in the checkpoints; the next attempt of the run picks it up
+                failedRanges.incrementAndGet();
+                log.error("Reconciliation {} failed for range {} on shard {}", runId,
+                    checkpoint.rangeIndex(), checkpoint.shard(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.wallet.repository;
+
+import com.wallet.model.DailyTurnover;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailyTurnoverRepository extends JpaRepository<DailyTurnover, DailyTurnover.Key> {
+    
+    List<DailyTurnover> findByWalletIdAndTurnoverDateBetweenOrderByTurnoverDate(
+        UUID walletId, LocalDate from, LocalDate to);
+    
+    /**
+     * Adds one balance change to the day's row, creating it on the day's first change. Amounts
+     * are positive. Only the wallet's writer touches its rows, so the merge never races an insert.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO wallet_daily_turnover t "
+        + "USING (SELECT CAST(:walletId AS UUID) AS wallet_id, CAST(:day AS DATE) AS turnover_date) s "
+        + "ON t.wallet_id = s.wallet_id AND t.turnover_date = s.turnover_date "
+        + "WHEN MATCHED THEN UPDATE SET deposit_total = t.deposit_total + :deposit, "
+        + "withdraw_total = t.withdraw_total + :withdraw, operation_count = t.operation_count + 1, "
+        + "version = t.version + 1, updated_at = CURRENT_TIMESTAMP "
+        + "WHEN NOT MATCHED THEN INSERT (wallet_id, turnover_date, deposit_total, withdraw_total, "
+        + "operation_count, version, updated_at) "
+        + "VALUES (s.wallet_id, s.turnover_date, :deposit, :withdraw, 1, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int record(UUID walletId, LocalDate day, BigDecimal deposit, BigDecimal withdraw);
+}
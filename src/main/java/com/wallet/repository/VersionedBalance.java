@@ -0,0 +1,9 @@
+package com.wallet.repository;
+
+import com.wallet.dto.WalletResponse;
+
+/**
+ * A balance read together with the wallet version it was read at.
+ */
+public record VersionedBalance(WalletResponse response, long version) {
+}
@@ -0,0 +1,29 @@
+package com.wallet.repository;
+
+import com.wallet.model.ArchivedWallet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface WalletArchiveRepository extends JpaRepository<ArchivedWallet, UUID> {
+    
+    /**
+     * Moves an archived wallet back into wallets. The archive row is locked first, so of two
+     * concurrent restores the second waits and then finds nothing to move.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallets (wallet_id, balance, held_amount, version, created_at, updated_at, shard_bucket, "
+        + "daily_withdraw_limit) "
+        + "SELECT wallet_id, balance, 0, version + 1, created_at, CURRENT_TIMESTAMP, shard_bucket, daily_withdraw_limit "
+        + "FROM wallets_archive WHERE wallet_id = :walletId FOR UPDATE", nativeQuery = true)
+    int copyToWallets(@Param("walletId") UUID walletId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM wallets_archive WHERE wallet_id = :walletId", nativeQuery = true)
+    int deleteArchived(@Param("walletId") UUID walletId);
+}
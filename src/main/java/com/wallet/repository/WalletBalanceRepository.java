@@ -0,0 +1,13 @@
+package com.wallet.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WalletBalanceRepository {
+    
+    /**
+     * Reads the balance straight into the response, without a managed entity to build,
+     * snapshot and dirty-check.
+     */
+    Optional<VersionedBalance> findBalanceById(UUID walletId);
+}
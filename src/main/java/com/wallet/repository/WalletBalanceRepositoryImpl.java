@@ -0,0 +1,32 @@
+package com.wallet.repository;
+
+import com.wallet.dto.WalletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Plain JDBC on the transaction's connection. A JPQL constructor projection skips the entity
+ * too, but building and binding the query allocates more than loading the entity by id.
+ */
+@RequiredArgsConstructor
+class WalletBalanceRepositoryImpl implements WalletBalanceRepository {
+    
+    private static final String SELECT_BALANCE = "SELECT balance, held_amount, version FROM wallets WHERE wallet_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public Optional<VersionedBalance> findBalanceById(UUID walletId) {
+        List<VersionedBalance> wallets = jdbcTemplate.query(SELECT_BALANCE, (rs, row) -> {
+            BigDecimal balance = rs.getBigDecimal(1);
+            return new VersionedBalance(
+                new WalletResponse(walletId, balance, balance.subtract(rs.getBigDecimal(2))), rs.getLong(3));
+        }, walletId);
+        return wallets.stream().findFirst();
+    }
+}
@@ -0,0 +1,11 @@
+package com.wallet.repository;
+
+import com.wallet.model.WalletHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface WalletHoldRepository extends JpaRepository<WalletHold, UUID> {
+}
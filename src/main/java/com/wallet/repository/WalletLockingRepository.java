@@ -0,0 +1,17 @@
+package com.wallet.repository;
+
+import com.wallet.model.Wallet;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WalletLockingRepository {
+    
+    /**
+     * Like {@link WalletRepository#findByIdWithLock}, but gives up with a
+     * {@link org.springframework.dao.PessimisticLockingFailureException} when the row stays
+     * locked for longer than {@code timeout}; {@link Duration#ZERO} means NOWAIT.
+     */
+    Optional<Wallet> findByIdWithLockTimeout(UUID walletId, Duration timeout);
+}
@@ -0,0 +1,59 @@
+package com.wallet.repository;
+
+import com.wallet.model.Wallet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Hibernate drops positive lock timeouts on PostgreSQL and NOWAIT on H2, so the locking
+ * statement is written here. PostgreSQL has no {@code FOR UPDATE WAIT n}; there the timeout
+ * is a transaction-local {@code lock_timeout}, which costs one extra statement.
+ */
+class WalletLockingRepositoryImpl implements WalletLockingRepository {
+    
+    private static final String SELECT_FOR_UPDATE = "SELECT * FROM wallets WHERE wallet_id = :walletId FOR UPDATE";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile Boolean postgres;
+    
+    @Override
+    public Optional<Wallet> findByIdWithLockTimeout(UUID walletId, Duration timeout) {
+        String sql;
+        if (timeout.isZero()) {
+            sql = SELECT_FOR_UPDATE + " NOWAIT";
+        } else if (isPostgres()) {
+            entityManager.createNativeQuery("SELECT set_config('lock_timeout', :timeout, true)")
+                .setParameter("timeout", timeout.toMillis() + "ms")
+                .getSingleResult();
+            sql = SELECT_FOR_UPDATE;
+        } else {
+            sql = SELECT_FOR_UPDATE + " WAIT " + BigDecimal.valueOf(timeout.toMillis(), 3).toPlainString();
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<Wallet> wallets = entityManager.createNativeQuery(sql, Wallet.class)
+            .setParameter("walletId", walletId)
+            .getResultList();
+        return wallets.stream().findFirst();
+    }
+    
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+package com.wallet.service;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletResponse;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed balance changes to Server-Sent Event subscribers.
+ *
+ * <p>Subscriptions hold no thread while idle. Each subscriber keeps at most one pending
+ * change per subscribed wallet; newer changes overwrite older ones until the next flush,
+ * so a slow consumer only ever receives the latest balance.
+ *
+ * <p>A timer thread only decides when to flush; the writes run on the flush threads, one
+ * flush per subscriber at a time. A client that stops reading therefore holds one flush
+ * thread until its write fails, and never holds up the timer or other subscribers' flushes.
+ */
+@Service
+@Slf4j
+public class BalanceSubscriptionService {
+    
+    static final String BALANCE_EVENT = "balance";
+    
+    private final WalletProperties.Subscriptions properties;
+    private final Map<UUID, Set<Subscriber>> subscribersByWallet = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService flushExecutor;
+    
+    public BalanceSubscriptionService(WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.properties = walletProperties.getSubscriptions();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-subscriptions-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.flushExecutor = Executors.newFixedThreadPool(properties.getFlushThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "balance-subscriptions-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        timer.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        
+        Gauge.builder("wallet.subscriptions.active", subscriptionCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+    
+    public SseEmitter subscribe(Set<UUID> walletIds) {
+        if (walletIds.isEmpty() || walletIds.size() > properties.getMaxWalletsPerSubscription()) {
+            throw new InvalidRequestException("A subscription must cover between 1 and "
+                + properties.getMaxWalletsPerSubscription() + " wallets");
+        }
+        if (subscriptionCount.incrementAndGet() > properties.getMaxSubscriptions()) {
+            subscriptionCount.decrementAndGet();
+            throw new TooManyRequestsException(
+                "Too many balance subscriptions. Please retry later.", properties.getHeartbeatInterval());
+        }
+        
+        SseEmitter emitter = createEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(walletIds));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        
+        subscribers.add(subscriber);
+        for (UUID walletId : subscriber.walletIds) {
+            subscribersByWallet.compute(walletId, (id, set) -> {
+                Set<Subscriber> walletSubscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+                walletSubscribers.add(subscriber);
+                return walletSubscribers;
+            });
+        }
+        log.debug("Balance subscription opened for {} wallets", walletIds.size());
+        return emitter;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        Set<Subscriber> walletSubscribers = subscribersByWallet.get(event.walletId());
+        if (walletSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : walletSubscribers) {
+            subscriber.offer(event);
+        }
+    }
+    
+    int getSubscriptionCount() {
+        return subscriptionCount.get();
+    }
+    
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        flushExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            // Heartbeats are what detect clients that went away without closing the stream
+            subscriber.heartbeatDue.set(true);
+            flushExecutor.execute(subscriber::flush);
+        }
+    }
+    
+    private final class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final Set<UUID> walletIds;
+        private final Map<UUID, BalanceChangedEvent> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        private Subscriber(SseEmitter emitter, Set<UUID> walletIds) {
+            this.emitter = emitter;
+            this.walletIds = walletIds;
+        }
+        
+        private void offer(BalanceChangedEvent event) {
+            pending.merge(event.walletId(), event, (current, update) -> update.isNewerThan(current) ? update : current);
+            if (flushScheduled.compareAndSet(false, true)) {
+                timer.schedule(() -> flushExecutor.execute(this::flush),
+                    properties.getCoalesceWindow().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        
+        /**
+         * Whichever flush finds the subscriber free sends everything pending, and goes round
+         * again for changes that arrived meanwhile; the others return at once.
+         */
+        private void flush() {
+            while ((heartbeatDue.get() || !pending.isEmpty()) && !closed.get() && flushing.compareAndSet(false, true)) {
+                try {
+                    if (heartbeatDue.getAndSet(false)) {
+                        send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    Iterator<BalanceChangedEvent> iterator = pending.values().iterator();
+                    while (iterator.hasNext() && !closed.get()) {
+                        BalanceChangedEvent event = iterator.next();
+                        // Only drop the entry if no newer change replaced it while we were iterating
+                        pending.remove(event.walletId(), event);
+                        SseEmitter.SseEventBuilder sseEvent = SseEmitter.event()
+                                .name(BALANCE_EVENT)
+                                .data(new WalletResponse(event.walletId(), event.balance(), event.availableBalance()),
+                                    MediaType.APPLICATION_JSON);
+                        if (event.version() != null) {
+                            sseEvent.id(event.version().toString());
+                        }
+                        send(sseEvent);
+                    }
+                } finally {
+                    flushing.set(false);
+                    // Cleared last, so a change offered from here on schedules the next flush
+                    flushScheduled.set(false);
+                }
+            }
+        }
+        
+        private void send(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Dropping balance subscription: {}", ex.getMessage());
+                close();
+                emitter.completeWithError(ex);
+            }
+        }
+        
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            for (UUID walletId : walletIds) {
+                subscribersByWallet.computeIfPresent(walletId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+            pending.clear();
+            subscriptionCount.decrementAndGet();
+        }
+    }
+}
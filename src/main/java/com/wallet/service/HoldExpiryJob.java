@@ -0,0 +1,145 @@
+package com.wallet.service;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.sharding.ShardedTaskRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Releases expired holds in bulk. Each batch reads the oldest expired holds from the
+ * expiry index, so the cost follows the number of expired holds, not the number of wallets.
+ *
+ * <p>The affected wallets are locked before their holds are touched, the same order
+ * WalletService uses, so the job cannot deadlock with a concurrent capture or release.
+ * Holds in buckets that are migrating or owned by another shard are left for later.
+ *
+ * <p>Every wallet touched gets a BalanceChangedEvent, like a release through WalletService,
+ * so the change log and balance subscribers see the funds become available.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "wallet.holds", name = "expiry-enabled", havingValue = "true", matchIfMissing = true)
+public class HoldExpiryJob {
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedTaskRunner shardedTaskRunner;
+    private final WalletCacheEvictor walletCacheEvictor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletProperties.Holds properties;
+    private final Counter expiredHolds;
+    
+    public HoldExpiryJob(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                         ShardedTaskRunner shardedTaskRunner, WalletCacheEvictor walletCacheEvictor,
+                         ApplicationEventPublisher eventPublisher, WalletProperties walletProperties,
+                         MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardedTaskRunner = shardedTaskRunner;
+        this.walletCacheEvictor = walletCacheEvictor;
+        this.eventPublisher = eventPublisher;
+        this.properties = walletProperties.getHolds();
+        this.expiredHolds = Counter.builder("wallet.holds.expired").register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.holds.expiry-interval:30000}")
+    public void expireHolds() {
+        shardedTaskRunner.runOnEachShard(this::expireOnShard);
+    }
+    
+    private void expireOnShard() {
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            Integer candidates = transactionTemplate.execute(status -> expireBatch(LocalDateTime.now()));
+            if (candidates == null || candidates < properties.getExpiryBatchSize()) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of expired holds found, which may exceed the number released when
+     * some were captured or released concurrently.
+     */
+    private int expireBatch(LocalDateTime now) {
+        // A bucket being copied to another shard must not change between its wallets and holds
+        List<Integer> skipped = shardedTaskRunner.bucketsToSkip();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("now", now)
+            .addValue("skipped", skipped)
+            .addValue("limit", properties.getExpiryBatchSize());
+        List<Map<String, Object>> candidates = jdbcTemplate.queryForList(
+            "SELECT h.hold_id, h.wallet_id FROM wallet_holds h "
+                + (skipped.isEmpty() ? "" : "JOIN wallets w ON w.wallet_id = h.wallet_id AND w.shard_bucket NOT IN (:skipped) ")
+                + "WHERE h.expires_at <= :now ORDER BY h.expires_at LIMIT :limit",
+            params);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        List<UUID> holdIds = new ArrayList<>(candidates.size());
+        Set<UUID> walletIds = new LinkedHashSet<>();
+        for (Map<String, Object> candidate : candidates) {
+            holdIds.add((UUID) candidate.get("hold_id"));
+            walletIds.add((UUID) candidate.get("wallet_id"));
+        }
+        
+        jdbcTemplate.queryForList(
+            "SELECT wallet_id FROM wallets WHERE wallet_id IN (:walletIds) ORDER BY wallet_id FOR UPDATE",
+            new MapSqlParameterSource("walletIds", walletIds), UUID.class);
+        
+        // Re-read under the wallet locks: holds captured or released meanwhile are gone
+        Map<UUID, BigDecimal> releasedByWallet = new LinkedHashMap<>();
+        List<UUID> releasedHoldIds = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT hold_id, wallet_id, amount FROM wallet_holds WHERE hold_id IN (:holdIds) AND expires_at <= :now",
+            new MapSqlParameterSource("holdIds", holdIds).addValue("now", now),
+            rs -> {
+                releasedHoldIds.add(rs.getObject(1, UUID.class));
+                releasedByWallet.merge(rs.getObject(2, UUID.class), rs.getBigDecimal(3), BigDecimal::add);
+            });
+        if (releasedHoldIds.isEmpty()) {
+            return candidates.size();
+        }
+        
+        // Bump the version so an in-process writer holding a stale copy retries
+        jdbcTemplate.batchUpdate(
+            "UPDATE wallets SET held_amount = held_amount - :amount, version = version + 1, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE wallet_id = :walletId",
+            releasedByWallet.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource("walletId", entry.getKey()).addValue("amount", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.update("DELETE FROM wallet_holds WHERE hold_id IN (:holdIds)",
+            new MapSqlParameterSource("holdIds", releasedHoldIds));
+        walletCacheEvictor.evictAfterCommit(releasedByWallet.keySet());
+        jdbcTemplate.query(
+            "SELECT wallet_id, balance, held_amount, version FROM wallets WHERE wallet_id IN (:walletIds)",
+            new MapSqlParameterSource("walletIds", releasedByWallet.keySet()),
+            rs -> {
+                BigDecimal balance = rs.getBigDecimal(2);
+                eventPublisher.publishEvent(new BalanceChangedEvent(rs.getObject(1, UUID.class), balance,
+                    balance.subtract(rs.getBigDecimal(3)), rs.getLong(4)));
+            });
+        
+        expiredHolds.increment(releasedHoldIds.size());
+        log.debug("Released {} expired holds on {} wallets", releasedHoldIds.size(), releasedByWallet.size());
+        return candidates.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.wallet.service;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.sharding.ShardedTaskRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves wallets idle past the threshold from wallets to wallets_archive, so the hot table
+ * and its indexes only hold wallets that are in use. WalletService moves a wallet back on
+ * its next write.
+ *
+ * <p>Each run walks wallets in primary key order, one batch per transaction. Candidates are
+ * locked in walletId order and checked again under the lock, so a wallet written or given a
+ * hold meanwhile stays where it is. Wallets in buckets that are migrating or owned by another
+ * shard are left for a later run.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "wallet.archive", name = "enabled", havingValue = "true")
+public class WalletArchiveJob {
+    
+    private static final String IDLE = "updated_at < :cutoff AND held_amount = 0";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedTaskRunner shardedTaskRunner;
+    private final WalletCacheEvictor walletCacheEvictor;
+    private final WalletProperties.Archive properties;
+    private final Counter archivedWallets;
+    
+    public WalletArchiveJob(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            ShardedTaskRunner shardedTaskRunner, WalletCacheEvictor walletCacheEvictor,
+                            WalletProperties walletProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardedTaskRunner = shardedTaskRunner;
+        this.walletCacheEvictor = walletCacheEvictor;
+        this.properties = walletProperties.getArchive();
+        this.archivedWallets = Counter.builder("wallet.archive.archived").register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.archive.interval:3600000}")
+    public void archiveIdleWallets() {
+        shardedTaskRunner.runOnEachShard(this::archiveOnShard);
+    }
+    
+    private void archiveOnShard() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getIdleThreshold());
+        UUID after = null;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            UUID from = after;
+            List<UUID> candidates = transactionTemplate.execute(status -> archiveBatch(cutoff, from));
+            if (candidates == null || candidates.size() < properties.getBatchSize()) {
+                return;
+            }
+            after = candidates.get(candidates.size() - 1);
+        }
+    }
+    
+    /**
+     * Returns the idle wallets found after the given key, which may be more than were
+     * archived when some became active concurrently.
+     */
+    private List<UUID> archiveBatch(LocalDateTime cutoff, UUID after) {
+        // Copying a migrating bucket reads wallets before wallets_archive, so its wallets must stay put
+        List<Integer> skipped = shardedTaskRunner.bucketsToSkip();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("cutoff", cutoff)
+            .addValue("after", after)
+            .addValue("skipped", skipped)
+            .addValue("limit", properties.getBatchSize());
+        List<UUID> candidates = jdbcTemplate.queryForList(
+            "SELECT wallet_id FROM wallets WHERE " + (after == null ? "" : "wallet_id > :after AND ")
+                + (skipped.isEmpty() ? "" : "shard_bucket NOT IN (:skipped) AND ") + IDLE
+                + " ORDER BY wallet_id LIMIT :limit",
+            params, UUID.class);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        
+        List<UUID> locked = jdbcTemplate.queryForList(
+            "SELECT wallet_id FROM wallets WHERE wallet_id IN (:walletIds) AND " + IDLE
+                + " ORDER BY wallet_id FOR UPDATE",
+            new MapSqlParameterSource("walletIds", candidates).addValue("cutoff", cutoff), UUID.class);
+        if (locked.isEmpty()) {
+            return candidates;
+        }
+        
+        MapSqlParameterSource lockedIds = new MapSqlParameterSource("walletIds", locked);
+        jdbcTemplate.update(
+            "INSERT INTO wallets_archive (wallet_id, balance, version, shard_bucket, created_at, updated_at, daily_withdraw_limit) "
+                + "SELECT wallet_id, balance, version, shard_bucket, created_at, updated_at, daily_withdraw_limit "
+                + "FROM wallets WHERE wallet_id IN (:walletIds)",
+            lockedIds);
+        jdbcTemplate.update("DELETE FROM wallets WHERE wallet_id IN (:walletIds)", lockedIds);
+        walletCacheEvictor.evictAfterCommit(locked);
+        
+        archivedWallets.increment(locked.size());
+        log.debug("Archived {} idle wallets", locked.size());
+        return candidates;
+    }
+}
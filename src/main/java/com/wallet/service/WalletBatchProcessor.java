@@ -0,0 +1,107 @@
+package com.wallet.service;
+
+import com.wallet.codec.WalletBinaryCodec;
+import com.wallet.concurrency.AdmissionLimiter;
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.exception.DailyLimitExceededException;
+import com.wallet.exception.TooManyRequestsException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Processes a stream of binary wallet requests and writes one batch result per request,
+ * in request order. Each operation is admitted and dispatched like a single request.
+ *
+ * <p>Results are flushed whenever the client has no more requests buffered, so a client
+ * pipelining requests over one connection sees results without waiting for the end of the body.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletBatchProcessor {
+    
+    private static final int MAX_UNFLUSHED_RESULTS = 256;
+    
+    private final WalletService walletService;
+    private final AdmissionLimiter admissionLimiter;
+    private final WalletOperationDispatcher operationDispatcher;
+    
+    public int process(InputStream in, OutputStream out) throws IOException {
+        byte[] record = new byte[WalletBinaryCodec.REQUEST_SIZE];
+        ByteBuffer requestBuffer = ByteBuffer.wrap(record);
+        ByteBuffer resultBuffer = ByteBuffer.allocate(WalletBinaryCodec.BATCH_RESULT_SIZE);
+        int processed = 0;
+        int unflushed = 0;
+        
+        while (readRecord(in, record)) {
+            requestBuffer.clear();
+            resultBuffer.clear();
+            process(requestBuffer, resultBuffer);
+            out.write(resultBuffer.array());
+            processed++;
+            
+            if (++unflushed >= MAX_UNFLUSHED_RESULTS || in.available() == 0) {
+                out.flush();
+                unflushed = 0;
+            }
+        }
+        out.flush();
+        return processed;
+    }
+    
+    private void process(ByteBuffer requestBuffer, ByteBuffer resultBuffer) {
+        UUID walletId = new UUID(requestBuffer.getLong(0), requestBuffer.getLong(8));
+        WalletOperationRequest request;
+        try {
+            request = WalletBinaryCodec.readRequest(requestBuffer);
+        } catch (IllegalArgumentException ex) {
+            WalletBinaryCodec.writeBatchResult(walletId, WalletBinaryCodec.STATUS_INVALID, null, resultBuffer);
+            return;
+        }
+        if (request.getAmount().signum() <= 0) {
+            WalletBinaryCodec.writeBatchResult(walletId, WalletBinaryCodec.STATUS_INVALID, null, resultBuffer);
+            return;
+        }
+        
+        byte status;
+        BigDecimal balance = null;
+        try (AdmissionLimiter.Permit permit = admissionLimiter.acquire(walletId)) {
+            OperationResult result = operationDispatcher.dispatch(walletId,
+                () -> walletService.tryProcessOperation(request));
+            status = result.isSuccess() ? WalletBinaryCodec.STATUS_OK : WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS;
+            balance = result.getBalance();
+        } catch (DailyLimitExceededException ex) {
+            status = WalletBinaryCodec.STATUS_LIMIT_EXCEEDED;
+        } catch (TooManyRequestsException | PessimisticLockingFailureException | QueryTimeoutException
+                 | TransactionTimedOutException ex) {
+            status = WalletBinaryCodec.STATUS_REJECTED;
+        } catch (RuntimeException ex) {
+            // One failed operation must not abort the rest of the stream
+            log.error("Batch operation failed for wallet {}", walletId, ex);
+            status = WalletBinaryCodec.STATUS_ERROR;
+        }
+        WalletBinaryCodec.writeBatchResult(walletId, status, balance, resultBuffer);
+    }
+    
+    private static boolean readRecord(InputStream in, byte[] record) throws IOException {
+        int read = in.readNBytes(record, 0, record.length);
+        if (read > 0 && read < record.length) {
+            // Results are already streamed, so the response can't turn into an error anymore
+            log.warn("Ignoring truncated wallet request at end of batch: {} of {} bytes", read, record.length);
+            return false;
+        }
+        return read == record.length;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wallet.service;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.model.Wallet;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evicts wallets written through JDBC from the second-level cache, which only sees writes
+ * made through Hibernate. Eviction waits for the commit, so a read in between cannot put
+ * the old row back.
+ */
+@Component
+@RequiredArgsConstructor
+public class WalletCacheEvictor {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    private final WalletProperties walletProperties;
+    
+    public void evictAfterCommit(Collection<UUID> walletIds) {
+        if (!walletProperties.getSecondLevelCache().isEnabled() || walletIds.isEmpty()) {
+            return;
+        }
+        List<UUID> evicted = List.copyOf(walletIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(evicted);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(evicted);
+            }
+        });
+    }
+    
+    private void evict(List<UUID> walletIds) {
+        for (UUID walletId : walletIds) {
+            entityManagerFactory.getCache().evict(Wallet.class, walletId);
+        }
+    }
+}
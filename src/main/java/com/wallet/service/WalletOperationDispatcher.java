@@ -0,0 +1,89 @@
+package com.wallet.service;
+
+import com.wallet.concurrency.HotWalletTracker;
+import com.wallet.concurrency.WalletMailboxExecutor;
+import com.wallet.concurrency.WalletMailboxExecutor.MailboxFuture;
+import com.wallet.config.WalletProperties;
+import com.wallet.config.WalletProperties.SerializationMode;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Decides where a wallet write runs: inline on the calling thread (serialized by the
+ * database row lock) or in the wallet's mailbox (serialized in process).
+ *
+ * <p>In DATABASE mode with hot-wallets.routing-enabled, hot wallets are still sent
+ * through their mailbox. The row lock stays in place, but this node then has at most
+ * one transaction waiting on it, and the remaining callers queue without holding a
+ * connection. Mailboxes share stripes, though, so while one hot wallet waits on its
+ * row lock every hot wallet on the same stripe waits too; routing is therefore off
+ * by default and hot wallets run inline like any other.
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletOperationDispatcher {
+    
+    private final WalletMailboxExecutor mailboxExecutor;
+    private final HotWalletTracker hotWalletTracker;
+    private final WalletProperties walletProperties;
+    private final MeterRegistry meterRegistry;
+    
+    public <T> T dispatch(UUID walletId, Supplier<T> operation) {
+        boolean hot = hotWalletTracker.record(walletId);
+        if (walletProperties.getSerialization().getMode() == SerializationMode.IN_PROCESS) {
+            return await(mailboxExecutor.submit(walletId, operation));
+        }
+        if (hot && walletProperties.getHotWallets().isRoutingEnabled()) {
+            meterRegistry.counter("wallet.hot.routed").increment();
+            return await(mailboxExecutor.submit(walletId, operation));
+        }
+        return operation.get();
+    }
+    
+    private <T> T await(MailboxFuture<T> future) {
+        Duration timeout = walletProperties.getSerialization().getTimeout();
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (future.cancelIfNotStarted()) {
+                throw new TooManyRequestsException(
+                    "Wallet operation was not started in time. Please retry the operation.", timeout.dividedBy(10));
+            }
+            // Already running, so its outcome is decided; wait for it instead of reporting a false failure
+            return join(future);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for wallet operation", ex);
+        }
+    }
+    
+    private <T> T join(MailboxFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+    
+    private RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Wallet operation failed", cause);
+    }
+}
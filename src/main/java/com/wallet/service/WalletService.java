@@ -1,14 +1,37 @@
 package com.wallet.service;
 
+import com.wallet.cache.BalanceCache;
+import com.wallet.config.WalletProperties;
+import com.wallet.config.WalletProperties.SerializationMode;
+import com.wallet.dto.DailyTurnoverResponse;
+import com.wallet.dto.OperationResult;
 import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletLimitsResponse;
 import com.wallet.dto.WalletResponse;
-import com.wallet.exception.InsufficientFundsException;
+import com.wallet.dto.WalletTurnoverResponse;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.exception.DailyLimitExceededException;
+import com.wallet.exception.HoldNotFoundException;
+import com.wallet.exception.InvalidRequestException;
 import com.wallet.exception.WalletNotFoundException;
+import com.wallet.model.DailyTurnover;
+import com.wallet.model.LedgerEntry;
+import com.wallet.model.LedgerEntryType;
 import com.wallet.model.OperationType;
 import com.wallet.model.Wallet;
+import com.wallet.model.WalletHold;
+import com.wallet.repository.DailyTurnoverRepository;
+import com.wallet.repository.LedgerEntryRepository;
+import com.wallet.repository.VersionedBalance;
+import com.wallet.repository.WalletArchiveRepository;
+import com.wallet.repository.WalletHoldRepository;
 import com.wallet.repository.WalletRepository;
+import com.wallet.sharding.OnWalletShard;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -16,6 +39,12 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -23,8 +52,19 @@ import java.util.UUID;
 @Slf4j
 public class WalletService {
     
+    static final int MAX_TURNOVER_REPORT_DAYS = 366;
+    
     private final WalletRepository walletRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final DailyTurnoverRepository dailyTurnoverRepository;
+    private final WalletHoldRepository walletHoldRepository;
+    private final WalletArchiveRepository walletArchiveRepository;
+    private final WalletProperties walletProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BalanceCache balanceCache;
+    private final MeterRegistry meterRegistry;
     
+    @OnWalletShard
     @Transactional(isolation = Isolation.READ_COMMITTED)
     @Retryable(
         retryFor = {org.springframework.dao.OptimisticLockingFailureException.class},
@@ -32,13 +72,45 @@ public class WalletService {
         backoff = @Backoff(delay = 100, multiplier = 2)
     )
     public WalletResponse processOperation(WalletOperationRequest request) {
-        log.debug("Processing {} operation for wallet: {}, amount: {}", 
-            request.getOperationType(), request.getWalletId(), request.getAmount());
+        OperationResult result = tryProcessOperation(request);
+        if (!result.isSuccess()) {
+            throw result.toException();
+        }
+        return result.getResponse();
+    }
+    
+    /**
+     * Same as {@link #processOperation}, but reports insufficient funds as a result instead of
+     * throwing. Nothing is written when a withdrawal or hold is rejected.
+     */
+    @OnWalletShard
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Retryable(
+        retryFor = {org.springframework.dao.OptimisticLockingFailureException.class},
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 100, multiplier = 2)
+    )
+    public OperationResult tryProcessOperation(WalletOperationRequest request) {
+        // Three-argument calls go through varargs, so guard them to keep the disabled path allocation-free
+        if (log.isDebugEnabled()) {
+            log.debug("Processing {} operation for wallet: {}, amount: {}", 
+                request.getOperationType(), request.getWalletId(), request.getAmount());
+        }
         
         UUID walletId = request.getWalletId();
+        OperationType operationType = request.getOperationType();
+        BigDecimal amount = request.getAmount();
         
-        // Get wallet with pessimistic lock to prevent concurrent modifications
-        Wallet wallet = walletRepository.findByIdWithLock(walletId)
+        Optional<Wallet> existingWallet = findWalletForUpdate(walletId);
+        if (existingWallet.isEmpty() && operationType != OperationType.DEPOSIT) {
+            if (operationType == OperationType.CAPTURE || operationType == OperationType.RELEASE) {
+                throw new HoldNotFoundException(walletId, request.getHoldId());
+            }
+            // A wallet that does not exist yet has nothing to withdraw or hold, so don't create it
+            return rejectWithdrawal(walletId, BigDecimal.ZERO, amount);
+        }
+        
+        Wallet wallet = existingWallet
                 .orElseGet(() -> {
                     // Create wallet if it doesn't exist
                     log.info("Creating new wallet: {}", walletId);
@@ -47,46 +119,238 @@ public class WalletService {
                 });
         
         BigDecimal currentBalance = wallet.getBalance();
-        BigDecimal amount = request.getAmount();
+        BigDecimal available = wallet.getAvailableBalance();
+        LedgerEntry ledgerEntry = null;
+        UUID holdId = request.getHoldId();
         
         // Process operation based on type
-        if (request.getOperationType() == OperationType.DEPOSIT) {
-            wallet.setBalance(currentBalance.add(amount));
-            log.debug("Deposited {} to wallet {}. New balance: {}", 
-                amount, walletId, wallet.getBalance());
-        } else if (request.getOperationType() == OperationType.WITHDRAW) {
-            // Check if sufficient funds available
-            if (currentBalance.compareTo(amount) < 0) {
-                log.warn("Insufficient funds for wallet {}. Balance: {}, Requested: {}", 
-                    walletId, currentBalance, amount);
-                throw new InsufficientFundsException(walletId, currentBalance, amount);
+        switch (operationType) {
+            case DEPOSIT -> {
+                wallet.setBalance(currentBalance.add(amount));
+                ledgerEntry = new LedgerEntry(walletId, LedgerEntryType.DEPOSIT, amount);
+                if (log.isDebugEnabled()) {
+                    log.debug("Deposited {} to wallet {}. New balance: {}", 
+                        amount, walletId, wallet.getBalance());
+                }
+            }
+            case WITHDRAW -> {
+                // Held funds are not available for withdrawal
+                if (available.compareTo(amount) < 0) {
+                    return rejectWithdrawal(walletId, available, amount);
+                }
+                checkDailyLimit(wallet, amount);
+                wallet.setBalance(currentBalance.subtract(amount));
+                ledgerEntry = new LedgerEntry(walletId, LedgerEntryType.WITHDRAW, amount.negate());
+                if (log.isDebugEnabled()) {
+                    log.debug("Withdrew {} from wallet {}. New balance: {}", 
+                        amount, walletId, wallet.getBalance());
+                }
             }
-            wallet.setBalance(currentBalance.subtract(amount));
-            log.debug("Withdrew {} from wallet {}. New balance: {}", 
-                amount, walletId, wallet.getBalance());
+            case HOLD -> {
+                if (available.compareTo(amount) < 0) {
+                    return rejectWithdrawal(walletId, available, amount);
+                }
+                // Checked here rather than on capture, so an authorized hold can always be captured
+                checkDailyLimit(wallet, amount);
+                holdId = placeHold(wallet, holdId, amount);
+            }
+            case CAPTURE -> ledgerEntry = captureHold(wallet, holdId, amount);
+            case RELEASE -> releaseHold(wallet, holdId);
         }
         
-        // Save the updated wallet
+        // Save the updated wallet and flush so the event carries the committed version
         Wallet savedWallet = walletRepository.save(wallet);
+        if (ledgerEntry != null) {
+            ledgerEntryRepository.save(ledgerEntry);
+        }
+        walletRepository.flush();
+        if (ledgerEntry != null) {
+            recordTurnover(walletId, ledgerEntry.getAmount());
+        }
+        eventPublisher.publishEvent(new BalanceChangedEvent(savedWallet.getWalletId(), savedWallet.getBalance(),
+            savedWallet.getAvailableBalance(), savedWallet.getVersion()));
         
-        log.info("Operation {} completed successfully for wallet {}. Final balance: {}", 
-            request.getOperationType(), walletId, savedWallet.getBalance());
+        if (log.isDebugEnabled()) {
+            log.debug("Operation {} completed successfully for wallet {}. Final balance: {}", 
+                operationType, walletId, savedWallet.getBalance());
+        }
         
-        return new WalletResponse(savedWallet.getWalletId(), savedWallet.getBalance());
+        return OperationResult.success(new WalletResponse(
+            savedWallet.getWalletId(), savedWallet.getBalance(), savedWallet.getAvailableBalance(), holdId));
+    }
+    
+    private UUID placeHold(Wallet wallet, UUID requestedHoldId, BigDecimal amount) {
+        UUID holdId = requestedHoldId != null ? requestedHoldId : UUID.randomUUID();
+        if (requestedHoldId != null && walletHoldRepository.existsById(requestedHoldId)) {
+            throw new InvalidRequestException("Hold already exists with ID: " + requestedHoldId);
+        }
+        wallet.setHeldAmount(wallet.getHeldAmount().add(amount));
+        walletHoldRepository.save(new WalletHold(holdId, wallet.getWalletId(), amount,
+            LocalDateTime.now().plus(walletProperties.getHolds().getTtl())));
+        log.debug("Placed hold {} of {} on wallet {}", holdId, amount, wallet.getWalletId());
+        return holdId;
+    }
+    
+    private LedgerEntry captureHold(Wallet wallet, UUID holdId, BigDecimal amount) {
+        WalletHold hold = findActiveHold(wallet.getWalletId(), holdId);
+        BigDecimal captured = amount != null ? amount : hold.getAmount();
+        if (captured.compareTo(hold.getAmount()) > 0) {
+            throw new InvalidRequestException("Capture amount " + captured + " exceeds hold amount " + hold.getAmount());
+        }
+        // Whatever is not captured is released with the hold
+        wallet.setHeldAmount(wallet.getHeldAmount().subtract(hold.getAmount()));
+        wallet.setBalance(wallet.getBalance().subtract(captured));
+        walletHoldRepository.delete(hold);
+        log.debug("Captured {} of hold {} on wallet {}", captured, holdId, wallet.getWalletId());
+        return new LedgerEntry(wallet.getWalletId(), LedgerEntryType.CAPTURE, captured.negate());
+    }
+    
+    private void releaseHold(Wallet wallet, UUID holdId) {
+        WalletHold hold = findActiveHold(wallet.getWalletId(), holdId);
+        wallet.setHeldAmount(wallet.getHeldAmount().subtract(hold.getAmount()));
+        walletHoldRepository.delete(hold);
+        log.debug("Released hold {} on wallet {}", holdId, wallet.getWalletId());
+    }
+    
+    // An expired hold is treated as gone even before the expiry job has released it
+    private WalletHold findActiveHold(UUID walletId, UUID holdId) {
+        return walletHoldRepository.findById(holdId)
+                .filter(hold -> hold.getWalletId().equals(walletId) && !hold.isExpired(LocalDateTime.now()))
+                .orElseThrow(() -> new HoldNotFoundException(walletId, holdId));
     }
     
+    // Today's row is only read when there is a limit. Outstanding holds count as withdrawn,
+    // so every authorized hold can still be captured within the limit
+    private void checkDailyLimit(Wallet wallet, BigDecimal amount) {
+        BigDecimal limit = wallet.getDailyWithdrawLimit();
+        if (limit == null) {
+            return;
+        }
+        BigDecimal withdrawnToday = dailyTurnoverRepository
+                .findById(new DailyTurnover.Key(wallet.getWalletId(), LocalDate.now()))
+                .map(DailyTurnover::getWithdrawTotal)
+                .orElse(BigDecimal.ZERO);
+        if (withdrawnToday.add(wallet.getHeldAmount()).add(amount).compareTo(limit) > 0) {
+            meterRegistry.counter("wallet.limits.rejected").increment();
+            throw new DailyLimitExceededException(
+                wallet.getWalletId(), limit, withdrawnToday, wallet.getHeldAmount(), amount);
+        }
+    }
+    
+    // One upsert, without reading the row first; positive ledger amounts are deposits
+    private void recordTurnover(UUID walletId, BigDecimal amount) {
+        boolean deposit = amount.signum() >= 0;
+        dailyTurnoverRepository.record(walletId, LocalDate.now(),
+            deposit ? amount : BigDecimal.ZERO, deposit ? BigDecimal.ZERO : amount.negate());
+    }
+    
+    private OperationResult rejectWithdrawal(UUID walletId, BigDecimal balance, BigDecimal amount) {
+        if (log.isDebugEnabled()) {
+            log.debug("Insufficient funds for wallet {}. Balance: {}, Requested: {}", 
+                walletId, balance, amount);
+        }
+        return OperationResult.insufficientFunds(walletId, balance, amount);
+    }
+    
+    private Optional<Wallet> findWalletForUpdate(UUID walletId) {
+        Optional<Wallet> wallet = lockWallet(walletId);
+        if (wallet.isEmpty() && restoreArchived(walletId)) {
+            wallet = lockWallet(walletId);
+        }
+        return wallet;
+    }
+    
+    // A dormant wallet moves back into the hot table on its first write
+    private boolean restoreArchived(UUID walletId) {
+        if (walletArchiveRepository.copyToWallets(walletId) == 0) {
+            return false;
+        }
+        walletArchiveRepository.deleteArchived(walletId);
+        meterRegistry.counter("wallet.archive.restored").increment();
+        log.debug("Restored archived wallet {}", walletId);
+        return true;
+    }
+    
+    private Optional<Wallet> lockWallet(UUID walletId) {
+        if (walletProperties.getSerialization().getMode() == SerializationMode.IN_PROCESS) {
+            // Writers are already serialized by the wallet's mailbox, no row lock needed
+            return walletRepository.findById(walletId);
+        }
+        // Get wallet with pessimistic lock to prevent concurrent modifications
+        WalletProperties.Lock lock = walletProperties.getLock();
+        try {
+            return switch (lock.getStrategy()) {
+                case WAIT -> walletRepository.findByIdWithLock(walletId);
+                case TIMEOUT -> walletRepository.findByIdWithLockTimeout(walletId, lock.getTimeout());
+                case NOWAIT -> walletRepository.findByIdWithLockTimeout(walletId, Duration.ZERO);
+            };
+        } catch (PessimisticLockingFailureException ex) {
+            meterRegistry.counter("wallet.lock.timeouts", "strategy", lock.getStrategy().name()).increment();
+            throw ex;
+        }
+    }
+    
+    @OnWalletShard(write = false)
     @Transactional(readOnly = true)
     public WalletResponse getWalletBalance(UUID walletId) {
         log.debug("Fetching balance for wallet: {}", walletId);
         
-        Wallet wallet = walletRepository.findById(walletId)
+        // Taken before the read, so a balance cache cleared meanwhile is not refilled from it
+        long cacheEpoch = balanceCache.epoch();
+        // The second-level cache serves entity lookups only; without it, the projection is cheaper
+        Optional<VersionedBalance> wallet = walletProperties.getSecondLevelCache().isEnabled()
+                ? walletRepository.findById(walletId).map(found -> new VersionedBalance(
+                    new WalletResponse(walletId, found.getBalance(), found.getAvailableBalance()), found.getVersion()))
+                : walletRepository.findBalanceById(walletId);
+        if (wallet.isPresent()) {
+            log.debug("Balance for wallet {}: {}", walletId, wallet.get().response().getBalance());
+            balanceCache.put(walletId, wallet.get(), cacheEpoch);
+            return wallet.get().response();
+        }
+        
+        // Reads are served from the archive; only a write moves the wallet back
+        return walletArchiveRepository.findById(walletId)
+                .map(archived -> new WalletResponse(walletId, archived.getBalance()))
                 .orElseThrow(() -> {
-                    log.warn("Wallet not found: {}", walletId);
+                    log.debug("Wallet not found: {}", walletId);
                     return new WalletNotFoundException(walletId);
                 });
-        
-        log.debug("Balance for wallet {}: {}", walletId, wallet.getBalance());
-        return new WalletResponse(wallet.getWalletId(), wallet.getBalance());
+    }
+    
+    /**
+     * Sets or, with null, removes the wallet's daily withdrawal limit. Like other writes it takes
+     * the wallet's lock, so it never races a withdrawal checking the old limit.
+     */
+    @OnWalletShard
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public WalletLimitsResponse setDailyWithdrawLimit(UUID walletId, BigDecimal limit) {
+        Wallet wallet = findWalletForUpdate(walletId)
+                .orElseThrow(() -> new WalletNotFoundException(walletId));
+        wallet.setDailyWithdrawLimit(limit);
+        walletRepository.save(wallet);
+        log.info("Daily withdrawal limit of wallet {} set to {}", walletId, limit);
+        return new WalletLimitsResponse(walletId, limit);
+    }
+    
+    /**
+     * Daily totals between two dates, inclusive, read from the aggregates only. Days without
+     * balance changes are left out, and an unknown wallet has no days.
+     */
+    @OnWalletShard(write = false)
+    @Transactional(readOnly = true)
+    public WalletTurnoverResponse getDailyTurnover(UUID walletId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidRequestException("Turnover range start " + from + " is after its end " + to);
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_TURNOVER_REPORT_DAYS) {
+            throw new InvalidRequestException("Turnover range must not exceed " + MAX_TURNOVER_REPORT_DAYS + " days");
+        }
+        List<DailyTurnoverResponse> days = dailyTurnoverRepository
+                .findByWalletIdAndTurnoverDateBetweenOrderByTurnoverDate(walletId, from, to).stream()
+                .map(day -> new DailyTurnoverResponse(day.getTurnoverDate(), day.getDepositTotal(),
+                    day.getWithdrawTotal(), day.getOperationCount()))
+                .toList();
+        return new WalletTurnoverResponse(walletId, from, to, days);
     }
 }
 
@@ -0,0 +1,316 @@
+package com.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wallet.concurrency.AdmissionLimiter;
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletStreamResult;
+import com.wallet.dto.WalletStreamResult.Status;
+import com.wallet.exception.DailyLimitExceededException;
+import com.wallet.exception.HoldNotFoundException;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.exception.TooManyRequestsException;
+import com.wallet.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies an unbounded NDJSON stream of wallet operations and writes one result line per
+ * operation as soon as it completes. Operations on different wallets run in parallel on a
+ * shared pool; operations on the same wallet run in the order they were sent.
+ *
+ * <p>At most max-in-flight operations per stream are read ahead of their written result.
+ * At that bound the stream stops reading, so the client is held back by TCP or HTTP/2 flow
+ * control instead of the server buffering its feed.
+ */
+@Service
+@Slf4j
+public class WalletStreamProcessor {
+    
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+    
+    private final WalletService walletService;
+    private final AdmissionLimiter admissionLimiter;
+    private final WalletOperationDispatcher operationDispatcher;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final WalletProperties.Streaming properties;
+    private final ExecutorService executor;
+    private final Semaphore streams;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final Map<Status, Counter> operations = new EnumMap<>(Status.class);
+    
+    public WalletStreamProcessor(WalletService walletService, AdmissionLimiter admissionLimiter,
+                                 WalletOperationDispatcher operationDispatcher, Validator validator,
+                                 ObjectMapper objectMapper, WalletProperties walletProperties,
+                                 MeterRegistry meterRegistry) {
+        this.walletService = walletService;
+        this.admissionLimiter = admissionLimiter;
+        this.operationDispatcher = operationDispatcher;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(WalletOperationRequest.class);
+        this.resultWriter = objectMapper.writerFor(WalletStreamResult.class);
+        this.properties = walletProperties.getStreaming();
+        this.streams = new Semaphore(properties.getMaxStreams());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "wallet-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        for (Status status : Status.values()) {
+            operations.put(status, Counter.builder("wallet.stream.operations")
+                .tag("status", status.name())
+                .register(meterRegistry));
+        }
+        Gauge.builder("wallet.stream.active", activeStreams, AtomicInteger::get).register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    /**
+     * Takes one of the max-streams slots, or rejects the stream before any response is written.
+     */
+    public Slot open() {
+        if (!streams.tryAcquire()) {
+            throw new TooManyRequestsException(
+                "Too many operation streams are open. Please retry later.", properties.getRetryAfter());
+        }
+        activeStreams.incrementAndGet();
+        return new Slot();
+    }
+    
+    public long process(InputStream in, OutputStream out) throws IOException {
+        try (Slot slot = open()) {
+            return slot.process(in, out);
+        }
+    }
+    
+    public final class Slot implements AutoCloseable {
+        
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        private Slot() {
+        }
+        
+        /**
+         * Returns once every operation read has been applied and its result written, or the
+         * client has gone away.
+         */
+        public long process(InputStream in, OutputStream out) throws IOException {
+            return new Stream(out).run(in);
+        }
+        
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                activeStreams.decrementAndGet();
+                streams.release();
+            }
+        }
+    }
+    
+    private final class Stream {
+        
+        private final OutputStream out;
+        private final Semaphore inFlight = new Semaphore(properties.getMaxInFlight());
+        // Last operation submitted per wallet; removed once it completes with nothing queued behind it
+        private final Map<UUID, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+        private final Queue<WalletStreamResult> results = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile IOException writeFailure;
+        
+        Stream(OutputStream out) {
+            this.out = out;
+        }
+        
+        long run(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long seq = 0;
+            try {
+                while (writeFailure == null && readLine(in, line)) {
+                    byte[] bytes = line.toByteArray();
+                    if (isBlank(bytes)) {
+                        continue;
+                    }
+                    inFlight.acquireUninterruptibly();
+                    submit(seq++, bytes);
+                }
+            } finally {
+                // Results of everything already read still go out, or are dropped if the client is gone
+                inFlight.acquireUninterruptibly(properties.getMaxInFlight());
+            }
+            if (writeFailure != null) {
+                log.debug("Operation stream closed by client after {} operations: {}", seq, writeFailure.getMessage());
+            }
+            return seq;
+        }
+        
+        private void submit(long seq, byte[] line) {
+            if (line.length > MAX_LINE_LENGTH) {
+                complete(WalletStreamResult.of(seq, null, Status.INVALID,
+                    "Line exceeds " + MAX_LINE_LENGTH + " bytes"));
+                return;
+            }
+            WalletOperationRequest request = parse(line);
+            if (request == null) {
+                complete(WalletStreamResult.of(seq, null, Status.INVALID, "Malformed operation"));
+                return;
+            }
+            Set<ConstraintViolation<WalletOperationRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                complete(WalletStreamResult.of(seq, request.getWalletId(), Status.INVALID,
+                    violations.iterator().next().getMessage()));
+                return;
+            }
+            
+            UUID walletId = request.getWalletId();
+            // Runs after the wallet's previous operation in this stream, whatever its outcome
+            CompletableFuture<Void> next = tails.getOrDefault(walletId, IDLE).handleAsync((ignored, ex) -> {
+                complete(apply(seq, request));
+                return null;
+            }, executor);
+            tails.put(walletId, next);
+            next.whenComplete((ignored, ex) -> {
+                tails.remove(walletId, next);
+                if (ex != null) {
+                    // Only when the pool no longer takes work, during shutdown
+                    complete(WalletStreamResult.of(seq, walletId, Status.REJECTED, "Service is shutting down"));
+                }
+            });
+        }
+        
+        private WalletOperationRequest parse(byte[] line) {
+            try {
+                return requestReader.readValue(line);
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+        
+        private WalletStreamResult apply(long seq, WalletOperationRequest request) {
+            UUID walletId = request.getWalletId();
+            try (AdmissionLimiter.Permit permit = admissionLimiter.acquire(walletId)) {
+                OperationResult result = operationDispatcher.dispatch(walletId,
+                    () -> walletService.tryProcessOperation(request));
+                if (!result.isSuccess()) {
+                    return new WalletStreamResult(seq, walletId, Status.INSUFFICIENT_FUNDS,
+                        result.getBalance(), null, null, null);
+                }
+                return new WalletStreamResult(seq, walletId, Status.OK, result.getResponse().getBalance(),
+                    result.getResponse().getAvailableBalance(), result.getResponse().getHoldId(), null);
+            } catch (DailyLimitExceededException ex) {
+                return WalletStreamResult.of(seq, walletId, Status.LIMIT_EXCEEDED, ex.getMessage());
+            } catch (InvalidRequestException ex) {
+                return WalletStreamResult.of(seq, walletId, Status.INVALID, ex.getMessage());
+            } catch (WalletNotFoundException | HoldNotFoundException ex) {
+                return WalletStreamResult.of(seq, walletId, Status.NOT_FOUND, ex.getMessage());
+            } catch (TooManyRequestsException | PessimisticLockingFailureException | QueryTimeoutException
+                     | TransactionTimedOutException ex) {
+                return WalletStreamResult.of(seq, walletId, Status.REJECTED, ex.getMessage());
+            } catch (RuntimeException ex) {
+                // One failed operation must not abort the rest of the stream
+                log.error("Streamed operation failed for wallet {}", walletId, ex);
+                return WalletStreamResult.of(seq, walletId, Status.ERROR, "Operation failed");
+            }
+        }
+        
+        private void complete(WalletStreamResult result) {
+            operations.get(result.getStatus()).increment();
+            results.add(result);
+            drain();
+        }
+        
+        /**
+         * Whichever thread finds the writer free writes every queued result and flushes once,
+         * so flushes are batched under load and a slow client holds up one thread at most.
+         */
+        private void drain() {
+            while (!results.isEmpty() && draining.compareAndSet(false, true)) {
+                int taken = 0;
+                try {
+                    WalletStreamResult result;
+                    while ((result = results.poll()) != null) {
+                        taken++;
+                        if (writeFailure == null) {
+                            out.write(resultWriter.writeValueAsBytes(result));
+                            out.write('\n');
+                        }
+                    }
+                    if (writeFailure == null) {
+                        out.flush();
+                    }
+                } catch (IOException ex) {
+                    writeFailure = ex;
+                } finally {
+                    draining.set(false);
+                    inFlight.release(taken);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads up to the next newline into {@code line}, keeping at most one byte past
+     * MAX_LINE_LENGTH. Returns false at the end of the stream.
+     */
+    private static boolean readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int b = in.read();
+        if (b < 0) {
+            return false;
+        }
+        while (b >= 0 && b != '\n') {
+            if (line.size() <= MAX_LINE_LENGTH) {
+                line.write(b);
+            }
+            b = in.read();
+        }
+        return true;
+    }
+    
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
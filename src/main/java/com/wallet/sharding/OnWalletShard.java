@@ -0,0 +1,18 @@
+package com.wallet.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the annotated method to the shard owning the wallet given as its first argument
+ * (a wallet id or a request carrying one). Writes are refused while the wallet's bucket
+ * is being migrated.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OnWalletShard {
+    
+    boolean write() default true;
+}
@@ -0,0 +1,41 @@
+package com.wallet.sharding;
+
+import java.util.UUID;
+
+/**
+ * Maps wallets to a fixed set of virtual buckets and buckets to shards.
+ *
+ * <p>A wallet's bucket is the low bits of its UUID, so it never changes and is stored
+ * with the row ({@code wallets.shard_bucket}); moving data between shards moves whole
+ * buckets. The bucket count is part of the stored data and must not change.
+ */
+public final class ShardBuckets {
+    
+    public static final int BUCKETS = 1024;
+    
+    private ShardBuckets() {
+    }
+    
+    public static int bucketOf(UUID walletId) {
+        return (int) (walletId.getLeastSignificantBits() & (BUCKETS - 1));
+    }
+    
+    /**
+     * Jump consistent hash (Lamping and Veach). Growing from n to n+1 shards moves only
+     * the buckets that land on the new shard; shrinking moves only the removed shard's buckets.
+     */
+    public static int jumpHash(long key, int shards) {
+        long b = -1;
+        long j = 0;
+        while (j < shards) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+    
+    public static int defaultShard(int bucket, int shards) {
+        return jumpHash(bucket, shards);
+    }
+}
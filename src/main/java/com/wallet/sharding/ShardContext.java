@@ -0,0 +1,49 @@
+package com.wallet.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's data access is routed to. Must be set before a
+ * transaction starts, because the transaction binds its connection up front.
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static Integer current() {
+        return CURRENT.get();
+    }
+    
+    static void set(int shard) {
+        CURRENT.set(shard);
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+    
+    public static <T> T call(int shard, Supplier<T> task) {
+        Integer previous = CURRENT.get();
+        if (previous != null && previous != shard) {
+            throw new IllegalStateException("Already bound to shard " + previous + ", cannot switch to shard " + shard);
+        }
+        CURRENT.set(shard);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+        }
+    }
+    
+    public static void run(int shard, Runnable task) {
+        call(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
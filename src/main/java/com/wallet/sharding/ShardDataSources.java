@@ -0,0 +1,35 @@
+package com.wallet.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * One connection pool per shard, indexed by shard number.
+ */
+public class ShardDataSources implements AutoCloseable {
+    
+    private final List<HikariDataSource> dataSources;
+    
+    public ShardDataSources(List<HikariDataSource> dataSources) {
+        this.dataSources = List.copyOf(dataSources);
+    }
+    
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+    
+    public List<? extends DataSource> getAll() {
+        return dataSources;
+    }
+    
+    public int size() {
+        return dataSources.size();
+    }
+    
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,221 @@
+package com.wallet.sharding;
+
+import com.wallet.config.WalletProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves buckets between shards while the service keeps running.
+ *
+ * <p>Per bucket: mark it MIGRATING (writes to its wallets get 429, reads still go to the
+ * source), wait the grace period so every node has seen the flag and in-flight writes have
+ * committed, copy its rows to the target in one transaction, switch the owner, wait again
+ * so stale readers are gone, then delete the source rows. Buckets move one at a time, so
+ * only a small slice of wallets is read-only at any moment.
+ */
+@Slf4j
+public class ShardMigrationService {
+    
+    // Parent table first; child tables are selected through the parent's bucket
+    private static final List<String> WALLET_TABLES = List.of("wallets", "wallets_archive", "wallet_ledger", "wallet_holds",
+        "wallet_daily_turnover");
+    
+    private final ShardRouter shardRouter;
+    private final WalletProperties.Sharding properties;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebalancing = new AtomicBoolean();
+    private final AtomicInteger remaining = new AtomicInteger();
+    
+    public ShardMigrationService(ShardRouter shardRouter, WalletProperties walletProperties) {
+        this.shardRouter = shardRouter;
+        this.properties = walletProperties.getSharding();
+    }
+    
+    /**
+     * Buckets whose owner differs from the jump-hash placement over {@code shardCount} shards.
+     */
+    public Map<Integer, Integer> plan(int shardCount) {
+        if (shardCount < 1 || shardCount > shardRouter.getShardCount()) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + shardRouter.getShardCount());
+        }
+        Map<Integer, Integer> moves = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < ShardBuckets.BUCKETS; bucket++) {
+            int target = ShardBuckets.defaultShard(bucket, shardCount);
+            if (shardRouter.ownerOf(bucket) != target) {
+                moves.put(bucket, target);
+            }
+        }
+        return moves;
+    }
+    
+    /**
+     * Starts moving buckets to their placement over {@code shardCount} shards in the
+     * background; completes with the number of buckets moved.
+     */
+    public CompletableFuture<Integer> rebalance(int shardCount) {
+        Map<Integer, Integer> moves = plan(shardCount);
+        if (!rebalancing.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rebalance is already running");
+        }
+        remaining.set(moves.size());
+        log.info("Rebalancing to {} shards: {} buckets to move", shardCount, moves.size());
+        
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                moves.forEach((bucket, target) -> {
+                    migrateBucket(bucket, target);
+                    remaining.decrementAndGet();
+                });
+                log.info("Rebalance to {} shards completed", shardCount);
+                return moves.size();
+            } finally {
+                rebalancing.set(false);
+            }
+        }, executor);
+    }
+    
+    public boolean isRebalancing() {
+        return rebalancing.get();
+    }
+    
+    public int getRemainingBuckets() {
+        return remaining.get();
+    }
+    
+    /**
+     * Moves one bucket and returns the number of wallets copied.
+     */
+    public int migrateBucket(int bucket, int target) {
+        int source = shardRouter.ownerOf(bucket);
+        if (source == target) {
+            return 0;
+        }
+        JdbcTemplate sourceJdbc = new JdbcTemplate(shardRouter.dataSource(source));
+        JdbcTemplate targetJdbc = new JdbcTemplate(shardRouter.dataSource(target));
+        
+        shardRouter.updateBucket(bucket, source, ShardRouter.MIGRATING);
+        int copied;
+        try {
+            pause();
+            copied = new TransactionTemplate(new DataSourceTransactionManager(shardRouter.dataSource(target)))
+                .execute(status -> copyBucket(sourceJdbc, targetJdbc, bucket));
+        } catch (RuntimeException ex) {
+            shardRouter.updateBucket(bucket, source, ShardRouter.ACTIVE);
+            log.error("Moving bucket {} from shard {} to {} failed, bucket stays on shard {}",
+                bucket, source, target, source, ex);
+            throw ex;
+        }
+        
+        shardRouter.updateBucket(bucket, target, ShardRouter.ACTIVE);
+        pause();
+        deleteBucket(sourceJdbc, bucket);
+        log.debug("Moved bucket {} ({} wallets) from shard {} to {}", bucket, copied, source, target);
+        return copied;
+    }
+    
+    private int copyBucket(JdbcTemplate source, JdbcTemplate target, int bucket) {
+        // Leftovers from an earlier failed attempt
+        deleteBucket(target, bucket);
+        int wallets = 0;
+        for (String table : WALLET_TABLES) {
+            int copied = copyRows(source, target, table, bucket);
+            if ("wallets".equals(table)) {
+                wallets = copied;
+            }
+        }
+        return wallets;
+    }
+    
+    private int copyRows(JdbcTemplate source, JdbcTemplate target, String table, int bucket) {
+        AtomicInteger copied = new AtomicInteger();
+        List<Object[]> batch = new ArrayList<>(properties.getCopyBatchSize());
+        String[] insert = new String[1];
+        
+        source.query("SELECT * FROM " + table + " WHERE " + bucketFilter(table), rs -> {
+            int columns = rs.getMetaData().getColumnCount();
+            if (insert[0] == null) {
+                List<String> names = new ArrayList<>(columns);
+                for (int i = 1; i <= columns; i++) {
+                    names.add(rs.getMetaData().getColumnName(i));
+                }
+                insert[0] = "INSERT INTO " + table + " (" + String.join(", ", names) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+            }
+            Object[] row = new Object[columns];
+            for (int i = 1; i <= columns; i++) {
+                row[i - 1] = rs.getObject(i);
+            }
+            batch.add(row);
+            if (batch.size() >= properties.getCopyBatchSize()) {
+                target.batchUpdate(insert[0], batch);
+                copied.addAndGet(batch.size());
+                batch.clear();
+            }
+        }, bucketParams(table, bucket));
+        
+        if (!batch.isEmpty()) {
+            target.batchUpdate(insert[0], batch);
+            copied.addAndGet(batch.size());
+        }
+        return copied.get();
+    }
+    
+    private void deleteBucket(JdbcTemplate jdbc, int bucket) {
+        for (int i = WALLET_TABLES.size() - 1; i >= 0; i--) {
+            String table = WALLET_TABLES.get(i);
+            jdbc.update("DELETE FROM " + table + " WHERE " + bucketFilter(table), bucketParams(table, bucket));
+        }
+    }
+    
+    private static String bucketFilter(String table) {
+        return hasBucketColumn(table)
+            ? "shard_bucket = ?"
+            : "wallet_id IN (SELECT wallet_id FROM wallets WHERE shard_bucket = ? "
+                + "UNION ALL SELECT wallet_id FROM wallets_archive WHERE shard_bucket = ?)";
+    }
+    
+    private static Object[] bucketParams(String table, int bucket) {
+        return hasBucketColumn(table) ? new Object[] {bucket} : new Object[] {bucket, bucket};
+    }
+    
+    private static boolean hasBucketColumn(String table) {
+        return "wallets".equals(table) || "wallets_archive".equals(table);
+    }
+    
+    private void pause() {
+        Duration grace = properties.getMigrationGrace();
+        if (grace.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(grace.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during shard migration", ex);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,142 @@
+package com.wallet.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Routes buckets to shards through the bucket directory.
+ *
+ * <p>The directory ({@code wallet_shard_buckets} on shard 0) records which shard owns each
+ * bucket and whether the bucket is being migrated. Every node keeps an immutable snapshot
+ * and re-reads it every {@code wallet.sharding.refresh-interval}, so a change made on one
+ * node reaches the others within that interval.
+ */
+@Slf4j
+public class ShardRouter {
+    
+    public static final String ACTIVE = "ACTIVE";
+    public static final String MIGRATING = "MIGRATING";
+    
+    private final ShardDataSources dataSources;
+    private final JdbcTemplate directory;
+    private volatile Snapshot snapshot;
+    
+    public ShardRouter(ShardDataSources dataSources) {
+        this.dataSources = dataSources;
+        this.directory = new JdbcTemplate(dataSources.get(0));
+    }
+    
+    /**
+     * Seeds the directory on first start, spreading buckets over all configured shards.
+     */
+    public void initialize() {
+        Integer rows = directory.queryForObject("SELECT COUNT(*) FROM wallet_shard_buckets", Integer.class);
+        if (rows == null || rows == 0) {
+            List<Object[]> seed = new ArrayList<>(ShardBuckets.BUCKETS);
+            for (int bucket = 0; bucket < ShardBuckets.BUCKETS; bucket++) {
+                seed.add(new Object[]{bucket, ShardBuckets.defaultShard(bucket, dataSources.size()), ACTIVE});
+            }
+            try {
+                directory.batchUpdate("INSERT INTO wallet_shard_buckets (bucket, shard, state) VALUES (?, ?, ?)", seed);
+                log.info("Seeded shard directory with {} buckets over {} shards", ShardBuckets.BUCKETS, dataSources.size());
+            } catch (DuplicateKeyException ex) {
+                // Another node seeded it first
+            }
+        }
+        refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${wallet.sharding.refresh-interval:1000}")
+    public void refresh() {
+        int[] owners = new int[ShardBuckets.BUCKETS];
+        boolean[] migrating = new boolean[ShardBuckets.BUCKETS];
+        directory.query("SELECT bucket, shard, state FROM wallet_shard_buckets", rs -> {
+            int bucket = rs.getInt(1);
+            int shard = rs.getInt(2);
+            if (shard >= dataSources.size()) {
+                throw new IllegalStateException("Bucket " + bucket + " is owned by unconfigured shard " + shard);
+            }
+            owners[bucket] = shard;
+            migrating[bucket] = MIGRATING.equals(rs.getString(3));
+        });
+        snapshot = new Snapshot(owners, migrating);
+    }
+    
+    public int shardFor(UUID walletId) {
+        return snapshot.owners[ShardBuckets.bucketOf(walletId)];
+    }
+    
+    public int ownerOf(int bucket) {
+        return snapshot.owners[bucket];
+    }
+    
+    public boolean isMigrating(int bucket) {
+        return snapshot.migrating[bucket];
+    }
+    
+    public int getShardCount() {
+        return dataSources.size();
+    }
+    
+    public DataSource dataSource(int shard) {
+        return dataSources.get(shard);
+    }
+    
+    /**
+     * Changes a bucket's directory entry; applied locally at once, on other nodes at their next refresh.
+     */
+    public void updateBucket(int bucket, int shard, String state) {
+        directory.update("UPDATE wallet_shard_buckets SET shard = ?, state = ?, updated_at = CURRENT_TIMESTAMP WHERE bucket = ?",
+            shard, state, bucket);
+        refresh();
+    }
+    
+    public Map<Integer, Integer> bucketsPerShard() {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            counts.put(shard, 0);
+        }
+        for (int owner : snapshot.owners) {
+            counts.merge(owner, 1, Integer::sum);
+        }
+        return counts;
+    }
+    
+    public List<Integer> migratingBuckets() {
+        boolean[] migrating = snapshot.migrating;
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < migrating.length; bucket++) {
+            if (migrating[bucket]) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+    
+    /**
+     * Buckets whose rows on {@code shard} must not be changed: those being migrated, and
+     * those owned by another shard, whose rows here are copies left behind by a move.
+     */
+    public List<Integer> bucketsNotWritableOn(int shard) {
+        Snapshot current = snapshot;
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < current.owners.length; bucket++) {
+            if (current.migrating[bucket] || current.owners[bucket] != shard) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+    
+    private record Snapshot(int[] owners, boolean[] migrating) {
+    }
+}
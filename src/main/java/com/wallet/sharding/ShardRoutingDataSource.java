@@ -0,0 +1,15 @@
+package com.wallet.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the shard bound in {@link ShardContext}; unbound access
+ * (startup validation, the shard directory) goes to shard 0.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,29 @@
+package com.wallet.sharding;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Applies the changelog to every shard. Being a {@link SpringLiquibase}, it replaces the
+ * auto-configured one and JPA still waits for it.
+ */
+public class ShardedSpringLiquibase extends SpringLiquibase {
+    
+    private final List<? extends DataSource> shards;
+    
+    public ShardedSpringLiquibase(List<? extends DataSource> shards) {
+        this.shards = shards;
+    }
+    
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        for (DataSource shard : shards) {
+            setDataSource(shard);
+            super.afterPropertiesSet();
+        }
+        setDataSource(shards.get(0));
+    }
+}
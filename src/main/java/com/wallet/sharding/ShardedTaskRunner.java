@@ -0,0 +1,65 @@
+package com.wallet.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs work that is not already routed by {@link OnWalletShard}: background jobs on every
+ * shard, or a caller-managed transaction on one wallet's shard. Without sharding both
+ * simply run the task.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardedTaskRunner {
+    
+    private final ObjectProvider<ShardRouter> shardRouter;
+    
+    public void runOnEachShard(Runnable task) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            task.run();
+            return;
+        }
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            ShardContext.run(shard, task);
+        }
+    }
+    
+    /**
+     * Buckets a background job must leave alone on the shard it is running on, because they
+     * are being migrated or are owned elsewhere. Always empty without sharding.
+     */
+    public List<Integer> bucketsToSkip() {
+        ShardRouter router = shardRouter.getIfAvailable();
+        Integer shard = ShardContext.current();
+        if (router == null || shard == null) {
+            return List.of();
+        }
+        return router.bucketsNotWritableOn(shard);
+    }
+    
+    public int getShardCount() {
+        ShardRouter router = shardRouter.getIfAvailable();
+        return router == null ? 1 : router.getShardCount();
+    }
+    
+    public <T> T callOnShard(int shard, Supplier<T> task) {
+        if (shardRouter.getIfAvailable() == null) {
+            return task.get();
+        }
+        return ShardContext.call(shard, task);
+    }
+    
+    public <T> T callForWallet(UUID walletId, Supplier<T> task) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            return task.get();
+        }
+        return ShardContext.call(router.shardFor(walletId), task);
+    }
+}
@@ -0,0 +1,72 @@
+package com.wallet.sharding;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.exception.TooManyRequestsException;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Binds {@link OnWalletShard} methods to the owning shard. Ordered ahead of the
+ * transaction advice so the transaction opens its connection on the right shard.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class WalletShardRoutingAspect {
+    
+    private final ShardRouter shardRouter;
+    private final WalletProperties walletProperties;
+    
+    @Around("@annotation(com.wallet.sharding.OnWalletShard)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        OnWalletShard onWalletShard = ((MethodSignature) joinPoint.getSignature()).getMethod()
+            .getAnnotation(OnWalletShard.class);
+        UUID walletId = walletId(joinPoint.getArgs());
+        int bucket = ShardBuckets.bucketOf(walletId);
+        if (onWalletShard.write() && shardRouter.isMigrating(bucket)) {
+            throw new TooManyRequestsException("Wallet is being moved to another shard. Please retry the operation.",
+                walletProperties.getSharding().getRetryAfter());
+        }
+        
+        int shard = shardRouter.ownerOf(bucket);
+        Integer bound = ShardContext.current();
+        if (bound != null) {
+            if (bound != shard) {
+                throw new IllegalStateException("Wallet " + walletId + " belongs to shard " + shard
+                    + " but the caller is bound to shard " + bound);
+            }
+            return joinPoint.proceed();
+        }
+        
+        ShardContext.set(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+    
+    private static UUID walletId(Object[] args) {
+        if (args.length > 0) {
+            if (args[0] instanceof UUID walletId) {
+                return walletId;
+            }
+            if (args[0] instanceof WalletOperationRequest request) {
+                return request.getWalletId();
+            }
+        }
+        throw new IllegalStateException("@OnWalletShard method must take a wallet id or WalletOperationRequest first");
+    }
+}
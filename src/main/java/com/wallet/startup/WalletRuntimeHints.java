@@ -0,0 +1,57 @@
+package com.wallet.startup;
+
+import com.wallet.concurrency.HotWalletTracker;
+import com.wallet.dto.ErrorResponse;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.dto.WalletStreamResult;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.model.ArchivedWallet;
+import com.wallet.model.DailyTurnover;
+import com.wallet.model.LedgerEntry;
+import com.wallet.model.LedgerEntryType;
+import com.wallet.model.OperationType;
+import com.wallet.model.OutboxEvent;
+import com.wallet.model.Wallet;
+import com.wallet.model.WalletHold;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection and resource hints for the native image. Spring AOT covers controller
+ * signatures and JPA repositories; the types listed here are also reached reflectively
+ * through Jackson, Hibernate or Lombok-generated accessors, from places AOT cannot see
+ * (exception handlers, SSE payloads, streamed results, actuator endpoints, the outbox sink).
+ */
+public class WalletRuntimeHints implements RuntimeHintsRegistrar {
+    
+    private static final Class<?>[] REFLECTIVE_TYPES = {
+        Wallet.class,
+        WalletHold.class,
+        ArchivedWallet.class,
+        DailyTurnover.class,
+        DailyTurnover.Key.class,
+        OutboxEvent.class,
+        LedgerEntry.class,
+        LedgerEntryType.class,
+        OperationType.class,
+        WalletOperationRequest.class,
+        WalletResponse.class,
+        WalletStreamResult.class,
+        WalletStreamResult.Status.class,
+        ErrorResponse.class,
+        ErrorResponse.ErrorResponseBuilder.class,
+        BalanceChangedEvent.class,
+        HotWalletTracker.HotWallet.class
+    };
+    
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : REFLECTIVE_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.values());
+        }
+        hints.resources().registerPattern("db/changelog/*.xml");
+        hints.resources().registerPattern("db/changelog/changes/*.xml");
+    }
+}
@@ -0,0 +1,70 @@
+package com.wallet.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import com.wallet.service.WalletService;
+import com.wallet.sharding.ShardedTaskRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Runs the hot paths before the instance reports ready, so the first real requests
+ * hit compiled code and initialized pools instead of the interpreter.
+ *
+ * <p>ApplicationRunners complete before Spring Boot moves readiness to
+ * ACCEPTING_TRAFFIC. Every iteration runs inside a transaction that is rolled back,
+ * so warm-up leaves no data behind.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "wallet.warmup", name = "enabled", havingValue = "true")
+public class WalletWarmup implements ApplicationRunner {
+    
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedTaskRunner shardedTaskRunner;
+    private final ObjectMapper objectMapper;
+    private final WalletProperties walletProperties;
+    
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int iterations = walletProperties.getWarmup().getIterations();
+        // A random wallet per instance keeps pods that start together off each other's row locks
+        UUID walletId = UUID.randomUUID();
+        long start = System.nanoTime();
+        
+        for (int i = 0; i < iterations; i++) {
+            WalletOperationRequest deposit = new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("10.00"));
+            WalletOperationRequest withdraw = new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("5.00"));
+            objectMapper.readValue(objectMapper.writeValueAsBytes(deposit), WalletOperationRequest.class);
+            
+            // The outer transaction must open on the wallet's shard
+            shardedTaskRunner.callForWallet(walletId, () -> transactionTemplate.execute(status -> {
+                walletService.tryProcessOperation(deposit);
+                walletService.tryProcessOperation(withdraw);
+                WalletResponse response = walletService.getWalletBalance(walletId);
+                try {
+                    objectMapper.writeValueAsBytes(response);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+                status.setRollbackOnly();
+                return null;
+            }));
+        }
+        
+        log.info("Warm-up completed: {} iterations in {} ms", iterations, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,119 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.wallet.dto.ErrorResponse;
+import com.wallet.dto.OperationResult;
+import com.wallet.exception.ErrorResponseRenderer;
+import com.wallet.exception.InsufficientFundsException;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a withdrawal, from the point of rejection to the response body.
+ *
+ * <p>Each variant rejects {@code depth} frames below the handler, roughly where the service sits
+ * under the servlet, MVC and transaction proxies. Run with
+ * {@code mvn -Pbenchmark clean test-compile exec:exec -Dbenchmark=ErrorPathBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+    
+    private static final String PATH = "/api/v1/wallet";
+    
+    @Param({"120"})
+    private int depth;
+    
+    private UUID walletId;
+    private BigDecimal balance;
+    private BigDecimal amount;
+    private ObjectMapper objectMapper;
+    private ErrorResponseRenderer renderer;
+    
+    @Setup
+    public void setUp() {
+        walletId = UUID.randomUUID();
+        balance = new BigDecimal("10.00");
+        amount = new BigDecimal("25.00");
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        renderer = new ErrorResponseRenderer();
+    }
+    
+    /**
+     * Previous path: exception with a stack trace and String.format message, ErrorResponse through databind.
+     */
+    @Benchmark
+    public byte[] legacyException() throws Exception {
+        try {
+            descendAndThrowLegacy(depth);
+            return null;
+        } catch (LegacyInsufficientFundsException ex) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(400)
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .path(PATH)
+                .build();
+            return objectMapper.writeValueAsBytes(errorResponse);
+        }
+    }
+    
+    @Benchmark
+    public byte[] stacklessException() {
+        try {
+            descendAndThrow(depth);
+            return null;
+        } catch (InsufficientFundsException ex) {
+            return renderer.insufficientFunds(ex.getWalletId(), ex.getBalance(), ex.getAmount(), PATH).getBody();
+        }
+    }
+    
+    @Benchmark
+    public byte[] resultValue() {
+        OperationResult result = descendAndReturn(depth);
+        return renderer.insufficientFunds(result.getWalletId(), result.getBalance(),
+            result.getRequestedAmount(), PATH).getBody();
+    }
+    
+    private void descendAndThrowLegacy(int remaining) {
+        if (remaining == 0) {
+            throw new LegacyInsufficientFundsException(walletId, balance, amount);
+        }
+        descendAndThrowLegacy(remaining - 1);
+    }
+    
+    private void descendAndThrow(int remaining) {
+        if (remaining == 0) {
+            throw new InsufficientFundsException(walletId, balance, amount);
+        }
+        descendAndThrow(remaining - 1);
+    }
+    
+    private OperationResult descendAndReturn(int remaining) {
+        if (remaining == 0) {
+            return OperationResult.insufficientFunds(walletId, balance, amount);
+        }
+        return descendAndReturn(remaining - 1);
+    }
+    
+    private static class LegacyInsufficientFundsException extends RuntimeException {
+        LegacyInsufficientFundsException(UUID walletId, BigDecimal balance, BigDecimal amount) {
+            super(String.format("Insufficient funds in wallet %s. Current balance: %s, Requested amount: %s",
+                walletId, balance, amount));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.wallet.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.logging.SamplingTurboFilter;
+import com.wallet.model.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request logging cost, old configuration against the prod profile.
+ *
+ * <p>Run with {@code mvn -Pbenchmark clean test-compile exec:exec -Dbenchmark=LoggingBenchmark};
+ * the gc profiler reports allocation per operation ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+    
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t --- %logger{39} : %m%n";
+    
+    private WalletOperationRequest request;
+    private BigDecimal balance;
+    
+    private LoggerContext legacyContext;
+    private LoggerContext prodContext;
+    private Logger legacyLog;
+    private Logger prodLog;
+    
+    @Setup
+    public void setUp() {
+        request = new WalletOperationRequest(UUID.randomUUID(), OperationType.WITHDRAW, new BigDecimal("25.00"));
+        balance = new BigDecimal("10.00");
+        
+        // Previous defaults: com.wallet at DEBUG, synchronous pattern appender
+        legacyContext = new LoggerContext();
+        PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+        patternEncoder.setPattern(PATTERN);
+        legacyLog = logger(legacyContext, Level.DEBUG, appender(legacyContext, patternEncoder));
+        
+        // prod profile: com.wallet at INFO, sampled, async JSON appender
+        prodContext = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(prodContext);
+        filter.start();
+        prodContext.addTurboFilter(filter);
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(prodContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(appender(prodContext, new JsonEncoder()));
+        async.start();
+        prodLog = logger(prodContext, Level.INFO, async);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        legacyContext.stop();
+        prodContext.stop();
+    }
+    
+    /**
+     * The log statements of one deposit in the controller and service before this change.
+     */
+    @Benchmark
+    public void legacyRequest() {
+        legacyLog.info("Received wallet operation request: {}", request);
+        legacyLog.debug("Processing {} operation for wallet: {}, amount: {}",
+            request.getOperationType(), request.getWalletId(), request.getAmount());
+        legacyLog.debug("Deposited {} to wallet {}. New balance: {}", request.getAmount(), request.getWalletId(), balance);
+        legacyLog.info("Operation {} completed successfully for wallet {}. Final balance: {}",
+            request.getOperationType(), request.getWalletId(), balance);
+    }
+    
+    @Benchmark
+    public void prodRequest() {
+        prodLog.debug("Received {} request for wallet {}", request.getOperationType(), request.getWalletId());
+        if (prodLog.isDebugEnabled()) {
+            prodLog.debug("Processing {} operation for wallet: {}, amount: {}",
+                request.getOperationType(), request.getWalletId(), request.getAmount());
+            prodLog.debug("Deposited {} to wallet {}. New balance: {}", request.getAmount(), request.getWalletId(), balance);
+            prodLog.debug("Operation {} completed successfully for wallet {}. Final balance: {}",
+                request.getOperationType(), request.getWalletId(), balance);
+        }
+    }
+    
+    @Benchmark
+    public void legacyRejection() {
+        legacyLog.warn("Insufficient funds for wallet {}. Balance: {}, Requested: {}",
+            request.getWalletId(), balance, request.getAmount());
+    }
+    
+    @Benchmark
+    public void prodRejection() {
+        if (prodLog.isWarnEnabled()) {
+            prodLog.warn("Insufficient funds for wallet {}. Balance: {}, Requested: {}",
+                request.getWalletId(), balance, request.getAmount());
+        }
+    }
+    
+    private static OutputStreamAppender<ILoggingEvent> appender(LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+    
+    private static Logger logger(LoggerContext context, Level level,
+                                 Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger("com.wallet.service.WalletService");
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
@@ -0,0 +1,81 @@
+package com.wallet.benchmark;
+
+import com.wallet.WalletServiceApplication;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One balance read in a read-only transaction against in-memory H2, so the database round
+ * trip is small and the per-read work in Hibernate shows.
+ *
+ * <ul>
+ *   <li>{@code entity}: the previous path, a managed Wallet loaded by id and copied into the response.</li>
+ *   <li>{@code projection}: the current path, the response mapped from a JDBC row.</li>
+ *   <li>{@code cached}: the entity served from the second-level cache.</li>
+ * </ul>
+ *
+ * <p>Run with {@code mvn -Pbenchmark clean test-compile exec:exec -Dbenchmark=WalletReadBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalletReadBenchmark {
+    
+    @Param({"entity", "projection", "cached"})
+    private String path;
+    
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private WalletRepository walletRepository;
+    private TransactionTemplate readOnly;
+    private UUID walletId;
+    
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(WalletServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test")
+            .properties("wallet.second-level-cache.enabled=" + path.equals("cached"),
+                "wallet.holds.expiry-enabled=false", "wallet.pool.adaptive=false",
+                "logging.level.com.wallet=WARN")
+            .run();
+        walletService = context.getBean(WalletService.class);
+        walletRepository = context.getBean(WalletRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        
+        walletId = UUID.randomUUID();
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("100.00")));
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public WalletResponse read() {
+        return readOnly.execute(status -> switch (path) {
+            case "projection" -> walletRepository.findBalanceById(walletId).orElseThrow().response();
+            default -> walletRepository.findById(walletId)
+                .map(wallet -> new WalletResponse(walletId, wallet.getBalance(), wallet.getAvailableBalance()))
+                .orElseThrow();
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.codec.WalletBinaryCodec;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request/response exchange as seen by both sides: the caller encodes the request and
+ * decodes the response, the service decodes the request and encodes the response.
+ *
+ * <p>Run with {@code mvn -Pbenchmark clean test-compile exec:exec -Dbenchmark=WireFormatBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private WalletOperationRequest request;
+    private WalletResponse response;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        request = new WalletOperationRequest(UUID.randomUUID(), OperationType.DEPOSIT, new BigDecimal("1250.75"));
+        response = new WalletResponse(request.getWalletId(), new BigDecimal("98231.40"));
+    }
+    
+    @Benchmark
+    public WalletResponse json() throws Exception {
+        byte[] requestBytes = objectMapper.writeValueAsBytes(request);
+        WalletOperationRequest received = objectMapper.readValue(requestBytes, WalletOperationRequest.class);
+        
+        byte[] responseBytes = objectMapper.writeValueAsBytes(
+            new WalletResponse(received.getWalletId(), response.getBalance()));
+        return objectMapper.readValue(responseBytes, WalletResponse.class);
+    }
+    
+    @Benchmark
+    public WalletResponse binary() {
+        ByteBuffer requestBuffer = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        WalletBinaryCodec.writeRequest(request, requestBuffer);
+        WalletOperationRequest received = WalletBinaryCodec.readRequest(requestBuffer.flip());
+        
+        ByteBuffer responseBuffer = ByteBuffer.allocate(WalletBinaryCodec.RESPONSE_SIZE);
+        WalletBinaryCodec.writeResponse(new WalletResponse(received.getWalletId(), response.getBalance()), responseBuffer);
+        return WalletBinaryCodec.readResponse(responseBuffer.flip());
+    }
+}
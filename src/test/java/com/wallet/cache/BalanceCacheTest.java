@@ -0,0 +1,117 @@
+package com.wallet.cache;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletResponse;
+import com.wallet.repository.VersionedBalance;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceCacheTest {
+    
+    private final UUID walletId = UUID.randomUUID();
+    private WalletProperties properties;
+    private BalanceCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        properties.getBalanceCache().setEnabled(true);
+        cache = new BalanceCache(properties, new SimpleMeterRegistry());
+        cache.markSynced(System.nanoTime());
+    }
+    
+    @Test
+    void put_ThenGet_ServesTheBalance() {
+        cache.put(walletId, balance("10.00", 1), cache.epoch());
+        
+        assertThat(cache.get(walletId).getBalance()).isEqualByComparingTo("10.00");
+    }
+    
+    @Test
+    void put_OlderVersion_DoesNotReplaceNewer() {
+        cache.put(walletId, balance("20.00", 2), cache.epoch());
+        cache.put(walletId, balance("10.00", 1), cache.epoch());
+        
+        assertThat(cache.get(walletId).getBalance()).isEqualByComparingTo("20.00");
+    }
+    
+    @Test
+    void invalidate_LeavesAFloorThatAReadFromBeforeTheChangeCannotPass() {
+        cache.put(walletId, balance("10.00", 1), cache.epoch());
+        
+        cache.invalidate(walletId, 2);
+        assertThat(cache.get(walletId)).isNull();
+        
+        // A read that started before version 2 committed arrives late
+        cache.put(walletId, balance("10.00", 1), cache.epoch());
+        assertThat(cache.get(walletId)).isNull();
+        
+        cache.put(walletId, balance("15.00", 2), cache.epoch());
+        assertThat(cache.get(walletId).getBalance()).isEqualByComparingTo("15.00");
+    }
+    
+    @Test
+    void invalidate_OutOfOrder_NeverRollsBack() {
+        cache.put(walletId, balance("30.00", 3), cache.epoch());
+        
+        cache.invalidate(walletId, 2);
+        cache.invalidate(walletId, 1);
+        
+        assertThat(cache.get(walletId).getBalance()).isEqualByComparingTo("30.00");
+    }
+    
+    @Test
+    void invalidate_UnknownWallet_StillBlocksOlderReads() {
+        cache.invalidate(walletId, 5);
+        
+        cache.put(walletId, balance("10.00", 4), cache.epoch());
+        
+        assertThat(cache.get(walletId)).isNull();
+    }
+    
+    @Test
+    void resync_ClearsAndRejectsReadsStartedBefore() {
+        long epoch = cache.epoch();
+        cache.put(walletId, balance("10.00", 1), epoch);
+        
+        cache.resync();
+        cache.put(walletId, balance("10.00", 1), epoch);
+        
+        assertThat(cache.get(walletId)).isNull();
+    }
+    
+    @Test
+    void get_BypassesTheCacheWhenThePollerFallsBehind() {
+        properties.getBalanceCache().setMaxStaleness(Duration.ofMillis(50));
+        BalanceCache stale = new BalanceCache(properties, new SimpleMeterRegistry());
+        stale.put(walletId, balance("10.00", 1), stale.epoch());
+        assertThat(stale.get(walletId)).isNull();
+        
+        stale.markSynced(System.nanoTime());
+        assertThat(stale.get(walletId)).isNotNull();
+        
+        stale.markSynced(System.nanoTime() - Duration.ofSeconds(1).toNanos());
+        assertThat(stale.get(walletId)).isNull();
+    }
+    
+    @Test
+    void disabled_NeverCaches() {
+        BalanceCache disabled = new BalanceCache(new WalletProperties(), new SimpleMeterRegistry());
+        disabled.markSynced(System.nanoTime());
+        
+        disabled.put(walletId, balance("10.00", 1), disabled.epoch());
+        
+        assertThat(disabled.get(walletId)).isNull();
+    }
+    
+    private VersionedBalance balance(String amount, long version) {
+        return new VersionedBalance(new WalletResponse(walletId, new BigDecimal(amount)), version);
+    }
+}
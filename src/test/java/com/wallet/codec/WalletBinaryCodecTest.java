@@ -0,0 +1,62 @@
+package com.wallet.codec;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalletBinaryCodecTest {
+    
+    @Test
+    void request_RoundTrips() {
+        WalletOperationRequest request = new WalletOperationRequest(
+            UUID.randomUUID(), OperationType.WITHDRAW, new BigDecimal("12345678901234567.89"));
+        ByteBuffer buffer = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        
+        WalletBinaryCodec.writeRequest(request, buffer);
+        
+        assertThat(buffer.remaining()).isZero();
+        assertThat(WalletBinaryCodec.readRequest(buffer.flip())).isEqualTo(request);
+    }
+    
+    @Test
+    void response_RoundTrips() {
+        WalletResponse response = new WalletResponse(UUID.randomUUID(), new BigDecimal("0.05"));
+        ByteBuffer buffer = ByteBuffer.allocate(WalletBinaryCodec.RESPONSE_SIZE);
+        
+        WalletBinaryCodec.writeResponse(response, buffer);
+        
+        assertThat(WalletBinaryCodec.readResponse(buffer.flip())).isEqualTo(response);
+    }
+    
+    @Test
+    void toMinorUnits_FractionalCents_Rejected() {
+        assertThatThrownBy(() -> WalletBinaryCodec.toMinorUnits(new BigDecimal("1.005")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void readRequest_UnknownOperationType_Rejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        buffer.putLong(1L).putLong(2L).put((byte) 7).putLong(100L);
+        
+        assertThatThrownBy(() -> WalletBinaryCodec.readRequest(buffer.flip()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void writeRequest_HoldOperation_Rejected() {
+        WalletOperationRequest request = new WalletOperationRequest(
+            UUID.randomUUID(), OperationType.HOLD, new BigDecimal("1.00"));
+        
+        assertThatThrownBy(() -> WalletBinaryCodec.writeRequest(request, ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AdmissionLimiterTest {
+    
+    private WalletProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        properties.getAdmission().setPerWalletLimit(2);
+        properties.getAdmission().setInitialLimit(3);
+        properties.getAdmission().setMinLimit(1);
+        properties.getAdmission().setMaxLimit(3);
+    }
+    
+    @Test
+    void acquire_PerWalletLimitReached_RejectsOnlyThatWallet() {
+        AdmissionLimiter limiter = new AdmissionLimiter(properties, new SimpleMeterRegistry());
+        UUID hotWallet = UUID.randomUUID();
+        
+        AdmissionLimiter.Permit first = limiter.acquire(hotWallet);
+        AdmissionLimiter.Permit second = limiter.acquire(hotWallet);
+        
+        assertThatThrownBy(() -> limiter.acquire(hotWallet))
+            .isInstanceOf(TooManyRequestsException.class)
+            .hasMessageContaining(hotWallet.toString());
+        
+        AdmissionLimiter.Permit other = limiter.acquire(UUID.randomUUID());
+        assertThat(other).isNotNull();
+        
+        first.close();
+        second.close();
+        other.close();
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getInFlight(hotWallet)).isZero();
+    }
+    
+    @Test
+    void acquire_GlobalLimitReached_Rejects() {
+        AdmissionLimiter limiter = new AdmissionLimiter(properties, new SimpleMeterRegistry());
+        
+        limiter.acquire(UUID.randomUUID());
+        limiter.acquire(UUID.randomUUID());
+        limiter.acquire(UUID.randomUUID());
+        
+        assertThatThrownBy(() -> limiter.acquire(UUID.randomUUID()))
+            .isInstanceOf(TooManyRequestsException.class)
+            .hasMessageContaining("capacity");
+        assertThat(limiter.getInFlight()).isEqualTo(3);
+    }
+    
+    @Test
+    void permit_ClosedTwice_ReleasesOnce() {
+        AdmissionLimiter limiter = new AdmissionLimiter(properties, new SimpleMeterRegistry());
+        UUID walletId = UUID.randomUUID();
+        
+        AdmissionLimiter.Permit permit = limiter.acquire(walletId);
+        limiter.acquire(walletId);
+        permit.close();
+        permit.close();
+        
+        assertThat(limiter.getInFlight(walletId)).isEqualTo(1);
+    }
+    
+    @Test
+    void acquire_Disabled_ReturnsNoPermit() {
+        properties.getAdmission().setEnabled(false);
+        AdmissionLimiter limiter = new AdmissionLimiter(properties, new SimpleMeterRegistry());
+        
+        assertThat(limiter.acquire(UUID.randomUUID())).isNull();
+    }
+    
+    @Test
+    void gradientLimit_ShrinksWhenLatencyRises() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(100, 10, 200, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(1_000_000, 100);
+        }
+        int steadyLimit = limit.getLimit();
+        
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(20_000_000, steadyLimit);
+        }
+        
+        assertThat(limit.getLimit()).isLessThan(steadyLimit);
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(10);
+    }
+    
+    @Test
+    void gradientLimit_LatencyRatioTracksRecentSlowdown() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(100, 10, 200, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(1_000_000, 1);
+        }
+        assertThat(limit.getLatencyRatio()).isCloseTo(1.0, within(0.01));
+        
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(10_000_000, 1);
+        }
+        
+        assertThat(limit.getLatencyRatio()).isGreaterThan(2.0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotWalletTrackerTest {
+    
+    private WalletProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        properties.getHotWallets().setCapacity(8);
+        properties.getHotWallets().setStripes(1);
+        properties.getHotWallets().setThreshold(10);
+        properties.getHotWallets().setWindow(Duration.ofSeconds(1));
+    }
+    
+    @Test
+    void record_BecomesHotOnceThresholdReachedWithinWindow() {
+        HotWalletTracker tracker = new HotWalletTracker(properties);
+        UUID walletId = UUID.randomUUID();
+        
+        for (int i = 0; i < 9; i++) {
+            assertThat(tracker.record(walletId)).isFalse();
+        }
+        
+        assertThat(tracker.record(walletId)).isTrue();
+        assertThat(tracker.isHot(walletId)).isTrue();
+        assertThat(tracker.isHot(UUID.randomUUID())).isFalse();
+    }
+    
+    @Test
+    void record_ManyColdWallets_DoNotEvictHotWalletOrBecomeHot() {
+        properties.getHotWallets().setCapacity(64);
+        HotWalletTracker tracker = new HotWalletTracker(properties);
+        UUID hotWallet = UUID.randomUUID();
+        
+        for (int i = 0; i < 20; i++) {
+            tracker.record(hotWallet);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertThat(tracker.record(UUID.randomUUID())).isFalse();
+        }
+        
+        assertThat(tracker.isHot(hotWallet)).isTrue();
+    }
+    
+    @Test
+    void topWallets_ReportsPreviousWindowOrderedByRate() throws InterruptedException {
+        properties.getHotWallets().setWindow(Duration.ofMillis(100));
+        HotWalletTracker tracker = new HotWalletTracker(properties);
+        UUID busiest = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+        
+        for (int i = 0; i < 30; i++) {
+            tracker.record(busiest);
+        }
+        for (int i = 0; i < 5; i++) {
+            tracker.record(busy);
+        }
+        Thread.sleep(120);
+        
+        List<HotWalletTracker.HotWallet> top = tracker.topWallets(1);
+        
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).walletId()).isEqualTo(busiest);
+        assertThat(top.get(0).estimatedCount()).isEqualTo(30);
+    }
+    
+    @Test
+    void record_Disabled_NeverHot() {
+        properties.getHotWallets().setEnabled(false);
+        HotWalletTracker tracker = new HotWalletTracker(properties);
+        UUID walletId = UUID.randomUUID();
+        
+        for (int i = 0; i < 100; i++) {
+            assertThat(tracker.record(walletId)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoolSizeControllerTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(40);
+    
+    private WalletProperties properties;
+    private HikariDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        properties.getPool().setAdaptive(true);
+        properties.getPool().setMinSize(4);
+        properties.getPool().setMaxSize(40);
+        // Never started, only its configuration is resized
+        dataSource = new HikariDataSource();
+        dataSource.setPoolName("test");
+        dataSource.setMaximumPoolSize(20);
+        dataSource.setMinimumIdle(5);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+    
+    @Test
+    void adjust_GrowsPoolWhileHoldTimesStaySteady() {
+        PoolSizeController controller = new PoolSizeController(List.of(dataSource), properties, meterRegistry);
+        
+        for (int i = 0; i < 50; i++) {
+            controller.record(0, FAST, 20);
+        }
+        controller.adjust();
+        
+        assertThat(dataSource.getMaximumPoolSize()).isGreaterThan(20).isEqualTo(controller.getLimit(0));
+        assertThat(meterRegistry.get("wallet.pool.limit").tag("pool", "test").gauge().value())
+            .isEqualTo(controller.getLimit(0));
+    }
+    
+    @Test
+    void adjust_ShrinksPoolAndMinimumIdleWhenTransactionsQueue() {
+        PoolSizeController controller = new PoolSizeController(List.of(dataSource), properties, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            controller.record(0, FAST, 20);
+        }
+        
+        for (int i = 0; i < 10; i++) {
+            controller.record(0, SLOW, 20);
+        }
+        controller.adjust();
+        
+        assertThat(dataSource.getMaximumPoolSize()).isLessThan(20).isGreaterThanOrEqualTo(4);
+        assertThat(dataSource.getMinimumIdle()).isLessThanOrEqualTo(dataSource.getMaximumPoolSize());
+    }
+    
+    @Test
+    void adjust_NotAdaptive_OnlyReportsMetrics() {
+        properties.getPool().setAdaptive(false);
+        PoolSizeController controller = new PoolSizeController(List.of(dataSource), properties, meterRegistry);
+        
+        for (int i = 0; i < 50; i++) {
+            controller.record(0, FAST, 20);
+        }
+        controller.adjust();
+        
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(meterRegistry.get("wallet.pool.hold-time").tag("pool", "test").timer().count()).isEqualTo(50);
+    }
+}
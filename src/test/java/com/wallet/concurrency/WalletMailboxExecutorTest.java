@@ -0,0 +1,118 @@
+package com.wallet.concurrency;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalletMailboxExecutorTest {
+    
+    private WalletProperties properties;
+    private WalletMailboxExecutor executor;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        properties.getSerialization().setStripes(4);
+        properties.getSerialization().setMailboxCapacity(1000);
+        executor = new WalletMailboxExecutor(properties, new SimpleMeterRegistry());
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+    
+    @Test
+    void submit_SameWallet_RunsSeriallyInOrder() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        
+        for (int i = 0; i < 200; i++) {
+            int sequence = i;
+            futures.add(executor.submit(walletId, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(sequence);
+                running.decrementAndGet();
+                return sequence;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(order).hasSize(200).isSorted();
+        assertThat(executor.getQueued()).isZero();
+        // The mailbox retires on the stripe thread just after the last future completes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getActiveMailboxes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(executor.getActiveMailboxes()).isZero();
+    }
+    
+    @Test
+    void submit_MailboxFull_Rejects() throws Exception {
+        properties.getSerialization().setMailboxCapacity(1);
+        UUID walletId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        CompletableFuture<Integer> blocker = executor.submit(walletId, () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        });
+        started.await(5, TimeUnit.SECONDS);
+        executor.submit(walletId, () -> 2);
+        
+        assertThatThrownBy(() -> executor.submit(walletId, () -> 3))
+            .isInstanceOf(TooManyRequestsException.class);
+        
+        release.countDown();
+        assertThat(blocker.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+    
+    @Test
+    void cancelIfNotStarted_QueuedOperation_NeverRuns() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        
+        CompletableFuture<Integer> blocker = executor.submit(walletId, () -> {
+            await(release);
+            return 1;
+        });
+        WalletMailboxExecutor.MailboxFuture<Integer> queued = executor.submit(walletId, runs::incrementAndGet);
+        
+        assertThat(queued.cancelIfNotStarted()).isTrue();
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        executor.submit(walletId, () -> 0).get(5, TimeUnit.SECONDS);
+        
+        assertThat(runs.get()).isZero();
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
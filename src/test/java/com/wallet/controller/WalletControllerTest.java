@@ -1,29 +1,64 @@
 package com.wallet.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.cache.BalanceCache;
+import com.wallet.codec.WalletBinaryCodec;
+import com.wallet.concurrency.AdmissionLimiter;
+import com.wallet.concurrency.HotWalletTracker;
+import com.wallet.concurrency.WalletMailboxExecutor;
+import com.wallet.config.WalletProperties;
+import com.wallet.config.WebConfig;
+import com.wallet.dto.DailyTurnoverResponse;
+import com.wallet.dto.OperationResult;
 import com.wallet.dto.WalletOperationRequest;
 import com.wallet.dto.WalletResponse;
+import com.wallet.dto.WalletTurnoverResponse;
+import com.wallet.exception.DailyLimitExceededException;
+import com.wallet.exception.ErrorResponseRenderer;
+import com.wallet.exception.HoldNotFoundException;
 import com.wallet.exception.InsufficientFundsException;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.exception.TooManyRequestsException;
 import com.wallet.exception.WalletNotFoundException;
 import com.wallet.model.OperationType;
+import com.wallet.service.WalletBatchProcessor;
+import com.wallet.service.WalletOperationDispatcher;
 import com.wallet.service.WalletService;
+import com.wallet.service.WalletStreamProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.TransactionTimedOutException;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(WalletController.class)
+@Import({WalletOperationDispatcher.class, WalletMailboxExecutor.class, HotWalletTracker.class, SimpleMeterRegistry.class,
+    ErrorResponseRenderer.class, WalletBatchProcessor.class, WalletStreamProcessor.class, WebConfig.class})
+@EnableConfigurationProperties(WalletProperties.class)
 class WalletControllerTest {
     
     @Autowired
@@ -35,6 +70,12 @@ class WalletControllerTest {
     @MockBean
     private WalletService walletService;
     
+    @MockBean
+    private AdmissionLimiter admissionLimiter;
+    
+    @MockBean
+    private BalanceCache balanceCache;
+    
     @Test
     void processWalletOperation_Deposit_Success() throws Exception {
         UUID walletId = UUID.randomUUID();
@@ -43,7 +84,7 @@ class WalletControllerTest {
         );
         WalletResponse response = new WalletResponse(walletId, new BigDecimal("100.00"));
         
-        when(walletService.processOperation(any())).thenReturn(response);
+        when(walletService.tryProcessOperation(any())).thenReturn(OperationResult.success(response));
         
         mockMvc.perform(post("/api/v1/wallet")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -61,7 +102,7 @@ class WalletControllerTest {
         );
         WalletResponse response = new WalletResponse(walletId, new BigDecimal("50.00"));
         
-        when(walletService.processOperation(any())).thenReturn(response);
+        when(walletService.tryProcessOperation(any())).thenReturn(OperationResult.success(response));
         
         mockMvc.perform(post("/api/v1/wallet")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -78,7 +119,29 @@ class WalletControllerTest {
             walletId, OperationType.WITHDRAW, new BigDecimal("200.00")
         );
         
-        when(walletService.processOperation(any()))
+        when(walletService.tryProcessOperation(any()))
+            .thenReturn(OperationResult.insufficientFunds(walletId, BigDecimal.ZERO, new BigDecimal("200.00")));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value(containsString("Insufficient funds in wallet " + walletId)))
+                .andExpect(jsonPath("$.path").value("/api/v1/wallet"))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+    
+    @Test
+    void processWalletOperation_InsufficientFundsThrown_ReturnsBadRequest() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.WITHDRAW, new BigDecimal("200.00")
+        );
+        
+        when(walletService.tryProcessOperation(any()))
             .thenThrow(new InsufficientFundsException(walletId, BigDecimal.ZERO, new BigDecimal("200.00")));
         
         mockMvc.perform(post("/api/v1/wallet")
@@ -89,6 +152,57 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.message").exists());
     }
     
+    @Test
+    void processWalletOperation_AdmissionRejected_ReturnsTooManyRequests() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.DEPOSIT, new BigDecimal("10.00")
+        );
+        
+        when(admissionLimiter.acquire(walletId))
+            .thenThrow(new TooManyRequestsException("Too many concurrent operations", Duration.ofSeconds(2)));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"));
+        
+        verify(walletService, never()).tryProcessOperation(any());
+    }
+    
+    @Test
+    void processWalletOperation_LockNotAcquired_ReturnsConflictWithRetryAfter() throws Exception {
+        WalletOperationRequest request = new WalletOperationRequest(
+            UUID.randomUUID(), OperationType.DEPOSIT, new BigDecimal("10.00")
+        );
+        
+        when(walletService.tryProcessOperation(any())).thenThrow(new CannotAcquireLockException("lock timeout"));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Conflict"));
+    }
+    
+    @Test
+    void processWalletOperation_TransactionBudgetExceeded_ReturnsServiceUnavailable() throws Exception {
+        WalletOperationRequest request = new WalletOperationRequest(
+            UUID.randomUUID(), OperationType.DEPOSIT, new BigDecimal("10.00")
+        );
+        
+        when(walletService.tryProcessOperation(any())).thenThrow(new TransactionTimedOutException("deadline reached"));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+    
     @Test
     void processWalletOperation_InvalidJSON_ReturnsBadRequest() throws Exception {
         mockMvc.perform(post("/api/v1/wallet")
@@ -137,6 +251,138 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.error").value("Validation Failed"));
     }
     
+    @Test
+    void processWalletOperation_Hold_ReturnsHoldIdAndAvailableBalance() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        UUID holdId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.HOLD, new BigDecimal("40.00")
+        );
+        WalletResponse response = new WalletResponse(walletId, new BigDecimal("100.00"), new BigDecimal("60.00"), holdId);
+        
+        when(walletService.tryProcessOperation(any())).thenReturn(OperationResult.success(response));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100.00))
+                .andExpect(jsonPath("$.availableBalance").value(60.00))
+                .andExpect(jsonPath("$.holdId").value(holdId.toString()));
+    }
+    
+    @Test
+    void processWalletOperation_CaptureWithoutHoldId_ReturnsBadRequest() throws Exception {
+        String requestJson = "{\"walletId\":\"" + UUID.randomUUID() + "\",\"operationType\":\"CAPTURE\"}";
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Failed"));
+        
+        verify(walletService, never()).tryProcessOperation(any());
+    }
+    
+    @Test
+    void processWalletOperation_HoldNotFound_ReturnsNotFound() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        UUID holdId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(walletId, OperationType.RELEASE, null, holdId);
+        
+        when(walletService.tryProcessOperation(any())).thenThrow(new HoldNotFoundException(walletId, holdId));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(containsString(holdId.toString())));
+    }
+    
+    @Test
+    void processWalletOperation_DailyLimitExceeded_ReturnsBadRequest() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("50.00"));
+        
+        when(walletService.tryProcessOperation(any())).thenThrow(new DailyLimitExceededException(
+            walletId, new BigDecimal("100.00"), new BigDecimal("60.00"), BigDecimal.ZERO, new BigDecimal("50.00")));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Daily withdrawal limit exceeded")));
+    }
+    
+    @Test
+    void processWalletOperation_InvalidRequest_ReturnsBadRequest() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        UUID holdId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(walletId, OperationType.HOLD, new BigDecimal("5.00"), holdId);
+        
+        when(walletService.tryProcessOperation(any())).thenThrow(
+            new InvalidRequestException("Hold already exists with ID: " + holdId));
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value("Hold already exists with ID: " + holdId));
+    }
+    
+    @Test
+    void setWalletLimits_NegativeLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(put("/api/v1/wallets/" + UUID.randomUUID() + "/limits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"dailyWithdrawLimit\": -1}"))
+                .andExpect(status().isBadRequest());
+        
+        verify(walletService, never()).setDailyWithdrawLimit(any(), any());
+    }
+    
+    @Test
+    void getWalletTurnover_DefaultsToTheLast30Days() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        WalletTurnoverResponse response = new WalletTurnoverResponse(walletId, today.minusDays(29), today, List.of(
+            new DailyTurnoverResponse(today, new BigDecimal("100.00"), new BigDecimal("30.00"), 2)));
+        
+        when(walletService.getDailyTurnover(walletId, today.minusDays(29), today)).thenReturn(response);
+        
+        mockMvc.perform(get("/api/v1/wallets/" + walletId + "/turnover"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value(today.minusDays(29).toString()))
+                .andExpect(jsonPath("$.days[0].date").value(today.toString()))
+                .andExpect(jsonPath("$.days[0].withdrawTotal").value(30.00));
+    }
+    
+    @Test
+    void getWalletTurnover_InvalidRange_ReturnsBadRequest() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        
+        when(walletService.getDailyTurnover(walletId, today, today.minusDays(1))).thenThrow(
+            new InvalidRequestException("Turnover range start " + today + " is after its end " + today.minusDays(1)));
+        
+        mockMvc.perform(get("/api/v1/wallets/" + walletId + "/turnover")
+                .param("from", today.toString())
+                .param("to", today.minusDays(1).toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(
+                    "Turnover range start " + today + " is after its end " + today.minusDays(1)));
+    }
+    
+    @Test
+    void getWalletTurnover_UnexpectedIllegalArgument_ReturnsInternalServerError() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        
+        when(walletService.getDailyTurnover(any(), any(), any())).thenThrow(new IllegalArgumentException("bug"));
+        
+        mockMvc.perform(get("/api/v1/wallets/" + walletId + "/turnover"))
+                .andExpect(status().isInternalServerError());
+    }
+    
     @Test
     void getWalletBalance_Success() throws Exception {
         UUID walletId = UUID.randomUUID();
@@ -150,6 +396,19 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.balance").value(100.00));
     }
     
+    @Test
+    void getWalletBalance_Cached_SkipsServiceAndAdmission() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        when(balanceCache.get(walletId)).thenReturn(new WalletResponse(walletId, new BigDecimal("42.00")));
+        
+        mockMvc.perform(get("/api/v1/wallets/" + walletId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(42.00));
+        
+        verify(walletService, never()).getWalletBalance(any());
+        verify(admissionLimiter, never()).acquire(any());
+    }
+    
     @Test
     void getWalletBalance_WalletNotFound_ReturnsNotFound() throws Exception {
         UUID walletId = UUID.randomUUID();
@@ -168,5 +427,170 @@ class WalletControllerTest {
         mockMvc.perform(get("/api/v1/wallets/invalid-uuid"))
                 .andExpect(status().isBadRequest());
     }
+    
+    @Test
+    void processWalletOperation_Binary_Success() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.DEPOSIT, new BigDecimal("100.00")
+        );
+        ByteBuffer body = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        WalletBinaryCodec.writeRequest(request, body);
+        
+        when(walletService.tryProcessOperation(request))
+            .thenReturn(OperationResult.success(new WalletResponse(walletId, new BigDecimal("100.00"))));
+        
+        byte[] result = mockMvc.perform(post("/api/v1/wallet")
+                .contentType(WalletBinaryCodec.MEDIA_TYPE)
+                .accept(WalletBinaryCodec.MEDIA_TYPE)
+                .content(body.array()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WalletBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        WalletResponse response = WalletBinaryCodec.readResponse(ByteBuffer.wrap(result));
+        assertThat(response.getWalletId()).isEqualTo(walletId);
+        assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("100.00"));
+    }
+    
+    @Test
+    void processWalletOperation_BinaryInsufficientFunds_ReturnsBinaryResult() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.WITHDRAW, new BigDecimal("200.00")
+        );
+        ByteBuffer body = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        WalletBinaryCodec.writeRequest(request, body);
+        
+        when(walletService.tryProcessOperation(request)).thenReturn(
+            OperationResult.insufficientFunds(walletId, new BigDecimal("50.00"), new BigDecimal("200.00")));
+        
+        byte[] result = mockMvc.perform(post("/api/v1/wallet")
+                .contentType(WalletBinaryCodec.MEDIA_TYPE)
+                .accept(WalletBinaryCodec.MEDIA_TYPE)
+                .content(body.array()))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(WalletBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        ByteBuffer results = ByteBuffer.wrap(result);
+        assertThat(result).hasSize(WalletBinaryCodec.BATCH_RESULT_SIZE);
+        assertThat(new UUID(results.getLong(0), results.getLong(8))).isEqualTo(walletId);
+        assertThat(results.get(16)).isEqualTo(WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS);
+        assertThat(results.getLong(17)).isEqualTo(5000L);
+    }
+    
+    @Test
+    void processWalletOperation_BinaryRejectedUnderLoad_ReturnsBinaryResult() throws Exception {
+        WalletOperationRequest request = new WalletOperationRequest(
+            UUID.randomUUID(), OperationType.DEPOSIT, new BigDecimal("10.00")
+        );
+        ByteBuffer body = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        WalletBinaryCodec.writeRequest(request, body);
+        
+        when(walletService.tryProcessOperation(any()))
+            .thenThrow(new TooManyRequestsException("Too many concurrent operations", Duration.ofSeconds(2)));
+        
+        byte[] result = mockMvc.perform(post("/api/v1/wallet")
+                .contentType(WalletBinaryCodec.MEDIA_TYPE)
+                .accept(WalletBinaryCodec.MEDIA_TYPE)
+                .content(body.array()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(content().contentType(WalletBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        assertThat(result).hasSize(WalletBinaryCodec.BATCH_RESULT_SIZE);
+        assertThat(result[16]).isEqualTo(WalletBinaryCodec.STATUS_REJECTED);
+    }
+    
+    @Test
+    void processWalletOperation_BinaryInvalidRequest_ReturnsBinaryResult() throws Exception {
+        WalletOperationRequest request = new WalletOperationRequest(
+            UUID.randomUUID(), OperationType.DEPOSIT, BigDecimal.ZERO
+        );
+        ByteBuffer body = ByteBuffer.allocate(WalletBinaryCodec.REQUEST_SIZE);
+        WalletBinaryCodec.writeRequest(request, body);
+        
+        byte[] result = mockMvc.perform(post("/api/v1/wallet")
+                .contentType(WalletBinaryCodec.MEDIA_TYPE)
+                .accept(WalletBinaryCodec.MEDIA_TYPE)
+                .content(body.array()))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(WalletBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        assertThat(result).hasSize(WalletBinaryCodec.BATCH_RESULT_SIZE);
+        assertThat(result[16]).isEqualTo(WalletBinaryCodec.STATUS_INVALID);
+        verify(walletService, never()).tryProcessOperation(any());
+    }
+    
+    @Test
+    void getWalletBalance_AcceptAny_ReturnsJson() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        when(walletService.getWalletBalance(walletId)).thenReturn(new WalletResponse(walletId, BigDecimal.TEN));
+        
+        mockMvc.perform(get("/api/v1/wallets/" + walletId).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+    
+    @Test
+    void processWalletOperationBatch_Binary_ReturnsResultPerRequestInOrder() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest deposit = new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("5.00"));
+        WalletOperationRequest withdraw = new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("9.00"));
+        WalletOperationRequest zero = new WalletOperationRequest(walletId, OperationType.DEPOSIT, BigDecimal.ZERO);
+        ByteBuffer body = ByteBuffer.allocate(3 * WalletBinaryCodec.REQUEST_SIZE);
+        WalletBinaryCodec.writeRequest(deposit, body);
+        WalletBinaryCodec.writeRequest(withdraw, body);
+        WalletBinaryCodec.writeRequest(zero, body);
+        
+        when(walletService.tryProcessOperation(deposit))
+            .thenReturn(OperationResult.success(new WalletResponse(walletId, new BigDecimal("5.00"))));
+        when(walletService.tryProcessOperation(withdraw))
+            .thenReturn(OperationResult.insufficientFunds(walletId, new BigDecimal("5.00"), new BigDecimal("9.00")));
+        
+        byte[] result = mockMvc.perform(post("/api/v1/wallet/batch")
+                .contentType(WalletBinaryCodec.MEDIA_TYPE)
+                .accept(WalletBinaryCodec.MEDIA_TYPE)
+                .content(body.array()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        assertThat(result).hasSize(3 * WalletBinaryCodec.BATCH_RESULT_SIZE);
+        ByteBuffer results = ByteBuffer.wrap(result);
+        assertThat(results.get(16)).isEqualTo(WalletBinaryCodec.STATUS_OK);
+        assertThat(results.getLong(17)).isEqualTo(500L);
+        assertThat(results.get(WalletBinaryCodec.BATCH_RESULT_SIZE + 16)).isEqualTo(WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS);
+        assertThat(results.getLong(WalletBinaryCodec.BATCH_RESULT_SIZE + 17)).isEqualTo(500L);
+        assertThat(results.get(2 * WalletBinaryCodec.BATCH_RESULT_SIZE + 16)).isEqualTo(WalletBinaryCodec.STATUS_INVALID);
+        verify(walletService, never()).tryProcessOperation(zero);
+    }
+    
+    @Test
+    void processWalletOperationStream_Ndjson_StreamsResultPerLine() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest deposit = new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("5.00"));
+        WalletOperationRequest withdraw = new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("9.00"));
+        String body = objectMapper.writeValueAsString(deposit) + "\n" + objectMapper.writeValueAsString(withdraw) + "\n";
+        
+        when(walletService.tryProcessOperation(deposit))
+            .thenReturn(OperationResult.success(new WalletResponse(walletId, new BigDecimal("5.00"))));
+        when(walletService.tryProcessOperation(withdraw))
+            .thenReturn(OperationResult.insufficientFunds(walletId, new BigDecimal("5.00"), new BigDecimal("9.00")));
+        
+        String result = mockMvc.perform(post("/api/v1/wallet/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        
+        // Same wallet, so the results come back in request order
+        String[] lines = result.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"seq\":0", "\"status\":\"OK\"");
+        assertThat(lines[1]).contains("\"seq\":1", "\"status\":\"INSUFFICIENT_FUNDS\"");
+    }
 }
-
@@ -0,0 +1,66 @@
+package com.wallet.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.codec.WalletBinaryCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorResponseRendererTest {
+    
+    private final ErrorResponseRenderer renderer =
+        new ErrorResponseRenderer(Clock.fixed(Instant.parse("2024-01-15T10:30:00.123Z"), ZoneOffset.UTC));
+    
+    @Test
+    void render_ProducesErrorResponseJson() throws Exception {
+        ResponseEntity<byte[]> response = renderer.render(ErrorResponseRenderer.NOT_FOUND,
+            "Wallet \"x\" not found\n", "/api/v1/wallets/x");
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        
+        JsonNode json = new ObjectMapper().readTree(response.getBody());
+        assertThat(json.get("timestamp").asText()).isEqualTo("2024-01-15T10:30:00.123");
+        assertThat(json.get("status").asInt()).isEqualTo(404);
+        assertThat(json.get("error").asText()).isEqualTo("Not Found");
+        assertThat(json.get("message").asText()).isEqualTo("Wallet \"x\" not found\n");
+        assertThat(json.get("path").asText()).isEqualTo("/api/v1/wallets/x");
+    }
+    
+    @Test
+    void prefersBinary_OnlyWhenBinaryRanksAheadOfJson() {
+        assertThat(renderer.prefersBinary(null)).isFalse();
+        assertThat(renderer.prefersBinary("*/*")).isFalse();
+        assertThat(renderer.prefersBinary("application/json, application/x-wallet-binary")).isFalse();
+        assertThat(renderer.prefersBinary("application/x-wallet-binary")).isTrue();
+        assertThat(renderer.prefersBinary("application/x-wallet-binary, */*;q=0.1")).isTrue();
+        assertThat(renderer.prefersBinary("application/json;q=0.5, application/x-wallet-binary")).isTrue();
+    }
+    
+    @Test
+    void binary_WritesABatchResultRecord() {
+        UUID walletId = UUID.randomUUID();
+        
+        ResponseEntity<byte[]> response = renderer.binary(HttpStatus.BAD_REQUEST, walletId,
+            WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS, new BigDecimal("12.34"), null);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(WalletBinaryCodec.MEDIA_TYPE);
+        ByteBuffer body = ByteBuffer.wrap(response.getBody());
+        assertThat(body.capacity()).isEqualTo(WalletBinaryCodec.BATCH_RESULT_SIZE);
+        assertThat(new UUID(body.getLong(0), body.getLong(8))).isEqualTo(walletId);
+        assertThat(body.get(16)).isEqualTo(WalletBinaryCodec.STATUS_INSUFFICIENT_FUNDS);
+        assertThat(body.getLong(17)).isEqualTo(1234L);
+    }
+}
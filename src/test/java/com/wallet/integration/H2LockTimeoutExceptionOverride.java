@@ -0,0 +1,19 @@
+package com.wallet.integration;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * H2 reports lock timeouts as SQLTimeoutException, which Hikari treats as a broken connection.
+ * Postgres reports them as 55P03 and keeps the connection, so mirror that here.
+ */
+public class H2LockTimeoutExceptionOverride implements SQLExceptionOverride {
+    
+    private static final int LOCK_TIMEOUT_ERROR_CODE = 50200;
+    
+    @java.lang.Override
+    public Override adjudicate(SQLException sqlException) {
+        return sqlException.getErrorCode() == LOCK_TIMEOUT_ERROR_CODE ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+    }
+}
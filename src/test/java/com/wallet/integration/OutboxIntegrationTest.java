@@ -0,0 +1,88 @@
+package com.wallet.integration;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.exception.InsufficientFundsException;
+import com.wallet.model.OperationType;
+import com.wallet.model.OutboxEvent;
+import com.wallet.outbox.InMemoryOutboxEventSink;
+import com.wallet.outbox.OutboxEventSink;
+import com.wallet.outbox.OutboxRelay;
+import com.wallet.repository.OutboxEventRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "wallet.outbox.enabled=true",
+    "wallet.outbox.sink=MEMORY",
+    "wallet.outbox.poll-interval=3600000"
+})
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private OutboxRelay outboxRelay;
+    
+    @Autowired
+    private OutboxEventSink sink;
+    
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        walletRepository.deleteAll();
+        ((InMemoryOutboxEventSink) sink).clear();
+    }
+    
+    @Test
+    void processOperation_WritesOutboxRow_RelayDeliversAndDeletes() {
+        UUID walletId = UUID.randomUUID();
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("100.00")));
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("40.00")));
+        
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+        
+        int relayed = outboxRelay.relayBatch();
+        
+        assertThat(relayed).isEqualTo(2);
+        List<OutboxEvent> events = ((InMemoryOutboxEventSink) sink).getEvents();
+        assertThat(events).extracting(OutboxEvent::getWalletId).containsOnly(walletId);
+        assertThat(events.get(0).getBalance()).isEqualByComparingTo("100.00");
+        assertThat(events.get(1).getBalance()).isEqualByComparingTo("60.00");
+        assertThat(events.get(1).getVersion()).isGreaterThan(events.get(0).getVersion());
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+    
+    @Test
+    void processOperation_RolledBack_WritesNoOutboxRow() {
+        UUID walletId = UUID.randomUUID();
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("10.00")));
+        outboxRelay.relayBatch();
+        
+        assertThatThrownBy(() -> walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("50.00"))))
+            .isInstanceOf(InsufficientFundsException.class);
+        
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(outboxRelay.relayBatch()).isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package com.wallet.integration;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.model.OperationType;
+import com.wallet.reconciliation.ReconciliationResult;
+import com.wallet.reconciliation.ReconciliationService;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "wallet.reconciliation.ranges=4",
+    "wallet.reconciliation.parallelism=2",
+    "wallet.reconciliation.chunk-size=3",
+    "wallet.reconciliation.fetch-size=2",
+    "wallet.reconciliation.report-dir=target/reconciliation-${random.uuid}"
+})
+@ActiveProfiles("test")
+class ReconciliationIntegrationTest {
+    
+    @Autowired
+    private ReconciliationService reconciliationService;
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<UUID> walletIds = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM wallet_reconciliation_checkpoints");
+        jdbcTemplate.update("DELETE FROM wallet_ledger");
+        jdbcTemplate.update("DELETE FROM wallets");
+        walletIds.clear();
+        for (int i = 0; i < 20; i++) {
+            UUID walletId = UUID.randomUUID();
+            walletIds.add(walletId);
+            operate(walletId, OperationType.DEPOSIT, "100.00");
+            operate(walletId, OperationType.WITHDRAW, "25.50");
+        }
+    }
+    
+    @Test
+    void reconcile_ConsistentLedger_ReportsNoDiscrepancies() throws Exception {
+        ReconciliationResult result = reconciliationService.reconcile("clean");
+        
+        assertThat(result.isClean()).isTrue();
+        assertThat(result.walletsChecked()).isEqualTo(20);
+        assertThat(Files.readAllLines(result.report())).hasSize(1);
+    }
+    
+    @Test
+    void reconcile_ReportsBalanceMismatchesAndOrphanEntries() throws Exception {
+        UUID tampered = walletIds.get(3);
+        UUID orphan = UUID.randomUUID();
+        UUID unledgered = UUID.randomUUID();
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1 WHERE wallet_id = ?", tampered);
+        jdbcTemplate.update("INSERT INTO wallet_ledger (id, wallet_id, entry_type, amount) VALUES (?, ?, 'DEPOSIT', 5)",
+            UUID.randomUUID(), orphan);
+        jdbcTemplate.update("INSERT INTO wallets (wallet_id, balance, version, shard_bucket) VALUES (?, 7, 0, 0)",
+            unledgered);
+        
+        ReconciliationResult result = reconciliationService.reconcile("tampered");
+        
+        assertThat(result.walletsChecked()).isEqualTo(21);
+        assertThat(result.discrepancies()).isEqualTo(3);
+        List<String> lines = Files.readAllLines(result.report());
+        assertThat(lines).hasSize(4);
+        assertThat(lines).anyMatch(line -> line.equals(tampered + ",0,75.50,74.50,1.00"));
+        assertThat(lines).anyMatch(line -> line.equals(orphan + ",0,,5.00,-5.00"));
+        assertThat(lines).anyMatch(line -> line.equals(unledgered + ",0,7.00,0,7.00"));
+    }
+    
+    @Test
+    void reconcile_SameRunId_SkipsCompletedRanges() {
+        reconciliationService.reconcile("resumed");
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1 WHERE wallet_id = ?", walletIds.get(0));
+        
+        ReconciliationResult rerun = reconciliationService.reconcile("resumed");
+        ReconciliationResult fresh = reconciliationService.reconcile("fresh");
+        
+        assertThat(rerun.walletsChecked()).isEqualTo(20);
+        assertThat(rerun.discrepancies()).isZero();
+        assertThat(fresh.discrepancies()).isEqualTo(1);
+    }
+    
+    private void operate(UUID walletId, OperationType type, String amount) {
+        walletService.processOperation(new WalletOperationRequest(walletId, type, new BigDecimal(amount)));
+    }
+}
@@ -0,0 +1,212 @@
+package com.wallet.integration;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.exception.TooManyRequestsException;
+import com.wallet.model.OperationType;
+import com.wallet.sharding.ShardBuckets;
+import com.wallet.sharding.ShardMigrationService;
+import com.wallet.sharding.ShardRouter;
+import com.wallet.service.HoldExpiryJob;
+import com.wallet.service.WalletArchiveJob;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "wallet.sharding.enabled=true",
+    "wallet.sharding.migration-grace=0s",
+    "wallet.holds.expiry-interval=3600000",
+    "wallet.archive.enabled=true",
+    "wallet.archive.interval=3600000",
+    "wallet.archive.idle-threshold=30d",
+    "wallet.sharding.shards[0].url=jdbc:h2:mem:shard0-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+    "wallet.sharding.shards[0].username=sa",
+    "wallet.sharding.shards[1].url=jdbc:h2:mem:shard1-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+    "wallet.sharding.shards[1].username=sa",
+    "wallet.sharding.shards[2].url=jdbc:h2:mem:shard2-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+    "wallet.sharding.shards[2].username=sa"
+})
+@ActiveProfiles("test")
+class ShardingIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ShardMigrationService migrationService;
+    
+    @Autowired
+    private HoldExpiryJob holdExpiryJob;
+    
+    @Autowired
+    private WalletArchiveJob walletArchiveJob;
+    
+    @Test
+    void deposits_AreStoredOnOwningShardOnly() {
+        List<UUID> walletIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            UUID walletId = UUID.randomUUID();
+            walletIds.add(walletId);
+            deposit(walletId, "10.00");
+        }
+        
+        int shardsUsed = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            boolean used = false;
+            for (UUID walletId : walletIds) {
+                boolean present = countWallet(shard, walletId) == 1;
+                assertThat(present).isEqualTo(shardRouter.shardFor(walletId) == shard);
+                used |= present;
+            }
+            shardsUsed += used ? 1 : 0;
+        }
+        assertThat(shardsUsed).isGreaterThan(1);
+        walletIds.forEach(id -> assertThat(walletService.getWalletBalance(id).getBalance()).isEqualByComparingTo("10.00"));
+    }
+    
+    @Test
+    void migrateBucket_MovesRowsAndWalletKeepsWorking() {
+        UUID walletId = UUID.randomUUID();
+        deposit(walletId, "50.00");
+        int bucket = ShardBuckets.bucketOf(walletId);
+        int source = shardRouter.ownerOf(bucket);
+        int target = (source + 1) % shardRouter.getShardCount();
+        
+        assertThat(migrationService.migrateBucket(bucket, target)).isGreaterThanOrEqualTo(1);
+        
+        assertThat(shardRouter.ownerOf(bucket)).isEqualTo(target);
+        assertThat(countWallet(source, walletId)).isZero();
+        assertThat(countWallet(target, walletId)).isEqualTo(1);
+        deposit(walletId, "5.00");
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("55.00");
+        
+        migrationService.migrateBucket(bucket, source);
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("55.00");
+    }
+    
+    @Test
+    void migratingBucket_RejectsWritesButServesReads() {
+        UUID walletId = UUID.randomUUID();
+        deposit(walletId, "20.00");
+        int bucket = ShardBuckets.bucketOf(walletId);
+        int owner = shardRouter.ownerOf(bucket);
+        
+        shardRouter.updateBucket(bucket, owner, ShardRouter.MIGRATING);
+        try {
+            assertThatThrownBy(() -> deposit(walletId, "1.00")).isInstanceOf(TooManyRequestsException.class);
+            assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("20.00");
+        } finally {
+            shardRouter.updateBucket(bucket, owner, ShardRouter.ACTIVE);
+        }
+        deposit(walletId, "1.00");
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("21.00");
+    }
+    
+    @Test
+    void migratingBucket_HoldExpiryWaitsUntilActive() {
+        UUID walletId = UUID.randomUUID();
+        deposit(walletId, "50.00");
+        UUID holdId = walletService.processOperation(new WalletOperationRequest(
+            walletId, OperationType.HOLD, new BigDecimal("20.00"))).getHoldId();
+        int bucket = ShardBuckets.bucketOf(walletId);
+        int owner = shardRouter.ownerOf(bucket);
+        JdbcTemplate shard = new JdbcTemplate(shardRouter.dataSource(owner));
+        shard.update("UPDATE wallet_holds SET expires_at = CURRENT_TIMESTAMP - INTERVAL '1' MINUTE WHERE hold_id = ?", holdId);
+        
+        // Released between the copies of wallets and wallet_holds, the target would keep the held amount without its hold
+        shardRouter.updateBucket(bucket, owner, ShardRouter.MIGRATING);
+        try {
+            holdExpiryJob.expireHolds();
+            assertThat(holdCount(owner, holdId)).isEqualTo(1);
+            assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("30.00");
+        } finally {
+            shardRouter.updateBucket(bucket, owner, ShardRouter.ACTIVE);
+        }
+        
+        holdExpiryJob.expireHolds();
+        assertThat(holdCount(owner, holdId)).isZero();
+        assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("50.00");
+    }
+    
+    @Test
+    void migratingBucket_ArchivingWaitsUntilActive() {
+        UUID walletId = UUID.randomUUID();
+        deposit(walletId, "15.00");
+        int bucket = ShardBuckets.bucketOf(walletId);
+        int owner = shardRouter.ownerOf(bucket);
+        JdbcTemplate shard = new JdbcTemplate(shardRouter.dataSource(owner));
+        shard.update("UPDATE wallets SET updated_at = CURRENT_TIMESTAMP - INTERVAL '60' DAY WHERE wallet_id = ?", walletId);
+        
+        // Archived between the copies of wallets and wallets_archive, the target would have the wallet twice
+        shardRouter.updateBucket(bucket, owner, ShardRouter.MIGRATING);
+        try {
+            walletArchiveJob.archiveIdleWallets();
+            assertThat(countWallet(owner, walletId)).isEqualTo(1);
+        } finally {
+            shardRouter.updateBucket(bucket, owner, ShardRouter.ACTIVE);
+        }
+        
+        walletArchiveJob.archiveIdleWallets();
+        assertThat(countWallet(owner, walletId)).isZero();
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("15.00");
+    }
+    
+    @Test
+    void rebalance_ShrinkMovesOnlyRemovedShardsBuckets_GrowRestores() throws Exception {
+        UUID walletId = walletInBucketOwnedBy(2);
+        deposit(walletId, "30.00");
+        Map<Integer, Integer> before = shardRouter.bucketsPerShard();
+        
+        int moved = migrationService.rebalance(2).get(30, TimeUnit.SECONDS);
+        
+        assertThat(moved).isEqualTo(before.get(2));
+        assertThat(shardRouter.bucketsPerShard().getOrDefault(2, 0)).isZero();
+        assertThat(countWallet(2, walletId)).isZero();
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("30.00");
+        
+        migrationService.rebalance(3).get(30, TimeUnit.SECONDS);
+        
+        assertThat(shardRouter.bucketsPerShard()).isEqualTo(before);
+        assertThat(countWallet(2, walletId)).isEqualTo(1);
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("30.00");
+    }
+    
+    private void deposit(UUID walletId, String amount) {
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal(amount)));
+    }
+    
+    private int countWallet(int shard, UUID walletId) {
+        return new JdbcTemplate(shardRouter.dataSource(shard))
+            .queryForObject("SELECT COUNT(*) FROM wallets WHERE wallet_id = ?", Integer.class, walletId);
+    }
+    
+    private int holdCount(int shard, UUID holdId) {
+        return new JdbcTemplate(shardRouter.dataSource(shard))
+            .queryForObject("SELECT COUNT(*) FROM wallet_holds WHERE hold_id = ?", Integer.class, holdId);
+    }
+    
+    private UUID walletInBucketOwnedBy(int shard) {
+        while (true) {
+            UUID walletId = UUID.randomUUID();
+            if (shardRouter.shardFor(walletId) == shard) {
+                return walletId;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.wallet.integration;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.model.OperationType;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "wallet.pool.transaction-budget=500ms")
+@ActiveProfiles("test")
+class TransactionBudgetIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    void transactionPastBudget_FailsAtNextStatementAndRollsBack() {
+        UUID walletId = UUID.randomUUID();
+        deposit(walletId);
+        double exceededBefore = meterRegistry.counter("wallet.pool.budget-exceeded").count();
+        
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            walletRepository.findByIdWithLock(walletId).orElseThrow().setBalance(new BigDecimal("99.00"));
+            walletRepository.flush();
+            sleep(700);
+            walletRepository.findByIdWithLock(walletId);
+        })).isInstanceOf(TransactionTimedOutException.class);
+        
+        assertThat(meterRegistry.counter("wallet.pool.budget-exceeded").count()).isEqualTo(exceededBefore + 1);
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("10.00");
+    }
+    
+    @Test
+    void transactionWithinBudget_Commits() {
+        UUID walletId = UUID.randomUUID();
+        
+        deposit(walletId);
+        deposit(walletId);
+        
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("20.00");
+    }
+    
+    private void deposit(UUID walletId) {
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("10.00")));
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.wallet.integration;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import com.wallet.reconciliation.ReconciliationService;
+import com.wallet.service.WalletArchiveJob;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "wallet.archive.enabled=true",
+    "wallet.archive.interval=3600000",
+    "wallet.archive.idle-threshold=30d",
+    "wallet.archive.batch-size=2",
+    "wallet.reconciliation.report-dir=target/reconciliation-${random.uuid}"
+})
+@ActiveProfiles("test")
+class WalletArchiveIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletArchiveJob walletArchiveJob;
+    
+    @Autowired
+    private ReconciliationService reconciliationService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void archiveJob_MovesOnlyIdleWalletsWithoutHolds() {
+        UUID idle = createIdleWallet("10.00");
+        UUID alsoIdle = createIdleWallet("20.00");
+        UUID thirdIdle = createIdleWallet("30.00");
+        UUID active = deposit(UUID.randomUUID(), "40.00");
+        UUID idleWithHold = deposit(UUID.randomUUID(), "50.00");
+        walletService.processOperation(new WalletOperationRequest(idleWithHold, OperationType.HOLD, new BigDecimal("5.00")));
+        makeIdle(idleWithHold);
+        
+        walletArchiveJob.archiveIdleWallets();
+        
+        assertThat(isArchived(idle)).isTrue();
+        assertThat(isArchived(alsoIdle)).isTrue();
+        assertThat(isArchived(thirdIdle)).isTrue();
+        assertThat(isArchived(active)).isFalse();
+        assertThat(isArchived(idleWithHold)).isFalse();
+        assertThat(walletService.getWalletBalance(idle).getBalance()).isEqualByComparingTo("10.00");
+        assertThat(isArchived(idle)).isTrue();
+        assertThat(reconciliationService.reconcile("archive-" + UUID.randomUUID()).isClean()).isTrue();
+    }
+    
+    @Test
+    void write_RestoresArchivedWallet() {
+        UUID walletId = createIdleWallet("100.00");
+        walletArchiveJob.archiveIdleWallets();
+        
+        WalletResponse response = walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("30.00")));
+        
+        assertThat(response.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(isArchived(walletId)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallets WHERE wallet_id = ?", Integer.class, walletId))
+            .isEqualTo(1);
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("70.00");
+    }
+    
+    private UUID createIdleWallet(String amount) {
+        UUID walletId = deposit(UUID.randomUUID(), amount);
+        makeIdle(walletId);
+        return walletId;
+    }
+    
+    private UUID deposit(UUID walletId, String amount) {
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal(amount)));
+        return walletId;
+    }
+    
+    private void makeIdle(UUID walletId) {
+        jdbcTemplate.update("UPDATE wallets SET updated_at = CURRENT_TIMESTAMP - INTERVAL '60' DAY WHERE wallet_id = ?", walletId);
+    }
+    
+    private boolean isArchived(UUID walletId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallets_archive WHERE wallet_id = ?", Integer.class, walletId) == 1;
+    }
+}
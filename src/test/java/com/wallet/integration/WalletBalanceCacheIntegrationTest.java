@@ -0,0 +1,191 @@
+package com.wallet.integration;
+
+import com.wallet.cache.BalanceCache;
+import com.wallet.cache.BalanceChangeLog;
+import com.wallet.cache.BalanceChangePoller;
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import com.wallet.service.HoldExpiryJob;
+import com.wallet.service.WalletService;
+import com.wallet.sharding.ShardedTaskRunner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes from another instance are simulated by updating the wallet through JDBC and logging
+ * the change the way that instance would.
+ */
+@SpringBootTest(properties = {
+    "wallet.balance-cache.enabled=true",
+    // Polls are driven by the tests
+    "wallet.balance-cache.poll-interval=1h",
+    "wallet.balance-cache.max-staleness=1h",
+    "wallet.holds.expiry-interval=3600000"
+})
+@ActiveProfiles("test")
+class WalletBalanceCacheIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private BalanceCache balanceCache;
+    
+    @Autowired
+    private BalanceChangePoller poller;
+    
+    @Autowired
+    private BalanceChangeLog balanceChangeLog;
+    
+    @Autowired
+    private HoldExpiryJob holdExpiryJob;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @Autowired
+    private ShardedTaskRunner shardedTaskRunner;
+    
+    @Autowired
+    private WalletProperties walletProperties;
+    
+    @BeforeEach
+    void setUp() {
+        poller.poll();
+    }
+    
+    @Test
+    void writeOnThisInstance_IsSeenWithoutWaitingForAPoll() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("100.00");
+        assertThat(balanceCache.get(walletId).getBalance()).isEqualByComparingTo("100.00");
+        
+        operate(walletId, OperationType.WITHDRAW, "30.00");
+        
+        assertThat(balanceCache.get(walletId)).isNull();
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("70.00");
+        assertThat(balanceCache.get(walletId).getBalance()).isEqualByComparingTo("70.00");
+    }
+    
+    @Test
+    void writeOnAnotherInstance_IsSeenAfterThePoll() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        walletService.getWalletBalance(walletId);
+        
+        depositElsewhere(walletId, "50.00");
+        assertThat(balanceCache.get(walletId).getBalance()).isEqualByComparingTo("100.00");
+        
+        poller.poll();
+        
+        assertThat(balanceCache.get(walletId)).isNull();
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("150.00");
+    }
+    
+    @Test
+    void changeCommittedBelowTheCursor_IsStillApplied() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        walletService.getWalletBalance(walletId);
+        
+        // The slow writer draws its id first but commits after a later change was polled
+        Long reservedId = jdbcTemplate.queryForObject("SELECT nextval('wallet_balance_change_seq')", Long.class);
+        operate(UUID.randomUUID(), OperationType.DEPOSIT, "1.00");
+        poller.poll();
+        assertThat(balanceCache.get(walletId)).isNotNull();
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE wallets SET balance = balance + 5, version = version + 1 WHERE wallet_id = ?",
+                walletId);
+            jdbcTemplate.update("INSERT INTO wallet_balance_changes (id, wallet_id, version) "
+                + "SELECT ?, wallet_id, version FROM wallets WHERE wallet_id = ?", reservedId, walletId);
+        });
+        poller.poll();
+        
+        assertThat(balanceCache.get(walletId)).isNull();
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("105.00");
+    }
+    
+    @Test
+    void freshInstance_AfterAPrunedIdJump_ClearsTheCacheAndKeepsUp() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        walletService.getWalletBalance(walletId);
+        
+        // Quiet past retention: the log is pruned while the sequence has moved far ahead
+        jdbcTemplate.update("DELETE FROM wallet_balance_changes");
+        Long reservedId = jdbcTemplate.queryForObject("SELECT nextval('wallet_balance_change_seq')", Long.class);
+        jdbcTemplate.execute("ALTER SEQUENCE wallet_balance_change_seq RESTART WITH " + (reservedId + 5_000_000));
+        
+        BalanceChangePoller freshPoller = new BalanceChangePoller(namedParameterJdbcTemplate, balanceCache,
+            shardedTaskRunner, walletProperties, new SimpleMeterRegistry());
+        try {
+            freshPoller.poll();
+            depositElsewhere(walletId, "50.00");
+            long epoch = balanceCache.epoch();
+            
+            freshPoller.poll();
+            
+            assertThat(balanceCache.epoch()).isGreaterThan(epoch);
+            assertThat(balanceCache.get(walletId)).isNull();
+            assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("150.00");
+            
+            depositElsewhere(walletId, "25.00");
+            freshPoller.poll();
+            
+            assertThat(balanceCache.get(walletId)).isNull();
+            assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("175.00");
+        } finally {
+            freshPoller.shutdown();
+        }
+    }
+    
+    @Test
+    void holdExpiry_IsPropagatedThroughTheChangeLog() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        operate(walletId, OperationType.HOLD, "40.00");
+        assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("60.00");
+        jdbcTemplate.update("UPDATE wallet_holds SET expires_at = CURRENT_TIMESTAMP - INTERVAL '1' MINUTE "
+            + "WHERE wallet_id = ?", walletId);
+        
+        holdExpiryJob.expireHolds();
+        poller.poll();
+        
+        assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("100.00");
+    }
+    
+    private void depositElsewhere(UUID walletId, String amount) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE wallets SET balance = balance + ?, version = version + 1 WHERE wallet_id = ?",
+                new BigDecimal(amount), walletId);
+            balanceChangeLog.recordAll(List.of(walletId));
+        });
+    }
+    
+    private WalletResponse operate(UUID walletId, OperationType type, String amount) {
+        return walletService.processOperation(new WalletOperationRequest(walletId, type, new BigDecimal(amount)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.wallet.integration;
+
+import com.wallet.dto.DailyTurnoverResponse;
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.dto.WalletTurnoverResponse;
+import com.wallet.exception.DailyLimitExceededException;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.exception.WalletNotFoundException;
+import com.wallet.model.OperationType;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WalletDailyTurnoverIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void operations_AccumulateIntoTodaysTurnover() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00", null);
+        operate(walletId, OperationType.DEPOSIT, "20.00", null);
+        operate(walletId, OperationType.WITHDRAW, "30.00", null);
+        UUID holdId = operate(walletId, OperationType.HOLD, "40.00", null).getHoldId();
+        operate(walletId, OperationType.CAPTURE, "25.00", holdId);
+        
+        LocalDate today = LocalDate.now();
+        WalletTurnoverResponse report = walletService.getDailyTurnover(walletId, today.minusDays(7), today);
+        
+        assertThat(report.getDays()).hasSize(1);
+        DailyTurnoverResponse day = report.getDays().get(0);
+        assertThat(day.getDate()).isEqualTo(today);
+        assertThat(day.getDepositTotal()).isEqualByComparingTo("120.00");
+        assertThat(day.getWithdrawTotal()).isEqualByComparingTo("55.00");
+        // The hold itself does not change the balance
+        assertThat(day.getOperationCount()).isEqualTo(4);
+    }
+    
+    @Test
+    void dailyLimit_RejectsWithdrawalsAndHoldsPastTheLimitWithoutWriting() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "500.00", null);
+        walletService.setDailyWithdrawLimit(walletId, new BigDecimal("100.00"));
+        operate(walletId, OperationType.WITHDRAW, "60.00", null);
+        
+        assertThatThrownBy(() -> operate(walletId, OperationType.WITHDRAW, "50.00", null))
+            .isInstanceOf(DailyLimitExceededException.class)
+            .hasMessageContaining("Withdrawn today: 60.00");
+        assertThatThrownBy(() -> operate(walletId, OperationType.HOLD, "41.00", null))
+            .isInstanceOf(DailyLimitExceededException.class);
+        WalletResponse withdrawn = operate(walletId, OperationType.WITHDRAW, "40.00", null);
+        
+        assertThat(withdrawn.getBalance()).isEqualByComparingTo("400.00");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT withdraw_total FROM wallet_daily_turnover WHERE wallet_id = ?", BigDecimal.class, walletId))
+            .isEqualByComparingTo("100.00");
+        
+        walletService.setDailyWithdrawLimit(walletId, null);
+        assertThat(operate(walletId, OperationType.WITHDRAW, "50.00", null).getBalance())
+            .isEqualByComparingTo("350.00");
+    }
+    
+    @Test
+    void dailyLimit_CountsOutstandingHolds() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "500.00", null);
+        walletService.setDailyWithdrawLimit(walletId, new BigDecimal("100.00"));
+        UUID holdId = operate(walletId, OperationType.HOLD, "100.00", null).getHoldId();
+        
+        // Both holds captured would withdraw 200 in one day
+        assertThatThrownBy(() -> operate(walletId, OperationType.HOLD, "100.00", null))
+            .isInstanceOf(DailyLimitExceededException.class)
+            .hasMessageContaining("Held: 100.00");
+        assertThatThrownBy(() -> operate(walletId, OperationType.WITHDRAW, "0.01", null))
+            .isInstanceOf(DailyLimitExceededException.class);
+        
+        assertThat(operate(walletId, OperationType.CAPTURE, null, holdId).getBalance()).isEqualByComparingTo("400.00");
+        assertThatThrownBy(() -> operate(walletId, OperationType.HOLD, "0.01", null))
+            .isInstanceOf(DailyLimitExceededException.class);
+    }
+    
+    @Test
+    void setDailyWithdrawLimit_UnknownWallet_NotFound() {
+        assertThatThrownBy(() -> walletService.setDailyWithdrawLimit(UUID.randomUUID(), BigDecimal.TEN))
+            .isInstanceOf(WalletNotFoundException.class);
+    }
+    
+    @Test
+    void getDailyTurnover_RejectsInvalidRanges() {
+        UUID walletId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        
+        assertThat(walletService.getDailyTurnover(walletId, today, today).getDays()).isEmpty();
+        assertThatThrownBy(() -> walletService.getDailyTurnover(walletId, today, today.minusDays(1)))
+            .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> walletService.getDailyTurnover(walletId, today.minusDays(366), today))
+            .isInstanceOf(InvalidRequestException.class);
+    }
+    
+    private WalletResponse operate(UUID walletId, OperationType type, String amount, UUID holdId) {
+        OperationResult result = walletService.tryProcessOperation(new WalletOperationRequest(
+            walletId, type, amount != null ? new BigDecimal(amount) : null, holdId));
+        assertThat(result.isSuccess()).isTrue();
+        return result.getResponse();
+    }
+}
@@ -0,0 +1,141 @@
+package com.wallet.integration;
+
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.exception.HoldNotFoundException;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.model.OperationType;
+import com.wallet.service.HoldExpiryJob;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "wallet.holds.expiry-interval=3600000")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class WalletHoldIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private HoldExpiryJob holdExpiryJob;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    @Test
+    void holdThenCapture_DebitsOnlyCapturedAmount() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00", null);
+        
+        UUID holdId = operate(walletId, OperationType.HOLD, "40.00", null).getHoldId();
+        OperationResult withdrawal = walletService.tryProcessOperation(
+            new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("70.00")));
+        WalletResponse captured = operate(walletId, OperationType.CAPTURE, "30.00", holdId);
+        
+        assertThat(withdrawal.isSuccess()).isFalse();
+        assertThat(captured.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(captured.getAvailableBalance()).isEqualByComparingTo("70.00");
+        assertThat(holdCount(walletId)).isZero();
+        assertThat(ledgerTotal(walletId)).isEqualByComparingTo("70.00");
+        assertThatThrownBy(() -> operate(walletId, OperationType.CAPTURE, null, holdId))
+            .isInstanceOf(HoldNotFoundException.class);
+    }
+    
+    @Test
+    void release_RestoresAvailableBalance() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "50.00", null);
+        UUID holdId = operate(walletId, OperationType.HOLD, "50.00", null).getHoldId();
+        
+        WalletResponse released = operate(walletId, OperationType.RELEASE, null, holdId);
+        
+        assertThat(released.getBalance()).isEqualByComparingTo("50.00");
+        assertThat(released.getAvailableBalance()).isEqualByComparingTo("50.00");
+        assertThat(ledgerTotal(walletId)).isEqualByComparingTo("50.00");
+    }
+    
+    @Test
+    void invalidHoldOperations_AreRejectedWithoutWriting() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00", null);
+        UUID holdId = operate(walletId, OperationType.HOLD, "40.00", null).getHoldId();
+        
+        assertThatThrownBy(() -> operate(walletId, OperationType.HOLD, "10.00", holdId))
+            .isInstanceOf(InvalidRequestException.class)
+            .hasMessageContaining("Hold already exists");
+        assertThatThrownBy(() -> operate(walletId, OperationType.CAPTURE, "40.01", holdId))
+            .isInstanceOf(InvalidRequestException.class)
+            .hasMessageContaining("exceeds hold amount");
+        
+        assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("60.00");
+        assertThat(holdCount(walletId)).isEqualTo(1);
+    }
+    
+    @Test
+    void expiryJob_ReleasesOnlyExpiredHolds() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00", null);
+        UUID expired = operate(walletId, OperationType.HOLD, "30.00", null).getHoldId();
+        UUID alsoExpired = operate(walletId, OperationType.HOLD, "20.00", null).getHoldId();
+        operate(walletId, OperationType.HOLD, "10.00", null);
+        jdbcTemplate.update("UPDATE wallet_holds SET expires_at = CURRENT_TIMESTAMP - INTERVAL '1' MINUTE "
+            + "WHERE hold_id IN (?, ?)", expired, alsoExpired);
+        
+        holdExpiryJob.expireHolds();
+        
+        WalletResponse balance = walletService.getWalletBalance(walletId);
+        assertThat(balance.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(balance.getAvailableBalance()).isEqualByComparingTo("90.00");
+        assertThat(holdCount(walletId)).isEqualTo(1);
+        assertThatThrownBy(() -> operate(walletId, OperationType.RELEASE, null, expired))
+            .isInstanceOf(HoldNotFoundException.class);
+    }
+    
+    @Test
+    void holdAndExpiry_PublishTheAvailableBalance() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00", null);
+        UUID holdId = operate(walletId, OperationType.HOLD, "40.00", null).getHoldId();
+        jdbcTemplate.update("UPDATE wallet_holds SET expires_at = CURRENT_TIMESTAMP - INTERVAL '1' MINUTE "
+            + "WHERE hold_id = ?", holdId);
+        
+        holdExpiryJob.expireHolds();
+        
+        assertThat(events.stream(BalanceChangedEvent.class)
+                .filter(event -> event.walletId().equals(walletId))
+                .map(BalanceChangedEvent::availableBalance))
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("100.00"), new BigDecimal("60.00"), new BigDecimal("100.00"));
+    }
+    
+    private WalletResponse operate(UUID walletId, OperationType type, String amount, UUID holdId) {
+        return walletService.processOperation(new WalletOperationRequest(
+            walletId, type, amount == null ? null : new BigDecimal(amount), holdId));
+    }
+    
+    private int holdCount(UUID walletId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_holds WHERE wallet_id = ?", Integer.class, walletId);
+    }
+    
+    private BigDecimal ledgerTotal(UUID walletId) {
+        return jdbcTemplate.queryForObject("SELECT SUM(amount) FROM wallet_ledger WHERE wallet_id = ?", BigDecimal.class, walletId);
+    }
+}
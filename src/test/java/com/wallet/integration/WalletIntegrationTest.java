@@ -3,15 +3,21 @@ package com.wallet.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wallet.dto.WalletOperationRequest;
 import com.wallet.dto.WalletResponse;
+import com.wallet.dto.WalletStreamResult;
+import com.wallet.dto.WalletStreamResult.Status;
 import com.wallet.model.OperationType;
 import com.wallet.model.Wallet;
 import com.wallet.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,11 +26,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -41,9 +52,15 @@ class WalletIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
     
-    @Autowired
+    @SpyBean
     private WalletRepository walletRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     @BeforeEach
     void setUp() {
         walletRepository.deleteAll();
@@ -145,6 +162,36 @@ class WalletIntegrationTest {
                 .andExpect(jsonPath("$.message").exists());
     }
     
+    @Test
+    void operation_VersionConflict_IsRetried() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        Wallet wallet = new Wallet(walletId);
+        wallet.setBalance(new BigDecimal("100.00"));
+        walletRepository.save(wallet);
+        // Another writer, like the hold expiry job, bumps the version before the first attempt flushes
+        AtomicBoolean conflict = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (conflict.getAndSet(false)) {
+                jdbcTemplate.update("UPDATE wallets SET version = version + 1 WHERE wallet_id = ?", walletId);
+            }
+            entityManager.flush();
+            return null;
+        }).when(walletRepository).flush();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.DEPOSIT, new BigDecimal("25.00")
+        );
+        
+        mockMvc.perform(post("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(125.00));
+        
+        verify(walletRepository, times(2)).flush();
+        assertThat(walletRepository.findById(walletId).orElseThrow().getBalance())
+            .isEqualByComparingTo(new BigDecimal("125.00"));
+    }
+    
     @Test
     void getBalance_WalletNotFound_ReturnsNotFound() throws Exception {
         UUID walletId = UUID.randomUUID();
@@ -325,5 +372,38 @@ class WalletIntegrationTest {
         // Initial 1000 + (5 deposits * 10) - (5 withdrawals * 10) = 1000
         assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("1000.00"));
     }
+    
+    @Test
+    void operationStream_AppliesEachWalletsOperationsInOrder() throws Exception {
+        List<UUID> walletIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        String[][] operations = {{"DEPOSIT", "100.00"}, {"WITHDRAW", "30.00"}, {"WITHDRAW", "80.00"}, {"DEPOSIT", "5.00"}};
+        StringBuilder body = new StringBuilder();
+        for (String[] operation : operations) {
+            for (UUID walletId : walletIds) {
+                body.append(objectMapper.writeValueAsString(new WalletOperationRequest(
+                    walletId, OperationType.valueOf(operation[0]), new BigDecimal(operation[1])))).append('\n');
+            }
+        }
+        
+        String result = mockMvc.perform(post("/api/v1/wallet/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        List<WalletStreamResult> results = new ArrayList<>();
+        for (String line : result.split("\n")) {
+            results.add(objectMapper.readValue(line, WalletStreamResult.class));
+        }
+        assertThat(results).hasSize(12);
+        results.sort(Comparator.comparingLong(WalletStreamResult::getSeq));
+        for (int i = 0; i < walletIds.size(); i++) {
+            int wallet = i;
+            assertThat(results.stream().filter(r -> r.getWalletId().equals(walletIds.get(wallet))))
+                .extracting(WalletStreamResult::getStatus)
+                .containsExactly(Status.OK, Status.OK, Status.INSUFFICIENT_FUNDS, Status.OK);
+            assertThat(walletRepository.findById(walletIds.get(wallet)).orElseThrow().getBalance())
+                .isEqualByComparingTo("75.00");
+        }
+    }
 }
-
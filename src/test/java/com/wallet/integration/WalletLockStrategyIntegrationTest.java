@@ -0,0 +1,119 @@
+package com.wallet.integration;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.config.WalletProperties.LockStrategy;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.model.OperationType;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "wallet.lock.strategy=TIMEOUT",
+    "wallet.lock.timeout=300ms",
+    "spring.datasource.hikari.exception-override-class-name=com.wallet.integration.H2LockTimeoutExceptionOverride"
+})
+@ActiveProfiles("test")
+class WalletLockStrategyIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private WalletProperties walletProperties;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @AfterEach
+    void tearDown() {
+        walletProperties.getLock().setStrategy(LockStrategy.TIMEOUT);
+    }
+    
+    @Test
+    void timeout_GivesUpAfterLockTimeout() throws Exception {
+        UUID walletId = createWallet();
+        double before = meterRegistry.counter("wallet.lock.timeouts", "strategy", "TIMEOUT").count();
+        
+        long elapsedMillis = whileLocked(walletId, () -> deposit(walletId));
+        
+        assertThat(elapsedMillis).isBetween(250L, 5_000L);
+        assertThat(meterRegistry.counter("wallet.lock.timeouts", "strategy", "TIMEOUT").count()).isEqualTo(before + 1);
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("10.00");
+    }
+    
+    @Test
+    void noWait_FailsImmediately() throws Exception {
+        UUID walletId = createWallet();
+        walletProperties.getLock().setStrategy(LockStrategy.NOWAIT);
+        
+        long elapsedMillis = whileLocked(walletId, () -> deposit(walletId));
+        
+        assertThat(elapsedMillis).isLessThan(250L);
+    }
+    
+    @Test
+    void timeout_UncontendedOperationsProceed() {
+        UUID walletId = createWallet();
+        
+        deposit(walletId);
+        
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("15.00");
+    }
+    
+    private UUID createWallet() {
+        UUID walletId = UUID.randomUUID();
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("10.00")));
+        return walletId;
+    }
+    
+    private void deposit(UUID walletId) {
+        walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("5.00")));
+    }
+    
+    // Holds the wallet's row lock in another transaction while the operation runs; returns how long it took to fail
+    private long whileLocked(UUID walletId, Runnable operation) throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            walletRepository.findByIdWithLock(walletId);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+            long started = System.nanoTime();
+            assertThatThrownBy(operation::run).isInstanceOf(PessimisticLockingFailureException.class);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.wallet.integration;
+
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.OperationType;
+import com.wallet.model.Wallet;
+import com.wallet.service.HoldExpiryJob;
+import com.wallet.service.WalletService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "wallet.second-level-cache.enabled=true",
+    "wallet.holds.expiry-interval=3600000"
+})
+@ActiveProfiles("test")
+class WalletSecondLevelCacheIntegrationTest {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private HoldExpiryJob holdExpiryJob;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void balanceRead_IsCachedAndUpdatedByWrites() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("100.00");
+        assertThat(entityManagerFactory.getCache().contains(Wallet.class, walletId)).isTrue();
+        
+        operate(walletId, OperationType.WITHDRAW, "30.00");
+        
+        assertThat(walletService.getWalletBalance(walletId).getBalance()).isEqualByComparingTo("70.00");
+    }
+    
+    @Test
+    void holdExpiry_EvictsTheWalletItWroteThroughJdbc() {
+        UUID walletId = UUID.randomUUID();
+        operate(walletId, OperationType.DEPOSIT, "100.00");
+        operate(walletId, OperationType.HOLD, "40.00");
+        assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("60.00");
+        jdbcTemplate.update("UPDATE wallet_holds SET expires_at = CURRENT_TIMESTAMP - INTERVAL '1' MINUTE "
+            + "WHERE wallet_id = ?", walletId);
+        
+        holdExpiryJob.expireHolds();
+        
+        assertThat(entityManagerFactory.getCache().contains(Wallet.class, walletId)).isFalse();
+        assertThat(walletService.getWalletBalance(walletId).getAvailableBalance()).isEqualByComparingTo("100.00");
+    }
+    
+    private WalletResponse operate(UUID walletId, OperationType type, String amount) {
+        return walletService.processOperation(new WalletOperationRequest(walletId, type, new BigDecimal(amount)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.wallet.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+    
+    private static final String TEMPLATE = "Insufficient funds for wallet {}";
+    
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private SamplingTurboFilter filter;
+    private Logger logger;
+    
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("com.wallet.service.WalletService");
+        logger.setLevel(Level.INFO);
+        
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setMaxPerSecond(3);
+        filter.setSampleEvery(5);
+        filter.setClock(now::get);
+        filter.start();
+    }
+    
+    @Test
+    void decide_OverBudget_SamplesOneInN() {
+        int passed = 0;
+        for (int i = 0; i < 23; i++) {
+            if (decide(Level.WARN, TEMPLATE) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        
+        // 3 within budget, then events 8, 13, 18 and 23
+        assertThat(passed).isEqualTo(7);
+        assertThat(filter.getSuppressed()).isEqualTo(16);
+    }
+    
+    @Test
+    void decide_NextSecond_ResetsBudget() {
+        for (int i = 0; i < 4; i++) {
+            decide(Level.WARN, TEMPLATE);
+        }
+        assertThat(decide(Level.WARN, TEMPLATE)).isEqualTo(FilterReply.DENY);
+        
+        now.addAndGet(1000);
+        
+        assertThat(decide(Level.WARN, TEMPLATE)).isEqualTo(FilterReply.NEUTRAL);
+    }
+    
+    @Test
+    void decide_BudgetIsPerTemplate() {
+        for (int i = 0; i < 10; i++) {
+            decide(Level.WARN, TEMPLATE);
+        }
+        
+        assertThat(decide(Level.WARN, "Wallet not found: {}")).isEqualTo(FilterReply.NEUTRAL);
+    }
+    
+    @Test
+    void decide_ErrorsDisabledLevelsAndEnabledChecks_AreNotSampled() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(decide(Level.ERROR, TEMPLATE)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(Level.DEBUG, TEMPLATE)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(Level.WARN, null)).isEqualTo(FilterReply.NEUTRAL);
+        }
+        
+        assertThat(filter.getSuppressed()).isZero();
+    }
+    
+    private FilterReply decide(Level level, String format) {
+        return filter.decide(null, logger, level, format, null, null);
+    }
+}
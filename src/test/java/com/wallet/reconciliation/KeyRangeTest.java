@@ -0,0 +1,37 @@
+package com.wallet.reconciliation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyRangeTest {
+    
+    @Test
+    void split_CoversWholeKeyspaceWithoutGaps() {
+        List<KeyRange> ranges = KeyRange.split(3);
+        
+        assertThat(ranges.get(0).lower()).isEqualTo(new UUID(0, 0));
+        assertThat(ranges.get(0).upper()).isEqualTo(ranges.get(1).lower());
+        assertThat(ranges.get(1).upper()).isEqualTo(ranges.get(2).lower());
+        assertThat(ranges.get(2).upper()).isNull();
+        
+        for (int i = 0; i < 1_000; i++) {
+            UUID walletId = UUID.randomUUID();
+            assertThat(ranges.stream().filter(range -> range.contains(walletId))).hasSize(1);
+        }
+        assertThat(ranges.get(2).contains(new UUID(-1L, -1L))).isTrue();
+    }
+    
+    @Test
+    void compare_OrdersAsUnsigned() {
+        UUID low = new UUID(0x7fffffffffffffffL, 0);
+        UUID high = new UUID(0x8000000000000000L, 0);
+        
+        assertThat(KeyRange.compare(low, high)).isNegative();
+        assertThat(KeyRange.compare(new UUID(1, 1), new UUID(1, -1L))).isNegative();
+        assertThat(KeyRange.compare(high, high)).isZero();
+    }
+}
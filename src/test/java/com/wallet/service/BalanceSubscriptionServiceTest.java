@@ -0,0 +1,210 @@
+package com.wallet.service;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.WalletResponse;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceSubscriptionServiceTest {
+    
+    private WalletProperties properties;
+    private BalanceSubscriptionService service;
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        properties.getSubscriptions().setMaxSubscriptions(2);
+        properties.getSubscriptions().setMaxWalletsPerSubscription(3);
+        properties.getSubscriptions().setCoalesceWindow(Duration.ofMillis(100));
+        properties.getSubscriptions().setFlushThreads(2);
+        service = new BalanceSubscriptionService(properties, new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    void subscribe_TooManyWallets_Rejected() {
+        Set<UUID> walletIds = Set.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        
+        assertThatThrownBy(() -> service.subscribe(walletIds))
+            .isInstanceOf(InvalidRequestException.class);
+        assertThat(service.getSubscriptionCount()).isZero();
+    }
+    
+    @Test
+    void subscribe_OverCapacity_Rejected() {
+        service.subscribe(Set.of(UUID.randomUUID()));
+        service.subscribe(Set.of(UUID.randomUUID()));
+        
+        assertThatThrownBy(() -> service.subscribe(Set.of(UUID.randomUUID())))
+            .isInstanceOf(TooManyRequestsException.class);
+        assertThat(service.getSubscriptionCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void onBalanceChanged_NoSubscribers_Ignored() {
+        service.onBalanceChanged(new BalanceChangedEvent(UUID.randomUUID(), BigDecimal.TEN, BigDecimal.TEN, 1L));
+        
+        assertThat(service.getSubscriptionCount()).isZero();
+    }
+    
+    @Test
+    void onBalanceChanged_UpdatesWithinWindow_CollapseToLatest() throws InterruptedException {
+        UUID walletId = UUID.randomUUID();
+        service.subscribe(Set.of(walletId));
+        RecordingEmitter emitter = emitters.get(0);
+        
+        service.onBalanceChanged(new BalanceChangedEvent(walletId, new BigDecimal("1.00"), new BigDecimal("1.00"), 1L));
+        service.onBalanceChanged(new BalanceChangedEvent(walletId, new BigDecimal("3.00"), new BigDecimal("3.00"), 3L));
+        service.onBalanceChanged(new BalanceChangedEvent(walletId, new BigDecimal("2.00"), new BigDecimal("2.00"), 2L));
+        
+        assertThat(emitter.awaitBalances(1)).isTrue();
+        Thread.sleep(300);
+        assertThat(emitter.balances).containsExactly(new BigDecimal("3.00"));
+    }
+    
+    @Test
+    void onBalanceChanged_SuccessiveFlushes_ReachEmitter() throws InterruptedException {
+        UUID walletId = UUID.randomUUID();
+        service.subscribe(Set.of(walletId));
+        RecordingEmitter emitter = emitters.get(0);
+        
+        service.onBalanceChanged(new BalanceChangedEvent(walletId, new BigDecimal("1.00"), new BigDecimal("1.00"), 1L));
+        assertThat(emitter.awaitBalances(1)).isTrue();
+        service.onBalanceChanged(new BalanceChangedEvent(walletId, new BigDecimal("2.00"), new BigDecimal("2.00"), 2L));
+        
+        assertThat(emitter.awaitBalances(2)).isTrue();
+        assertThat(emitter.balances).containsExactly(new BigDecimal("1.00"), new BigDecimal("2.00"));
+    }
+    
+    @Test
+    void onBalanceChanged_HoldPlacedThenExpired_CarriesAvailableBalance() throws InterruptedException {
+        UUID walletId = UUID.randomUUID();
+        service.subscribe(Set.of(walletId));
+        RecordingEmitter emitter = emitters.get(0);
+        
+        // A hold leaves the balance alone and lowers the available balance
+        service.onBalanceChanged(new BalanceChangedEvent(
+            walletId, new BigDecimal("100.00"), new BigDecimal("60.00"), 2L));
+        assertThat(emitter.awaitBalances(1)).isTrue();
+        // Hold expiry gives the funds back without changing the balance
+        service.onBalanceChanged(new BalanceChangedEvent(
+            walletId, new BigDecimal("100.00"), new BigDecimal("100.00"), 3L));
+        
+        assertThat(emitter.awaitBalances(2)).isTrue();
+        assertThat(emitter.availableBalances).containsExactly(new BigDecimal("60.00"), new BigDecimal("100.00"));
+    }
+    
+    @Test
+    void onBalanceChanged_StalledSubscriber_DoesNotBlockOthers() throws InterruptedException {
+        UUID stalledWallet = UUID.randomUUID();
+        UUID walletId = UUID.randomUUID();
+        service.subscribe(Set.of(stalledWallet));
+        service.subscribe(Set.of(walletId));
+        RecordingEmitter stalled = emitters.get(0);
+        RecordingEmitter healthy = emitters.get(1);
+        stalled.stall();
+        
+        try {
+            service.onBalanceChanged(new BalanceChangedEvent(stalledWallet, BigDecimal.ONE, BigDecimal.ONE, 1L));
+            assertThat(stalled.awaitStalled()).isTrue();
+            // Would take the second flush thread if flushes of one subscriber could overlap
+            service.onBalanceChanged(new BalanceChangedEvent(stalledWallet, BigDecimal.TEN, BigDecimal.TEN, 2L));
+            Thread.sleep(300);
+            service.onBalanceChanged(new BalanceChangedEvent(walletId, BigDecimal.TEN, BigDecimal.TEN, 1L));
+            
+            assertThat(healthy.awaitBalances(1)).isTrue();
+        } finally {
+            stalled.release();
+        }
+    }
+    
+    @Test
+    void balanceChangedEvent_NewerVersionWins() {
+        UUID walletId = UUID.randomUUID();
+        BalanceChangedEvent older = new BalanceChangedEvent(walletId, BigDecimal.ONE, BigDecimal.ONE, 3L);
+        BalanceChangedEvent newer = new BalanceChangedEvent(walletId, BigDecimal.TEN, BigDecimal.TEN, 4L);
+        
+        assertThat(newer.isNewerThan(older)).isTrue();
+        assertThat(older.isNewerThan(newer)).isFalse();
+        assertThat(older.isNewerThan(null)).isTrue();
+    }
+    
+    private static class RecordingEmitter extends SseEmitter {
+        
+        private final List<BigDecimal> balances = new CopyOnWriteArrayList<>();
+        private final List<BigDecimal> availableBalances = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stalled = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean stall;
+        
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (stall) {
+                stalled.countDown();
+                try {
+                    released.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builder.build().stream()
+                .filter(data -> data.getData() instanceof WalletResponse)
+                .map(data -> (WalletResponse) data.getData())
+                .forEach(response -> {
+                    availableBalances.add(response.getAvailableBalance());
+                    balances.add(response.getBalance());
+                });
+        }
+        
+        void stall() {
+            stall = true;
+        }
+        
+        void release() {
+            released.countDown();
+        }
+        
+        boolean awaitStalled() throws InterruptedException {
+            return stalled.await(5, TimeUnit.SECONDS);
+        }
+        
+        boolean awaitBalances(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (balances.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return balances.size() >= count;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.wallet.service;
+
+import com.wallet.concurrency.HotWalletTracker;
+import com.wallet.concurrency.WalletMailboxExecutor;
+import com.wallet.config.WalletProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WalletOperationDispatcherTest {
+    
+    private final UUID slowWallet = UUID.randomUUID();
+    private final UUID otherWallet = UUID.randomUUID();
+    private WalletProperties properties;
+    private WalletMailboxExecutor mailboxExecutor;
+    private HotWalletTracker hotWalletTracker;
+    private SimpleMeterRegistry meterRegistry;
+    private WalletOperationDispatcher dispatcher;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WalletProperties();
+        // Every wallet lands on the same stripe
+        properties.getSerialization().setStripes(1);
+        properties.getHotWallets().setThreshold(1);
+        properties.getHotWallets().setWindow(Duration.ofSeconds(10));
+        meterRegistry = new SimpleMeterRegistry();
+        mailboxExecutor = new WalletMailboxExecutor(properties, meterRegistry);
+        hotWalletTracker = new HotWalletTracker(properties);
+        dispatcher = new WalletOperationDispatcher(mailboxExecutor, hotWalletTracker, properties, meterRegistry);
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailboxExecutor.shutdown();
+    }
+    
+    @Test
+    void dispatch_SlowHotWallet_DoesNotBlockAnotherOnTheSameStripe() throws Exception {
+        makeHot(slowWallet);
+        makeHot(otherWallet);
+        CountDownLatch lockWaitStarted = new CountDownLatch(1);
+        CountDownLatch lockGranted = new CountDownLatch(1);
+        
+        // Stands in for a transaction waiting on the wallet's row lock
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> dispatcher.dispatch(slowWallet, () -> {
+            lockWaitStarted.countDown();
+            await(lockGranted);
+            return null;
+        }));
+        try {
+            assertThat(lockWaitStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            
+            String result = CompletableFuture.supplyAsync(() -> dispatcher.dispatch(otherWallet, () -> "done"))
+                .get(5, TimeUnit.SECONDS);
+            
+            assertThat(result).isEqualTo("done");
+            assertThat(slow).isNotDone();
+        } finally {
+            lockGranted.countDown();
+        }
+        slow.get(5, TimeUnit.SECONDS);
+        assertThat(meterRegistry.counter("wallet.hot.routed").count()).isZero();
+    }
+    
+    @Test
+    void dispatch_RoutingEnabled_SendsHotWalletThroughItsMailbox() {
+        properties.getHotWallets().setRoutingEnabled(true);
+        makeHot(slowWallet);
+        
+        String thread = dispatcher.dispatch(slowWallet, () -> Thread.currentThread().getName());
+        
+        assertThat(thread).startsWith("wallet-mailbox-");
+        assertThat(meterRegistry.counter("wallet.hot.routed").count()).isPositive();
+    }
+    
+    private void makeHot(UUID walletId) {
+        for (int i = 0; i < 20; i++) {
+            dispatcher.dispatch(walletId, () -> null);
+        }
+        assertThat(hotWalletTracker.isHot(walletId)).isTrue();
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
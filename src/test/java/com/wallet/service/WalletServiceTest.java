@@ -1,19 +1,45 @@
 package com.wallet.service;
 
+import com.wallet.cache.BalanceCache;
+import com.wallet.config.WalletProperties;
+import com.wallet.config.WalletProperties.LockStrategy;
+import com.wallet.config.WalletProperties.SerializationMode;
+import com.wallet.dto.OperationResult;
 import com.wallet.dto.WalletOperationRequest;
 import com.wallet.dto.WalletResponse;
+import com.wallet.event.BalanceChangedEvent;
+import com.wallet.exception.DailyLimitExceededException;
+import com.wallet.exception.HoldNotFoundException;
 import com.wallet.exception.InsufficientFundsException;
 import com.wallet.exception.WalletNotFoundException;
+import com.wallet.model.ArchivedWallet;
+import com.wallet.model.DailyTurnover;
+import com.wallet.model.LedgerEntry;
+import com.wallet.model.LedgerEntryType;
 import com.wallet.model.OperationType;
 import com.wallet.model.Wallet;
+import com.wallet.model.WalletHold;
+import com.wallet.repository.DailyTurnoverRepository;
+import com.wallet.repository.LedgerEntryRepository;
+import com.wallet.repository.VersionedBalance;
+import com.wallet.repository.WalletArchiveRepository;
+import com.wallet.repository.WalletHoldRepository;
 import com.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +54,30 @@ class WalletServiceTest {
     @Mock
     private WalletRepository walletRepository;
     
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Mock
+    private DailyTurnoverRepository dailyTurnoverRepository;
+    
+    @Mock
+    private WalletHoldRepository walletHoldRepository;
+    
+    @Mock
+    private WalletArchiveRepository walletArchiveRepository;
+    
+    @Spy
+    private WalletProperties walletProperties = new WalletProperties();
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private BalanceCache balanceCache;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
     @InjectMocks
     private WalletService walletService;
     
@@ -73,6 +123,29 @@ class WalletServiceTest {
         assertThat(response.getWalletId()).isEqualTo(walletId);
         assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("150.00"));
         verify(walletRepository, times(1)).save(any(Wallet.class));
+        verify(eventPublisher).publishEvent(new BalanceChangedEvent(
+            walletId, new BigDecimal("150.00"), new BigDecimal("150.00"), null));
+        // Without a limit the day's row is upserted, never read
+        verify(dailyTurnoverRepository).record(walletId, LocalDate.now(), new BigDecimal("50.00"), BigDecimal.ZERO);
+        verify(dailyTurnoverRepository, never()).findById(any());
+    }
+    
+    @Test
+    void processOperation_ArchivedWallet_RestoresBeforeOperating() {
+        UUID walletId = UUID.randomUUID();
+        Wallet restored = new Wallet(walletId);
+        restored.setBalance(new BigDecimal("100.00"));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.empty(), Optional.of(restored));
+        when(walletArchiveRepository.copyToWallets(walletId)).thenReturn(1);
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        WalletResponse response = walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("40.00")));
+        
+        assertThat(response.getBalance()).isEqualByComparingTo("60.00");
+        verify(walletArchiveRepository).deleteArchived(walletId);
+        assertThat(meterRegistry.counter("wallet.archive.restored").count()).isEqualTo(1.0);
     }
     
     @Test
@@ -95,6 +168,9 @@ class WalletServiceTest {
         
         assertThat(response.getWalletId()).isEqualTo(walletId);
         assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("70.00"));
+        verify(ledgerEntryRepository).save(argThat((LedgerEntry entry) ->
+            entry.getEntryType() == LedgerEntryType.WITHDRAW
+                && entry.getAmount().compareTo(new BigDecimal("-30.00")) == 0));
     }
     
     @Test
@@ -114,6 +190,157 @@ class WalletServiceTest {
             .hasMessageContaining("Insufficient funds");
         
         verify(walletRepository, never()).save(any(Wallet.class));
+        verifyNoInteractions(eventPublisher);
+    }
+    
+    @Test
+    void tryProcessOperation_Withdraw_PastDailyLimit_ThrowsWithoutWriting() {
+        UUID walletId = UUID.randomUUID();
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        existingWallet.setDailyWithdrawLimit(new BigDecimal("50.00"));
+        DailyTurnover today = new DailyTurnover(walletId, LocalDate.now());
+        today.setWithdrawTotal(new BigDecimal("40.00"));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        when(dailyTurnoverRepository.findById(new DailyTurnover.Key(walletId, LocalDate.now())))
+            .thenReturn(Optional.of(today));
+        
+        assertThatThrownBy(() -> walletService.tryProcessOperation(
+                new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("20.00"))))
+            .isInstanceOf(DailyLimitExceededException.class);
+        
+        assertThat(existingWallet.getBalance()).isEqualByComparingTo("100.00");
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(dailyTurnoverRepository, never()).record(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher, ledgerEntryRepository);
+    }
+    
+    @Test
+    void tryProcessOperation_Withdraw_InsufficientFunds_ReturnsRejection() {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.WITHDRAW, new BigDecimal("150.00")
+        );
+        
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        
+        OperationResult result = walletService.tryProcessOperation(request);
+        
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getBalance()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(result.getRequestedAmount()).isEqualByComparingTo(new BigDecimal("150.00"));
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verifyNoInteractions(eventPublisher, ledgerEntryRepository);
+    }
+    
+    @Test
+    void tryProcessOperation_Withdraw_NewWallet_RejectsWithoutCreating() {
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.WITHDRAW, new BigDecimal("10.00")
+        );
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.empty());
+        
+        OperationResult result = walletService.tryProcessOperation(request);
+        
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+    
+    @Test
+    void tryProcessOperation_Withdraw_HeldFundsNotAvailable() {
+        UUID walletId = UUID.randomUUID();
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        existingWallet.setHeldAmount(new BigDecimal("80.00"));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        
+        OperationResult result = walletService.tryProcessOperation(
+            new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("30.00")));
+        
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getBalance()).isEqualByComparingTo(new BigDecimal("20.00"));
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+    
+    @Test
+    void processOperation_Hold_ReservesFundsWithoutLedgerEntry() {
+        UUID walletId = UUID.randomUUID();
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        WalletResponse response = walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.HOLD, new BigDecimal("40.00")));
+        
+        assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(response.getAvailableBalance()).isEqualByComparingTo(new BigDecimal("60.00"));
+        assertThat(response.getHoldId()).isNotNull();
+        verify(walletHoldRepository).save(argThat((WalletHold hold) ->
+            hold.getHoldId().equals(response.getHoldId()) && hold.getAmount().compareTo(new BigDecimal("40.00")) == 0));
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+    
+    @Test
+    void processOperation_PartialCapture_DebitsCapturedAmountAndReleasesRest() {
+        UUID walletId = UUID.randomUUID();
+        UUID holdId = UUID.randomUUID();
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        existingWallet.setHeldAmount(new BigDecimal("40.00"));
+        WalletHold hold = new WalletHold(holdId, walletId, new BigDecimal("40.00"), LocalDateTime.now().plusHours(1));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        when(walletHoldRepository.findById(holdId)).thenReturn(Optional.of(hold));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        WalletResponse response = walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.CAPTURE, new BigDecimal("25.00"), holdId));
+        
+        assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("75.00"));
+        assertThat(response.getAvailableBalance()).isEqualByComparingTo(new BigDecimal("75.00"));
+        verify(walletHoldRepository).delete(hold);
+        verify(ledgerEntryRepository).save(argThat((LedgerEntry entry) ->
+            entry.getEntryType() == LedgerEntryType.CAPTURE
+                && entry.getAmount().compareTo(new BigDecimal("-25.00")) == 0));
+    }
+    
+    @Test
+    void processOperation_CaptureExpiredHold_ThrowsHoldNotFound() {
+        UUID walletId = UUID.randomUUID();
+        UUID holdId = UUID.randomUUID();
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        existingWallet.setHeldAmount(new BigDecimal("40.00"));
+        
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        when(walletHoldRepository.findById(holdId)).thenReturn(Optional.of(
+            new WalletHold(holdId, walletId, new BigDecimal("40.00"), LocalDateTime.now().minusSeconds(1))));
+        
+        assertThatThrownBy(() -> walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.CAPTURE, null, holdId)))
+            .isInstanceOf(HoldNotFoundException.class);
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+    
+    @Test
+    void processOperation_InsufficientFunds_ExceptionHasNoStackTrace() {
+        UUID walletId = UUID.randomUUID();
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.empty());
+        
+        assertThatThrownBy(() -> walletService.processOperation(
+                new WalletOperationRequest(walletId, OperationType.WITHDRAW, new BigDecimal("10.00"))))
+            .isInstanceOf(InsufficientFundsException.class)
+            .satisfies(ex -> assertThat(ex.getStackTrace()).isEmpty());
     }
     
     @Test
@@ -137,25 +364,98 @@ class WalletServiceTest {
         assertThat(response.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
     }
     
+    @Test
+    void processOperation_InProcessSerialization_SkipsRowLock() {
+        walletProperties.getSerialization().setMode(SerializationMode.IN_PROCESS);
+        UUID walletId = UUID.randomUUID();
+        WalletOperationRequest request = new WalletOperationRequest(
+            walletId, OperationType.DEPOSIT, new BigDecimal("25.00")
+        );
+        
+        Wallet existingWallet = new Wallet(walletId);
+        existingWallet.setBalance(new BigDecimal("100.00"));
+        
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(existingWallet));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        WalletResponse response = walletService.processOperation(request);
+        
+        assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("125.00"));
+        verify(walletRepository, never()).findByIdWithLock(any());
+    }
+    
+    @Test
+    void processOperation_NoWaitLockBusy_CountsLockTimeoutAndRethrows() {
+        UUID walletId = UUID.randomUUID();
+        walletProperties.getLock().setStrategy(LockStrategy.NOWAIT);
+        when(walletRepository.findByIdWithLockTimeout(walletId, Duration.ZERO))
+            .thenThrow(new CannotAcquireLockException("could not obtain lock"));
+        
+        assertThatThrownBy(() -> walletService.processOperation(
+            new WalletOperationRequest(walletId, OperationType.DEPOSIT, new BigDecimal("10.00"))))
+            .isInstanceOf(CannotAcquireLockException.class);
+        
+        assertThat(meterRegistry.counter("wallet.lock.timeouts", "strategy", "NOWAIT").count()).isEqualTo(1.0);
+        verify(walletRepository, never()).findByIdWithLock(any());
+    }
+    
     @Test
     void getWalletBalance_Success() {
         UUID walletId = UUID.randomUUID();
+        
+        VersionedBalance balance = new VersionedBalance(
+            new WalletResponse(walletId, new BigDecimal("100.00"), new BigDecimal("60.00")), 4L);
+        when(balanceCache.epoch()).thenReturn(7L);
+        when(walletRepository.findBalanceById(walletId)).thenReturn(Optional.of(balance));
+        
+        WalletResponse response = walletService.getWalletBalance(walletId);
+        
+        assertThat(response.getWalletId()).isEqualTo(walletId);
+        assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(response.getAvailableBalance()).isEqualByComparingTo(new BigDecimal("60.00"));
+        verify(walletRepository, never()).findById(any());
+        verify(balanceCache).put(walletId, balance, 7L);
+    }
+    
+    @Test
+    void getWalletBalance_SecondLevelCacheEnabled_LoadsEntity() {
+        UUID walletId = UUID.randomUUID();
         Wallet wallet = new Wallet(walletId);
         wallet.setBalance(new BigDecimal("100.00"));
+        wallet.setHeldAmount(new BigDecimal("40.00"));
+        wallet.setVersion(2L);
+        walletProperties.getSecondLevelCache().setEnabled(true);
         
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
         
         WalletResponse response = walletService.getWalletBalance(walletId);
         
-        assertThat(response.getWalletId()).isEqualTo(walletId);
         assertThat(response.getBalance()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(response.getAvailableBalance()).isEqualByComparingTo(new BigDecimal("60.00"));
+        verify(walletRepository, never()).findBalanceById(any());
+    }
+    
+    @Test
+    void getWalletBalance_ArchivedWallet_ReadsArchiveWithoutRestoring() {
+        UUID walletId = UUID.randomUUID();
+        ArchivedWallet archived = new ArchivedWallet(walletId, new BigDecimal("25.00"), 3L, 0,
+            LocalDateTime.now().minusYears(1), LocalDateTime.now().minusMonths(7), LocalDateTime.now(), null);
+        
+        when(walletRepository.findBalanceById(walletId)).thenReturn(Optional.empty());
+        when(walletArchiveRepository.findById(walletId)).thenReturn(Optional.of(archived));
+        
+        WalletResponse response = walletService.getWalletBalance(walletId);
+        
+        assertThat(response.getBalance()).isEqualByComparingTo("25.00");
+        assertThat(response.getAvailableBalance()).isEqualByComparingTo("25.00");
+        verify(walletArchiveRepository, never()).copyToWallets(any());
     }
     
     @Test
     void getWalletBalance_WalletNotFound_ThrowsException() {
         UUID walletId = UUID.randomUUID();
         
-        when(walletRepository.findById(walletId)).thenReturn(Optional.empty());
+        when(walletRepository.findBalanceById(walletId)).thenReturn(Optional.empty());
         
         assertThatThrownBy(() -> walletService.getWalletBalance(walletId))
             .isInstanceOf(WalletNotFoundException.class)
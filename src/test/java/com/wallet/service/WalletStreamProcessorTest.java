@@ -0,0 +1,246 @@
+package com.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.concurrency.AdmissionLimiter;
+import com.wallet.config.WalletProperties;
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.dto.WalletResponse;
+import com.wallet.dto.WalletStreamResult;
+import com.wallet.dto.WalletStreamResult.Status;
+import com.wallet.exception.InvalidRequestException;
+import com.wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WalletStreamProcessorTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WalletService walletService;
+    private WalletOperationDispatcher dispatcher;
+    private WalletProperties properties;
+    private WalletStreamProcessor processor;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        walletService = mock(WalletService.class);
+        dispatcher = mock(WalletOperationDispatcher.class);
+        when(dispatcher.dispatch(any(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        properties = new WalletProperties();
+        properties.getStreaming().setThreads(8);
+        properties.getStreaming().setMaxInFlight(64);
+        processor = newProcessor();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+    
+    @Test
+    void process_SameWallet_AppliesInOrderWhileOtherWalletsRunInParallel() throws Exception {
+        List<UUID> walletIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, List<BigDecimal>> applied = new ConcurrentHashMap<>();
+        when(walletService.tryProcessOperation(any())).thenAnswer(invocation -> {
+            WalletOperationRequest request = invocation.getArgument(0);
+            Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+            applied.computeIfAbsent(request.getWalletId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                .add(request.getAmount());
+            return OperationResult.success(new WalletResponse(request.getWalletId(), request.getAmount()));
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 300; i++) {
+            body.append(line(walletIds.get(i % 3), "DEPOSIT", i + ".00")).append('\n');
+        }
+        
+        List<WalletStreamResult> results = process(body.toString());
+        
+        assertThat(results).hasSize(300).allMatch(result -> result.getStatus() == Status.OK);
+        assertThat(results).extracting(WalletStreamResult::getSeq).containsExactlyInAnyOrder(
+            LongStream.range(0, 300).boxed().toArray(Long[]::new));
+        for (UUID walletId : walletIds) {
+            assertThat(applied.get(walletId)).hasSize(100).isSorted();
+        }
+    }
+    
+    @Test
+    void process_InvalidLines_AnswerInvalidAndTheRestProceeds() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        when(walletService.tryProcessOperation(any())).thenReturn(
+            OperationResult.success(new WalletResponse(walletId, new BigDecimal("10.00"))));
+        String body = "not json\n"
+            + "\n"
+            + line(walletId, "DEPOSIT", "-5") + "\n"
+            + line(walletId, "DEPOSIT", "10.00");
+        
+        List<WalletStreamResult> results = process(body);
+        
+        assertThat(results).hasSize(3);
+        assertThat(result(results, 0).getStatus()).isEqualTo(Status.INVALID);
+        assertThat(result(results, 1).getStatus()).isEqualTo(Status.INVALID);
+        assertThat(result(results, 1).getMessage()).isEqualTo("Amount must be greater than 0");
+        assertThat(result(results, 2).getStatus()).isEqualTo(Status.OK);
+        assertThat(result(results, 2).getBalance()).isEqualByComparingTo("10.00");
+    }
+    
+    @Test
+    void process_InsufficientFunds_IsReportedPerOperation() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        when(walletService.tryProcessOperation(any())).thenReturn(
+            OperationResult.insufficientFunds(walletId, new BigDecimal("5.00"), new BigDecimal("9.00")));
+        
+        List<WalletStreamResult> results = process(line(walletId, "WITHDRAW", "9.00") + "\n");
+        
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.getStatus()).isEqualTo(Status.INSUFFICIENT_FUNDS);
+            assertThat(result.getBalance()).isEqualByComparingTo("5.00");
+        });
+    }
+    
+    @Test
+    void process_RejectedInput_IsReportedAsInvalid() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        when(walletService.tryProcessOperation(any())).thenThrow(
+            new InvalidRequestException("Hold already exists"));
+        
+        List<WalletStreamResult> results = process(line(walletId, "HOLD", "9.00") + "\n");
+        
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.getStatus()).isEqualTo(Status.INVALID);
+            assertThat(result.getMessage()).isEqualTo("Hold already exists");
+        });
+    }
+    
+    @Test
+    void process_StopsReadingAtMaxInFlight() throws Exception {
+        processor.shutdown();
+        properties.getStreaming().setMaxInFlight(2);
+        processor = newProcessor();
+        CountDownLatch release = new CountDownLatch(1);
+        when(walletService.tryProcessOperation(any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            WalletOperationRequest request = invocation.getArgument(0);
+            return OperationResult.success(new WalletResponse(request.getWalletId(), request.getAmount()));
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            body.append(line(UUID.randomUUID(), "DEPOSIT", "1.00")).append('\n');
+        }
+        AtomicInteger linesRead = new AtomicInteger();
+        InputStream in = new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read() {
+                int b = super.read();
+                if (b == '\n') {
+                    linesRead.incrementAndGet();
+                }
+                return b;
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        CompletableFuture<Long> processed = CompletableFuture.supplyAsync(() -> {
+            try {
+                return processor.process(in, out);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(200);
+        
+        // Two operations in flight and the third read, waiting for a slot
+        assertThat(linesRead.get()).isEqualTo(3);
+        release.countDown();
+        assertThat(processed.get(10, TimeUnit.SECONDS)).isEqualTo(10);
+        assertThat(parse(out)).hasSize(10);
+    }
+    
+    @Test
+    void process_TooManyStreams_Rejected() throws Exception {
+        processor.shutdown();
+        properties.getStreaming().setMaxStreams(1);
+        processor = newProcessor();
+        CountDownLatch release = new CountDownLatch(1);
+        when(walletService.tryProcessOperation(any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return OperationResult.success(new WalletResponse(UUID.randomUUID(), BigDecimal.ONE));
+        });
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return processor.process(stream(line(UUID.randomUUID(), "DEPOSIT", "1.00")), new ByteArrayOutputStream());
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(100);
+        
+        assertThatThrownBy(() -> processor.process(stream(""), new ByteArrayOutputStream()))
+            .isInstanceOf(TooManyRequestsException.class);
+        release.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+    
+    private WalletStreamProcessor newProcessor() {
+        return new WalletStreamProcessor(walletService, mock(AdmissionLimiter.class), dispatcher,
+            Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, properties,
+            new SimpleMeterRegistry());
+    }
+    
+    private List<WalletStreamResult> process(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processor.process(stream(body), out);
+        return parse(out);
+    }
+    
+    private List<WalletStreamResult> parse(ByteArrayOutputStream out) throws IOException {
+        List<WalletStreamResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                results.add(objectMapper.readValue(line, WalletStreamResult.class));
+            }
+        }
+        return results;
+    }
+    
+    private static WalletStreamResult result(List<WalletStreamResult> results, long seq) {
+        return results.stream().filter(result -> result.getSeq() == seq).findFirst().orElseThrow();
+    }
+    
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String line(UUID walletId, String type, String amount) {
+        return "{\"walletId\":\"" + walletId + "\",\"operationType\":\"" + type + "\",\"amount\":" + amount + "}";
+    }
+}
@@ -0,0 +1,69 @@
+package com.wallet.stress;
+
+import com.wallet.stress.LinearizabilityChecker.WalletState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reduces a non-linearizable history to a small core that still fails, in the style of
+ * delta debugging. Chunks of operations have their outcome forgotten: a forgotten write
+ * may or may not have taken effect, so the history only gets easier to linearize. If it
+ * still fails, those outcomes were not needed to show the bug. Writes are never dropped,
+ * because dropping one claims it never happened, which would make up a failure of its own.
+ * Forgotten reads have no effect and are dropped.
+ */
+final class HistoryShrinker {
+    
+    private HistoryShrinker() {
+    }
+    
+    static List<StressOperation> shrink(WalletState initial, List<StressOperation> history) {
+        if (LinearizabilityChecker.isLinearizable(initial, history)) {
+            throw new IllegalArgumentException("History is linearizable, nothing to shrink");
+        }
+        List<StressOperation> current = relax(initial, new ArrayList<>(history));
+        current.removeIf(op -> !op.isDefinite() && !op.isWrite());
+        return current;
+    }
+    
+    /**
+     * Forgets outcomes chunk by chunk, halving the chunk size once no chunk of the current
+     * size can be forgotten.
+     */
+    private static List<StressOperation> relax(WalletState initial, List<StressOperation> history) {
+        List<StressOperation> current = history;
+        int chunk = Math.max(1, current.size() / 2);
+        while (true) {
+            boolean reduced = false;
+            for (int start = 0; start < current.size(); start += chunk) {
+                List<StressOperation> candidate = relaxed(current, start, Math.min(current.size(), start + chunk));
+                if (candidate != null && !LinearizabilityChecker.isLinearizable(initial, candidate)) {
+                    current = candidate;
+                    reduced = true;
+                }
+            }
+            if (!reduced) {
+                if (chunk == 1) {
+                    return current;
+                }
+                chunk = Math.max(1, chunk / 2);
+            }
+        }
+    }
+    
+    /**
+     * The history with outcomes in the given range forgotten, or null if they already were.
+     */
+    private static List<StressOperation> relaxed(List<StressOperation> history, int from, int to) {
+        List<StressOperation> result = new ArrayList<>(history);
+        boolean changed = false;
+        for (int i = from; i < to; i++) {
+            if (result.get(i).isDefinite()) {
+                result.set(i, result.get(i).relaxed());
+                changed = true;
+            }
+        }
+        return changed ? result : null;
+    }
+}
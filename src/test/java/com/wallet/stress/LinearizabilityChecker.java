@@ -0,0 +1,115 @@
+package com.wallet.stress;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks one wallet's history against a sequential wallet: deposits add, withdrawals
+ * subtract or are refused when funds are short, every applied write bumps the version by
+ * one, and reads see the balance and version of the latest write.
+ *
+ * <p>The search is the Wing and Gong algorithm with memoization: it tries to order the
+ * operations so each one takes effect between its call and its return. An operation with
+ * an unknown outcome may take effect at any point after its call, or never. Since every
+ * operation in this history touches the same wallet, checking wallets one at a time is
+ * enough (linearizability is compositional).
+ */
+final class LinearizabilityChecker {
+    
+    record WalletState(long balance, long version) {
+    }
+    
+    private LinearizabilityChecker() {
+    }
+    
+    static boolean isLinearizable(WalletState initial, List<StressOperation> history) {
+        List<StressOperation> ops = new ArrayList<>(history);
+        ops.sort(Comparator.comparingLong(StressOperation::invokedNanos));
+        int definite = (int) ops.stream().filter(StressOperation::isDefinite).count();
+        
+        Deque<Frame> stack = new ArrayDeque<>();
+        Set<Frame> seen = new HashSet<>();
+        Frame start = new Frame(0, new BitSet(), initial, 0);
+        stack.push(start);
+        seen.add(start);
+        
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            if (frame.definiteDone == definite) {
+                // Whatever is left has an unknown outcome and may never have happened
+                return true;
+            }
+            // The next operation must have been called before every pending operation returned
+            long earliestReturn = Long.MAX_VALUE;
+            List<Frame> next = new ArrayList<>();
+            for (int i = frame.prefix; i < ops.size(); i++) {
+                StressOperation op = ops.get(i);
+                if (op.invokedNanos() >= earliestReturn) {
+                    break;
+                }
+                if (frame.isDone(i)) {
+                    continue;
+                }
+                earliestReturn = Math.min(earliestReturn, op.returnedNanos());
+                WalletState after = apply(frame.state, op);
+                if (after != null) {
+                    next.add(frame.with(i, after, op.isDefinite()));
+                }
+            }
+            // Push in reverse so the earliest call is tried first
+            for (int i = next.size() - 1; i >= 0; i--) {
+                if (seen.add(next.get(i))) {
+                    stack.push(next.get(i));
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns the state after the operation, or null if it cannot take effect in this state.
+     */
+    static WalletState apply(WalletState state, StressOperation op) {
+        long balance = state.balance();
+        return switch (op.kind()) {
+            case DEPOSIT -> op.outcome() == StressOperation.Outcome.OK && op.balance() != balance + op.amount()
+                ? null
+                : new WalletState(balance + op.amount(), state.version() + 1);
+            case WITHDRAW -> switch (op.outcome()) {
+                case OK -> balance >= op.amount() && op.balance() == balance - op.amount()
+                    ? new WalletState(balance - op.amount(), state.version() + 1)
+                    : null;
+                case INSUFFICIENT_FUNDS -> balance < op.amount() && op.balance() == balance ? state : null;
+                case UNKNOWN -> balance >= op.amount()
+                    ? new WalletState(balance - op.amount(), state.version() + 1)
+                    : state;
+            };
+            case READ -> op.outcome() != StressOperation.Outcome.OK
+                || (op.balance() == balance && op.version() == state.version()) ? state : null;
+        };
+    }
+    
+    /**
+     * A search state: operations before prefix are all linearized, window holds the ones after it.
+     */
+    private record Frame(int prefix, BitSet window, WalletState state, int definiteDone) {
+        
+        boolean isDone(int index) {
+            return index < prefix || window.get(index - prefix);
+        }
+        
+        Frame with(int index, WalletState after, boolean definite) {
+            BitSet done = (BitSet) window.clone();
+            done.set(index - prefix);
+            int shift = done.nextClearBit(0);
+            return new Frame(prefix + shift, done.get(shift, Math.max(shift, done.length())), after,
+                definiteDone + (definite ? 1 : 0));
+        }
+    }
+}
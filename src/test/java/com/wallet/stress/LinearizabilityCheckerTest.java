@@ -0,0 +1,97 @@
+package com.wallet.stress;
+
+import com.wallet.stress.LinearizabilityChecker.WalletState;
+import com.wallet.stress.StressOperation.Kind;
+import com.wallet.stress.StressOperation.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinearizabilityCheckerTest {
+    
+    private static final UUID WALLET = UUID.randomUUID();
+    private static final WalletState INITIAL = new WalletState(100, 1);
+    
+    @Test
+    void overlappingDeposits_EitherOrderIsLinearizable() {
+        List<StressOperation> history = List.of(
+            write(0, Kind.DEPOSIT, 10, Outcome.OK, 120, 0, 10),
+            write(1, Kind.DEPOSIT, 10, Outcome.OK, 110, 5, 15),
+            read(2, 120, 3, 20, 25));
+        
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, history)).isTrue();
+    }
+    
+    @Test
+    void lostUpdate_IsNotLinearizableAndShrinksToTheTwoWrites() {
+        List<StressOperation> history = List.of(
+            read(0, 100, 1, 0, 2),
+            write(1, Kind.WITHDRAW, 30, Outcome.OK, 70, 3, 6),
+            write(2, Kind.DEPOSIT, 30, Outcome.OK, 100, 7, 9),
+            write(3, Kind.DEPOSIT, 10, Outcome.OK, 110, 10, 20),
+            write(4, Kind.DEPOSIT, 10, Outcome.OK, 110, 12, 22));
+        
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, history)).isFalse();
+        List<StressOperation> minimal = HistoryShrinker.shrink(INITIAL, history);
+        assertThat(minimal).filteredOn(StressOperation::isDefinite)
+            .extracting(StressOperation::id)
+            .containsExactlyInAnyOrder(3, 4);
+        // The other writes stay, with their outcomes forgotten; the read is gone
+        assertThat(minimal).extracting(StressOperation::id).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+    
+    @Test
+    void readMissingAWrite_ShrinksToTheReadAlone() {
+        List<StressOperation> history = List.of(
+            write(0, Kind.DEPOSIT, 10, Outcome.OK, 110, 0, 10),
+            write(1, Kind.DEPOSIT, 10, Outcome.OK, 120, 11, 20),
+            read(2, 110, 3, 21, 22));
+        
+        assertThat(HistoryShrinker.shrink(INITIAL, history)).filteredOn(StressOperation::isDefinite)
+            .extracting(StressOperation::id)
+            .containsExactly(2);
+    }
+    
+    @Test
+    void staleReadAfterWriteReturned_IsNotLinearizable() {
+        List<StressOperation> history = List.of(
+            write(0, Kind.DEPOSIT, 10, Outcome.OK, 110, 0, 5),
+            read(1, 100, 1, 6, 8));
+        
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, history)).isFalse();
+    }
+    
+    @Test
+    void overdraftAcceptedAfterRefusal_IsNotLinearizable() {
+        List<StressOperation> history = List.of(
+            write(0, Kind.WITHDRAW, 150, Outcome.INSUFFICIENT_FUNDS, 100, 0, 5),
+            write(1, Kind.WITHDRAW, 150, Outcome.OK, -50, 6, 8));
+        
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, history)).isFalse();
+    }
+    
+    @Test
+    void unknownOutcome_MayOrMayNotHaveTakenEffect() {
+        StressOperation failedDeposit = write(0, Kind.DEPOSIT, 10, Outcome.UNKNOWN, 0, 0, Long.MAX_VALUE);
+        
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, List.of(failedDeposit, read(1, 110, 2, 5, 6))))
+            .isTrue();
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, List.of(failedDeposit, read(1, 100, 1, 5, 6))))
+            .isTrue();
+        assertThat(LinearizabilityChecker.isLinearizable(INITIAL, List.of(failedDeposit, read(1, 105, 2, 5, 6))))
+            .isFalse();
+    }
+    
+    private static StressOperation write(int id, Kind kind, long amount, Outcome outcome, long balance,
+                                         long invoked, long returned) {
+        return new StressOperation(id, id, WALLET, kind, amount, outcome, balance, StressOperation.NO_VERSION,
+            invoked, returned);
+    }
+    
+    private static StressOperation read(int id, long balance, long version, long invoked, long returned) {
+        return new StressOperation(id, id, WALLET, Kind.READ, 0, Outcome.OK, balance, version, invoked, returned);
+    }
+}
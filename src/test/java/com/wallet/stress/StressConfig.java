@@ -0,0 +1,23 @@
+package com.wallet.stress;
+
+import java.time.Duration;
+
+/**
+ * Workload for one stress run. Every value can be overridden with a {@code wallet.stress.*}
+ * system property, e.g. {@code -Dwallet.stress.duration=PT5M -Dwallet.stress.seed=42}.
+ */
+record StressConfig(int threads, int wallets, Duration duration, long seed,
+                    int readPercent, int withdrawPercent, long maxAmount, long initialBalance) {
+    
+    static StressConfig fromSystemProperties() {
+        return new StressConfig(
+            Integer.getInteger("wallet.stress.threads", 8),
+            Integer.getInteger("wallet.stress.wallets", 6),
+            Duration.parse(System.getProperty("wallet.stress.duration", "PT2S")),
+            Long.getLong("wallet.stress.seed", System.nanoTime()),
+            Integer.getInteger("wallet.stress.read-percent", 30),
+            Integer.getInteger("wallet.stress.withdraw-percent", 40),
+            Long.getLong("wallet.stress.max-amount", 5_000L),
+            Long.getLong("wallet.stress.initial-balance", 10_000L));
+    }
+}
@@ -0,0 +1,271 @@
+package com.wallet.stress;
+
+import com.wallet.dto.OperationResult;
+import com.wallet.dto.WalletOperationRequest;
+import com.wallet.model.OperationType;
+import com.wallet.model.Wallet;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletOperationDispatcher;
+import com.wallet.service.WalletService;
+import com.wallet.stress.LinearizabilityChecker.WalletState;
+import com.wallet.stress.StressOperation.Kind;
+import com.wallet.stress.StressOperation.Outcome;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs random deposits, withdrawals and reads from many threads against a few wallets,
+ * records when each call started and returned and what it saw, then checks the history:
+ * no negative balances, versions never go backwards and advance once per write, money is
+ * neither created nor lost, and each wallet's history is linearizable. A non-linearizable
+ * history is shrunk before it is reported.
+ *
+ * <p>Writes go through the WalletOperationDispatcher, like the API, so both serialization
+ * modes are exercised. Reads go to the repository to see the version.
+ */
+final class StressHarness {
+    
+    private static final int MAX_REPORTED_WRITES = 20;
+    
+    private final WalletOperationDispatcher dispatcher;
+    private final WalletService walletService;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicInteger nextId = new AtomicInteger();
+    
+    StressHarness(WalletOperationDispatcher dispatcher, WalletService walletService,
+                  WalletRepository walletRepository, TransactionTemplate transactionTemplate) {
+        this.dispatcher = dispatcher;
+        this.walletService = walletService;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    StressReport run(StressConfig config) throws InterruptedException {
+        Random random = new Random(config.seed());
+        Map<UUID, WalletState> initialStates = new LinkedHashMap<>();
+        for (int i = 0; i < config.wallets(); i++) {
+            UUID walletId = new UUID(random.nextLong(), random.nextLong());
+            walletService.processOperation(new WalletOperationRequest(walletId, OperationType.DEPOSIT, toAmount(config.initialBalance())));
+            Wallet wallet = read(walletId);
+            initialStates.put(walletId, new WalletState(toCents(wallet.getBalance()), wallet.getVersion()));
+        }
+        List<UUID> walletIds = new ArrayList<>(initialStates.keySet());
+        
+        List<List<StressOperation>> perThread = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < config.threads(); t++) {
+            List<StressOperation> recorded = new ArrayList<>();
+            perThread.add(recorded);
+            int thread = t;
+            threads.add(new Thread(() -> work(config, thread, walletIds, recorded, start), "stress-" + t));
+        }
+        threads.forEach(Thread::start);
+        long deadline = System.nanoTime() + config.duration().toNanos();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, (deadline - System.nanoTime()) / 1_000_000) + 60_000);
+        }
+        
+        List<StressOperation> history = new ArrayList<>();
+        perThread.forEach(history::addAll);
+        // One read after everything returned pins down each wallet's final state
+        for (UUID walletId : walletIds) {
+            history.add(execute(-1, walletId, Kind.READ, 0));
+        }
+        return check(config, initialStates, history);
+    }
+    
+    private void work(StressConfig config, int thread, List<UUID> walletIds, List<StressOperation> recorded,
+                      CountDownLatch start) {
+        Random random = new Random(config.seed() * 31 + thread);
+        try {
+            start.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long deadline = System.nanoTime() + config.duration().toNanos();
+        while (System.nanoTime() < deadline) {
+            UUID walletId = walletIds.get(random.nextInt(walletIds.size()));
+            int roll = random.nextInt(100);
+            Kind kind = roll < config.readPercent() ? Kind.READ
+                : roll < config.readPercent() + config.withdrawPercent() ? Kind.WITHDRAW
+                : Kind.DEPOSIT;
+            recorded.add(execute(thread, walletId, kind, 1 + random.nextLong(config.maxAmount())));
+        }
+    }
+    
+    private StressOperation execute(int thread, UUID walletId, Kind kind, long amount) {
+        int id = nextId.getAndIncrement();
+        long invoked = System.nanoTime();
+        try {
+            if (kind == Kind.READ) {
+                Wallet wallet = read(walletId);
+                return new StressOperation(id, thread, walletId, kind, 0, Outcome.OK,
+                    toCents(wallet.getBalance()), wallet.getVersion(), invoked, System.nanoTime());
+            }
+            WalletOperationRequest request = new WalletOperationRequest(walletId,
+                kind == Kind.DEPOSIT ? OperationType.DEPOSIT : OperationType.WITHDRAW, toAmount(amount));
+            OperationResult result = dispatcher.dispatch(walletId, () -> walletService.tryProcessOperation(request));
+            return new StressOperation(id, thread, walletId, kind, amount,
+                result.isSuccess() ? Outcome.OK : Outcome.INSUFFICIENT_FUNDS,
+                toCents(result.getBalance()), StressOperation.NO_VERSION, invoked, System.nanoTime());
+        } catch (RuntimeException ex) {
+            return new StressOperation(id, thread, walletId, kind, amount, Outcome.UNKNOWN,
+                0, StressOperation.NO_VERSION, invoked, Long.MAX_VALUE);
+        }
+    }
+    
+    private Wallet read(UUID walletId) {
+        return transactionTemplate.execute(status -> walletRepository.findById(walletId).orElseThrow());
+    }
+    
+    private static StressReport check(StressConfig config, Map<UUID, WalletState> initialStates,
+                                      List<StressOperation> history) {
+        List<String> violations = new ArrayList<>();
+        Map<UUID, List<StressOperation>> byWallet = history.stream()
+            .collect(Collectors.groupingBy(StressOperation::walletId, LinkedHashMap::new, Collectors.toList()));
+        long origin = history.stream().mapToLong(StressOperation::invokedNanos).min().orElse(0);
+        
+        for (StressOperation op : history) {
+            if (op.isDefinite() && op.kind() != Kind.DEPOSIT && op.balance() < 0) {
+                violations.add("Negative balance: " + op.describe(origin));
+            }
+        }
+        checkVersions(byWallet, initialStates, origin, violations);
+        checkConservation(byWallet, initialStates, violations);
+        
+        for (Map.Entry<UUID, List<StressOperation>> wallet : byWallet.entrySet()) {
+            WalletState initial = initialStates.get(wallet.getKey());
+            if (!LinearizabilityChecker.isLinearizable(initial, wallet.getValue())) {
+                List<StressOperation> minimal = HistoryShrinker.shrink(initial, wallet.getValue());
+                minimal.sort(Comparator.comparingLong(StressOperation::invokedNanos));
+                violations.add(describeFailure(wallet.getKey(), initial, wallet.getValue().size(), minimal, origin));
+            }
+        }
+        int unknown = (int) history.stream().filter(op -> !op.isDefinite()).count();
+        return new StressReport(config, history.size(), unknown, violations);
+    }
+    
+    private static String describeFailure(UUID walletId, WalletState initial, int size,
+                                          List<StressOperation> minimal, long origin) {
+        List<StressOperation> core = minimal.stream().filter(StressOperation::isDefinite).toList();
+        List<StressOperation> forgotten = minimal.stream().filter(op -> !op.isDefinite()).toList();
+        StringBuilder message = new StringBuilder("Not linearizable: wallet ").append(walletId)
+            .append(" from balance=").append(initial.balance()).append(" version=").append(initial.version())
+            .append(", ").append(size).append(" operations shrunk to these ").append(core.size()).append(":");
+        core.forEach(op -> message.append(System.lineSeparator()).append("  ").append(op.describe(origin)));
+        if (!forgotten.isEmpty()) {
+            message.append(System.lineSeparator()).append("  with ").append(forgotten.size())
+                .append(" other writes that may or may not have taken effect:");
+            forgotten.stream().limit(MAX_REPORTED_WRITES)
+                .forEach(op -> message.append(System.lineSeparator()).append("    ").append(op.describe(origin)));
+            if (forgotten.size() > MAX_REPORTED_WRITES) {
+                message.append(System.lineSeparator()).append("    ...");
+            }
+        }
+        return message.toString();
+    }
+    
+    /**
+     * A read that starts after another read returned must not see an older version, and the
+     * final version must account for exactly the writes that took effect.
+     */
+    private static void checkVersions(Map<UUID, List<StressOperation>> byWallet, Map<UUID, WalletState> initialStates,
+                                      long origin, List<String> violations) {
+        for (Map.Entry<UUID, List<StressOperation>> wallet : byWallet.entrySet()) {
+            List<StressOperation> reads = wallet.getValue().stream()
+                .filter(op -> op.kind() == Kind.READ && op.isDefinite())
+                .sorted(Comparator.comparingLong(StressOperation::invokedNanos))
+                .toList();
+            List<StressOperation> byReturn = new ArrayList<>(reads);
+            byReturn.sort(Comparator.comparingLong(StressOperation::returnedNanos));
+            int returned = 0;
+            StressOperation latest = null;
+            for (StressOperation read : reads) {
+                while (returned < byReturn.size() && byReturn.get(returned).returnedNanos() < read.invokedNanos()) {
+                    StressOperation candidate = byReturn.get(returned++);
+                    if (latest == null || candidate.version() > latest.version()) {
+                        latest = candidate;
+                    }
+                }
+                if (latest != null && read.version() < latest.version()) {
+                    violations.add("Version went backwards: " + read.describe(origin) + " after " + latest.describe(origin));
+                }
+            }
+            
+            long applied = wallet.getValue().stream().filter(op -> op.isWrite() && op.outcome() == Outcome.OK).count();
+            long unknown = wallet.getValue().stream().filter(op -> op.isWrite() && !op.isDefinite()).count();
+            long finalVersion = reads.stream().filter(op -> op.thread() == -1).findFirst()
+                .map(StressOperation::version).orElse(StressOperation.NO_VERSION);
+            long advanced = finalVersion - initialStates.get(wallet.getKey()).version();
+            if (advanced < applied || advanced > applied + unknown) {
+                violations.add("Wallet " + wallet.getKey() + " version advanced by " + advanced + " for " + applied
+                    + " applied writes and " + unknown + " with unknown outcome");
+            }
+        }
+    }
+    
+    /**
+     * Final balances across all wallets must equal the initial ones plus deposits minus
+     * withdrawals, give or take the writes whose outcome is unknown.
+     */
+    private static void checkConservation(Map<UUID, List<StressOperation>> byWallet, Map<UUID, WalletState> initialStates,
+                                          List<String> violations) {
+        long expected = initialStates.values().stream().mapToLong(WalletState::balance).sum();
+        long slackUp = 0;
+        long slackDown = 0;
+        long actual = 0;
+        Map<UUID, Long> finals = new HashMap<>();
+        for (List<StressOperation> ops : byWallet.values()) {
+            for (StressOperation op : ops) {
+                if (op.thread() == -1) {
+                    finals.put(op.walletId(), op.balance());
+                    continue;
+                }
+                if (!op.isWrite()) {
+                    continue;
+                }
+                long signed = op.kind() == Kind.DEPOSIT ? op.amount() : -op.amount();
+                if (op.outcome() == Outcome.OK) {
+                    expected += signed;
+                } else if (op.outcome() == Outcome.UNKNOWN) {
+                    if (signed > 0) {
+                        slackUp += signed;
+                    } else {
+                        slackDown -= signed;
+                    }
+                }
+            }
+        }
+        for (long balance : finals.values()) {
+            actual += balance;
+        }
+        if (actual < expected - slackDown || actual > expected + slackUp) {
+            violations.add("Money not conserved: final total " + actual + " cents, expected " + expected
+                + (slackUp + slackDown > 0 ? " (-" + slackDown + "/+" + slackUp + " unknown)" : "") + " cents");
+        }
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+    
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,53 @@
+package com.wallet.stress;
+
+import java.util.UUID;
+
+/**
+ * One operation in a recorded history. Amounts and balances are in cents. A write only
+ * reports the balance it produced; only reads see the version.
+ */
+record StressOperation(int id, int thread, UUID walletId, Kind kind, long amount, Outcome outcome,
+                       long balance, long version, long invokedNanos, long returnedNanos) {
+    
+    static final long NO_VERSION = -1;
+    
+    enum Kind {
+        DEPOSIT,
+        WITHDRAW,
+        READ
+    }
+    
+    enum Outcome {
+        OK,
+        INSUFFICIENT_FUNDS,
+        // Failed with an exception: it may or may not have taken effect
+        UNKNOWN
+    }
+    
+    boolean isDefinite() {
+        return outcome != Outcome.UNKNOWN;
+    }
+    
+    boolean isWrite() {
+        return kind != Kind.READ;
+    }
+    
+    /**
+     * The same call with its outcome forgotten, which can only make a history easier to linearize.
+     */
+    StressOperation relaxed() {
+        return new StressOperation(id, thread, walletId, kind, amount, Outcome.UNKNOWN, 0, NO_VERSION,
+            invokedNanos, Long.MAX_VALUE);
+    }
+    
+    String describe(long originNanos) {
+        String returned = returnedNanos == Long.MAX_VALUE ? "?" : String.valueOf((returnedNanos - originNanos) / 1_000);
+        String result = switch (outcome) {
+            case OK -> kind == Kind.READ ? "balance=" + balance + " version=" + version : "balance=" + balance;
+            case INSUFFICIENT_FUNDS -> "insufficient, balance=" + balance;
+            case UNKNOWN -> "unknown";
+        };
+        return String.format("#%d thread %d %s%s [%dus, %sus] -> %s", id, thread, kind,
+            kind == Kind.READ ? "" : " " + amount, (invokedNanos - originNanos) / 1_000, returned, result);
+    }
+}
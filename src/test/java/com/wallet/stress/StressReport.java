@@ -0,0 +1,24 @@
+package com.wallet.stress;
+
+import java.util.List;
+
+/**
+ * Outcome of a stress run; empty violations means every check passed.
+ */
+record StressReport(StressConfig config, int operations, int unknownOutcomes, List<String> violations) {
+    
+    boolean isClean() {
+        return violations.isEmpty();
+    }
+    
+    String summary() {
+        StringBuilder summary = new StringBuilder()
+            .append(operations).append(" operations (").append(unknownOutcomes).append(" with unknown outcome) on ")
+            .append(config.wallets()).append(" wallets from ").append(config.threads()).append(" threads, seed ")
+            .append(config.seed());
+        for (String violation : violations) {
+            summary.append(System.lineSeparator()).append(violation);
+        }
+        return summary.toString();
+    }
+}
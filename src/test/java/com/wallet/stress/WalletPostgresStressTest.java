@@ -0,0 +1,55 @@
+package com.wallet.stress;
+
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletOperationDispatcher;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The stress harness against a local Postgres, which H2 cannot stand in for when it comes
+ * to locking. Runs only when a database is given:
+ * {@code mvn test -Dtest=WalletPostgresStressTest -Dwallet.stress.postgres-url=jdbc:postgresql://localhost:5432/walletdb}
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "wallet.stress.postgres-url", matches = ".+")
+class WalletPostgresStressTest {
+    
+    @Autowired
+    private WalletOperationDispatcher dispatcher;
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("wallet.stress.postgres-url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("wallet.stress.postgres-username", "wallet_user"));
+        registry.add("spring.datasource.password", () -> System.getProperty("wallet.stress.postgres-password", "wallet_pass"));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+    
+    @Test
+    void randomInterleavings_AreLinearizableAndConserveMoney() throws InterruptedException {
+        StressReport report = new StressHarness(dispatcher, walletService, walletRepository, transactionTemplate)
+            .run(StressConfig.fromSystemProperties());
+        
+        assertThat(report.isClean()).as(report.summary()).isTrue();
+    }
+}
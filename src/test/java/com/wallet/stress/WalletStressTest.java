@@ -0,0 +1,57 @@
+package com.wallet.stress;
+
+import com.wallet.config.WalletProperties;
+import com.wallet.config.WalletProperties.SerializationMode;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletOperationDispatcher;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the stress harness against H2 in both serialization modes. The workload is set with
+ * {@code wallet.stress.*} system properties, see {@link StressConfig}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WalletStressTest {
+    
+    @Autowired
+    private WalletOperationDispatcher dispatcher;
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private WalletRepository walletRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private WalletProperties walletProperties;
+    
+    @AfterEach
+    void tearDown() {
+        walletProperties.getSerialization().setMode(SerializationMode.DATABASE);
+    }
+    
+    @ParameterizedTest
+    @EnumSource(SerializationMode.class)
+    void randomInterleavings_AreLinearizableAndConserveMoney(SerializationMode mode) throws InterruptedException {
+        walletProperties.getSerialization().setMode(mode);
+        
+        StressReport report = new StressHarness(dispatcher, walletService, walletRepository, transactionTemplate)
+            .run(StressConfig.fromSystemProperties());
+        
+        assertThat(report.isClean()).as(report.summary()).isTrue();
+        assertThat(report.operations()).isGreaterThan(report.config().wallets());
+    }
+}